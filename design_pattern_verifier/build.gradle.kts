@@ -1,7 +1,9 @@
 plugins {
 	java
+	`java-test-fixtures`
 	id("org.springframework.boot") version "3.2.3"
 	id("io.spring.dependency-management") version "1.1.4"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -24,13 +26,66 @@ repositories {
 dependencies {
 	implementation("com.github.javaparser:javaparser-core-serialization:3.25.9")
 	implementation("com.github.javaparser:javaparser-symbol-solver-core:3.25.9")
+	implementation("org.apache.commons:commons-compress:1.26.1")
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	compileOnly("org.projectlombok:lombok")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
+	jmhImplementation("org.springframework:spring-test")
+	jmhImplementation(testFixtures(project))
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// ./gradlew jmh, or e.g. ./gradlew jmh -PjmhIncludes=ChainPipelineBenchmark to run a single class
+jmh {
+	jmhVersion.set("1.37")
+	warmupIterations.set(3)
+	iterations.set(5)
+	fork.set(1)
+	jvmArgsAppend.add("-Dbenchmark.fixtures=" + file("src/main/resources/static").absolutePath)
+	(project.findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+	resultFormat.set("JSON")
+}
+
+// ./gradlew cliDist installs the headless analyser into build/cli: a plain jar next to its dependencies
+// and the analyze launcher. Unlike the boot jar it starts no Spring context.
+val cliJar by tasks.registering(Jar::class) {
+	archiveFileName.set("analyze.jar")
+	from(sourceSets.main.get().output)
+	manifest.attributes("Main-Class" to "com.example.design_pattern_verifier.cli.AnalyzeCommand")
+	doFirst {
+		manifest.attributes("Class-Path" to configurations.runtimeClasspath.get().joinToString(" ") { "lib/" + it.name })
+	}
+}
+
+val cliDist by tasks.registering(Sync::class) {
+	into(layout.buildDirectory.dir("cli"))
+	from(cliJar)
+	from("src/cli") {
+		filePermissions { unix("rwxr-xr-x") }
+	}
+	into("lib") {
+		from(configurations.runtimeClasspath)
+	}
+}
+
+// ./gradlew cliCds runs the analyser once over the fixtures and dumps the classes it loaded into
+// build/cli/analyze.jsa, which the launcher then passes as -XX:SharedArchiveFile
+val cliCds by tasks.registering(Exec::class) {
+	dependsOn(cliDist)
+	val cliDir = layout.buildDirectory.dir("cli").get().asFile
+	doFirst {
+		delete(cliDir.resolve("analyze.jsa"))
+	}
+	commandLine(cliDir.resolve("analyze").absolutePath, "--fail-on=never", "--output=" + temporaryDir.resolve("training.txt"),
+		file("src/main/resources/static").absolutePath)
+	environment("JAVA_OPTS", "-XX:ArchiveClassesAtExit=" + cliDir.resolve("analyze.jsa").absolutePath)
+	// the archive is written on exit whatever the analysis found
+	isIgnoreExitValue = true
+}
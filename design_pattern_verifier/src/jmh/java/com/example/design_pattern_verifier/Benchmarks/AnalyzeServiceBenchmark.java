@@ -0,0 +1,63 @@
+package com.example.design_pattern_verifier.Benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+
+/**
+ * The whole upload path of AnalyzeService: parsing, type registration and the analysis of the requested pattern(s).
+ * The parse cache is disabled, the shared JDK solver is kept across invocations as it is in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnalyzeServiceBenchmark {
+    @Param({"VisitorTestDirs/src3", "ChainOfResponsibilityTestDirs/CorrectCor"})
+    public String fixture;
+
+    @Param({"visitor", "chain", "all"})
+    public String pattern;
+
+    @Param({"1", "50"})
+    public int copies;
+
+    private List<SourceFile> sources;
+    private SourceParser sourceParser;
+    private AnalyzeService analyzeService;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.sources = BenchmarkFixtures.load(this.fixture, this.copies);
+        this.sourceParser = new SourceParser(new ParseCache(0));
+        this.analyzeService = BenchmarkFixtures.analyzeService(this.sourceParser);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.analyzeService.destroy();
+        this.sourceParser.destroy();
+    }
+
+    @Benchmark
+    public AnalysisReport analyseSources() throws IOException {
+        return this.analyzeService.analyseSourcesForReport(this.sources, this.pattern, AnalysisListener.NONE);
+    }
+}
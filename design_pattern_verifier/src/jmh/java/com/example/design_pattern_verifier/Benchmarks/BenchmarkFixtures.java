@@ -0,0 +1,96 @@
+package com.example.design_pattern_verifier.Benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Loads the test fixtures under src/main/resources/static for the benchmarks. The fixtures are read
+ * from the directory given by the benchmark.fixtures system property, which the jmh task sets,
+ * because the benchmarks run from a jar where the resources are no directories.
+ */
+final class BenchmarkFixtures {
+    private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @param fixture The fixture directory relative to static/, e.g. "VisitorTestDirs/vsrc1".
+     * @param copies How many times the fixture is repeated. Every copy gets its own package,
+     * so larger inputs keep the structure of the fixture without clashing type names.
+     */
+    static List<SourceFile> load(String fixture, int copies) throws IOException {
+        Path root = Paths.get(System.getProperty("benchmark.fixtures", "src/main/resources/static")).resolve(fixture);
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(path -> path.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+
+        List<SourceFile> sources = new ArrayList<>();
+        for (int copy = 0; copy < copies; copy++) {
+            for (Path file : files) {
+                String source = Files.readString(file, StandardCharsets.UTF_8);
+                String content = copies == 1 ? source : inPackage(source, "bench.copy" + copy);
+                sources.add(new SourceFile("copy" + copy + "/" + file.getFileName(), content.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        return sources;
+    }
+
+    private static String inPackage(String source, String prefix) {
+        Matcher matcher = PACKAGE_DECLARATION.matcher(source);
+        if (matcher.find()) {
+            return matcher.replaceFirst("package " + prefix + "." + Matcher.quoteReplacement(matcher.group(1)) + ";");
+        }
+        return "package " + prefix + ";\n" + source;
+    }
+
+    /**
+     * A fresh parsed input with its own solver, the way AnalyzeService sets one up per upload.
+     */
+    static List<CompilationUnit> parse(SourceParser sourceParser, List<SourceFile> sources) throws IOException {
+        MemoryTypeSolver memoryTypeSolver = new MemoryTypeSolver();
+        CombinedTypeSolver combinedSolver = new CombinedTypeSolver(new ReflectionTypeSolver(), memoryTypeSolver);
+        ParserConfiguration parserConfiguration = new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedSolver));
+        List<CompilationUnit> compilationUnits = sourceParser.parseSources(sources, parserConfiguration);
+        sourceParser.registerTypes(compilationUnits, memoryTypeSolver);
+        return compilationUnits;
+    }
+
+    /**
+     * An AnalyzeService wired the way Spring wires it, without starting a context.
+     */
+    static AnalyzeService analyzeService(SourceParser sourceParser) {
+        AnalyzeService analyzeService = new AnalyzeService();
+        ReflectionTestUtils.setField(analyzeService, "sourceParser", sourceParser);
+        ReflectionTestUtils.setField(analyzeService, "typeSolverPool", new TypeSolverPool());
+        ReflectionTestUtils.setField(analyzeService, "analysisMetrics", new AnalysisMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(analyzeService, "parseMode", "per-file");
+        return analyzeService;
+    }
+}
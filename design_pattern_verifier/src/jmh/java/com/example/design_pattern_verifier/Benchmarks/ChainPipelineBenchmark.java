@@ -0,0 +1,90 @@
+package com.example.design_pattern_verifier.Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.ChainExtractor;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.HandlerChainAnalyzer;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.RequestPropagationAnalyzer;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * Each stage of the chain of responsibility analysis on its own, over compilation units parsed once per trial.
+ * The analyzers keep their results, so every invocation builds new ones from the extracted chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChainPipelineBenchmark {
+    @Param({"ChainOfResponsibilityTestDirs/CorrectCor", "ChainOfResponsibilityTestDirs/IncorrectCor_RedundantHandler3",
+            "ChainOfResponsibilityTestDirs/IncorrectCor_PropagationFlaw_and_Redundancy"})
+    public String fixture;
+
+    @Param({"1", "50"})
+    public int copies;
+
+    private List<CompilationUnit> compilationUnits;
+    private ChainExtractor chainExtractor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        SourceParser sourceParser = new SourceParser(new ParseCache(0));
+        try {
+            this.compilationUnits = BenchmarkFixtures.parse(sourceParser, BenchmarkFixtures.load(this.fixture, this.copies));
+        } finally {
+            sourceParser.destroy();
+        }
+        this.chainExtractor = this.chainExtractor();
+    }
+
+    @Benchmark
+    public ChainExtractor chainExtractor() {
+        ChainExtractor extractor = new ChainExtractor(new ResolutionCache());
+        extractor.extract(this.compilationUnits);
+        return extractor;
+    }
+
+    @Benchmark
+    public String handlerChainAnalyzer() {
+        HandlerChainAnalyzer handlerChainAnalyzer = new HandlerChainAnalyzer(
+                this.chainExtractor.getHandlerHierarchy(),
+                this.chainExtractor.getBaseHandlers(),
+                this.chainExtractor.getChain(),
+                this.chainExtractor.getClients(),
+                this.chainExtractor.getBaseHandlerResponsibilities(),
+                this.chainExtractor.getChain().getConcreteHandlerResponsibilityMap(),
+                this.chainExtractor.getChainObjects(),
+                new ResolutionCache());
+        handlerChainAnalyzer.analyze();
+        return handlerChainAnalyzer.getFormattedAnalysisResults();
+    }
+
+    @Benchmark
+    public String requestPropagationAnalyzer() {
+        RequestPropagationAnalyzer requestPropagationAnalyzer = new RequestPropagationAnalyzer(
+                this.chainExtractor.getHandlerHierarchy(),
+                this.chainExtractor.getBaseHandlers(),
+                this.chainExtractor.getBaseHandlerResponsibilities(),
+                this.chainExtractor.getChain(),
+                this.chainExtractor.getChainVariables(),
+                this.chainExtractor.getChainObjects(),
+                this.chainExtractor.getClients(),
+                this.chainExtractor.getRequestMethods(),
+                this.chainExtractor.isCircularChain());
+        requestPropagationAnalyzer.analyze();
+        return requestPropagationAnalyzer.getFormattedAnalysisResults();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.design_pattern_verifier.Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * Parsing plus registering the uploaded types, with the parse cache disabled so every invocation really parses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParsingBenchmark {
+    @Param({"VisitorTestDirs/vsrc1", "VisitorTestDirs/src3", "ChainOfResponsibilityTestDirs/CorrectCor"})
+    public String fixture;
+
+    @Param({"1", "50"})
+    public int copies;
+
+    private List<SourceFile> sources;
+    private SourceParser sourceParser;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.sources = BenchmarkFixtures.load(this.fixture, this.copies);
+        this.sourceParser = new SourceParser(new ParseCache(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.sourceParser.destroy();
+    }
+
+    @Benchmark
+    public List<CompilationUnit> parseAndRegisterTypes() throws Exception {
+        return BenchmarkFixtures.parse(this.sourceParser, this.sources);
+    }
+}
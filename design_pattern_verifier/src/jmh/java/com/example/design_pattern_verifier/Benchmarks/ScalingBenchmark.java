@@ -0,0 +1,70 @@
+package com.example.design_pattern_verifier.Benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.example.design_pattern_verifier.Synthetic.SyntheticCodebase;
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+
+/**
+ * The whole AnalyzeService pipeline on generated code bases of growing size, one point of a scaling curve per size.
+ * For the visitor pattern the size is the number of elements, for the chain the number of handlers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScalingBenchmark {
+    @Param({"visitor", "chain"})
+    public String pattern;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<SourceFile> sources;
+    private SourceParser sourceParser;
+    private AnalyzeService analyzeService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SyntheticCodebase codebase = new SyntheticCodebase()
+                .elements(this.size)
+                .visitors(Math.max(1, this.size / 100))
+                .hierarchyDepth(3)
+                .hierarchyWidth(3)
+                .handlers(this.size)
+                .redundantHandlers(this.size / 20)
+                .brokenHandlers(this.size / 20)
+                .unusedHandlers(this.size / 50);
+        this.sources = this.pattern.equals("visitor") ? codebase.visitorSources() : codebase.chainSources();
+        this.sourceParser = new SourceParser(new ParseCache(0));
+        this.analyzeService = BenchmarkFixtures.analyzeService(this.sourceParser);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.analyzeService.destroy();
+        this.sourceParser.destroy();
+    }
+
+    @Benchmark
+    public AnalysisReport analyseGeneratedSources() throws IOException {
+        return this.analyzeService.analyseSourcesForReport(this.sources, this.pattern, AnalysisListener.NONE);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.design_pattern_verifier.Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.VisitorPattern.ClassHierarchyExtractor;
+import com.example.design_pattern_verifier.service.VisitorPattern.ClassHierarchyIndex;
+import com.example.design_pattern_verifier.service.VisitorPattern.DoubleDispatchDetector;
+import com.example.design_pattern_verifier.service.VisitorPattern.FusedTraversal;
+import com.example.design_pattern_verifier.service.VisitorPattern.MethodCallCollector;
+import com.example.design_pattern_verifier.service.VisitorPattern.MethodInformationExtractor;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolTable;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorAnalyzer;
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * Each stage of the visitor analysis on its own, over compilation units parsed once per trial.
+ * Every invocation gets a fresh ResolutionCache; the symbol solver's own caches stay warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VisitorPipelineBenchmark {
+    @Param({"VisitorTestDirs/vsrc1", "VisitorTestDirs/vsrc5", "VisitorTestDirs/src3"})
+    public String fixture;
+
+    @Param({"1", "50"})
+    public int copies;
+
+    private List<CompilationUnit> compilationUnits;
+    private FusedTraversal traversal;
+    private MethodCallCollector methodCallCollector;
+    private ClassHierarchyExtractor classHierarchyExtractor;
+    private MethodInformationExtractor methodInformationExtractor;
+    private ClassHierarchyIndex hierarchyIndex;
+    private DoubleDispatchDetector doubleDispatchDetector;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        SourceParser sourceParser = new SourceParser(new ParseCache(0));
+        try {
+            this.compilationUnits = BenchmarkFixtures.parse(sourceParser, BenchmarkFixtures.load(this.fixture, this.copies));
+        } finally {
+            sourceParser.destroy();
+        }
+
+        // one table for the collectors, the hierarchy and the detector, as AnalyzeService shares it
+        SymbolTable symbols = new SymbolTable();
+        this.methodCallCollector = new MethodCallCollector(new ResolutionCache(), symbols);
+        this.classHierarchyExtractor = new ClassHierarchyExtractor(symbols);
+        this.methodInformationExtractor = new MethodInformationExtractor(symbols);
+        this.traversal = this.traverse(this.classHierarchyExtractor, this.methodCallCollector, this.methodInformationExtractor);
+        this.methodCallCollector.finalizeMaps();
+        this.hierarchyIndex = this.classHierarchyExtractor.buildHierarchyIndex();
+        this.doubleDispatchDetector = this.doubleDispatchDetector();
+    }
+
+    private FusedTraversal traverse(ClassHierarchyExtractor extractor, MethodCallCollector collector, MethodInformationExtractor informationExtractor) {
+        FusedTraversal fusedTraversal = new FusedTraversal()
+                .register(extractor)
+                .register(collector)
+                .register(informationExtractor);
+        this.compilationUnits.forEach(cu -> cu.accept(fusedTraversal, null));
+        return fusedTraversal;
+    }
+
+    @Benchmark
+    public ClassHierarchyExtractor classHierarchyExtractor() {
+        ClassHierarchyExtractor extractor = new ClassHierarchyExtractor();
+        this.compilationUnits.forEach(cu -> cu.accept(extractor, null));
+        return extractor;
+    }
+
+    @Benchmark
+    public MethodCallCollector methodCallCollector() {
+        MethodCallCollector collector = new MethodCallCollector(new ResolutionCache());
+        this.compilationUnits.forEach(cu -> cu.accept(collector, null));
+        collector.finalizeMaps();
+        return collector;
+    }
+
+    @Benchmark
+    public MethodInformationExtractor methodInformationExtractor() {
+        MethodInformationExtractor extractor = new MethodInformationExtractor();
+        this.compilationUnits.forEach(cu -> cu.accept(extractor, null));
+        return extractor;
+    }
+
+    /**
+     * All three collectors in the single pass AnalyzeService uses.
+     */
+    @Benchmark
+    public FusedTraversal fusedTraversal() {
+        return this.traverse(new ClassHierarchyExtractor(), new MethodCallCollector(new ResolutionCache()), new MethodInformationExtractor());
+    }
+
+    @Benchmark
+    public DoubleDispatchDetector doubleDispatchDetector() {
+        DoubleDispatchDetector detector = new DoubleDispatchDetector(this.methodCallCollector.getCandidateRelation(), this.methodCallCollector.getSymbols(),
+                this.hierarchyIndex, new ResolutionCache());
+        this.traversal.getMethodsWithCalls().forEach(detector::detect);
+        return detector;
+    }
+
+    @Benchmark
+    public String visitorAnalyzer() {
+        VisitorAnalyzer visitorAnalyzer = new VisitorAnalyzer(this.doubleDispatchDetector.getElementToVisitorMappings(), this.hierarchyIndex,
+                this.methodInformationExtractor);
+        visitorAnalyzer.analyze();
+        return visitorAnalyzer.getFormattedAnalysisResults();
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.design_pattern_verifier.cli;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+import com.example.design_pattern_verifier.service.Findings.FindingsJsonWriter;
+import com.example.design_pattern_verifier.service.Findings.FindingsStreamWriter;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.example.design_pattern_verifier.service.Sharding.ShardPlan;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Analyses a source directory from the command line, for CI jobs that should not boot the web application.
+ * The services are wired by hand, so no Spring context is started:
+ * <pre>
+ * analyze [--pattern=visitor|chain|all|visitor,chain] [--format=text|json|ndjson] [--fail-on=warning|info|never] [--output=file] directory
+ * analyze [options] [--roots=file] [--threads=n] [--max-root-mb=n] directory...
+ * analyze [options] [--shard=module|package] directory...
+ * </pre>
+ * Several directories, or a file listing one per line, are scanned as a batch, see {@link BatchScan}, into one
+ * consolidated report. Directories too large to be parsed at once are analysed shard by shard with --shard,
+ * see {@link AnalyzeService#analyseSharded}. Exits with 0 if no finding reaches the fail-on severity, 1 if one does, and 2 on bad
+ * arguments or if a directory could not be read or analysed.
+ */
+public final class AnalyzeCommand {
+    static final int OK = 0;
+    static final int FINDINGS = 1;
+    static final int ERROR = 2;
+
+    private static final String USAGE = "usage: analyze [--pattern=visitor|chain|all] [--format=text|json|ndjson] "
+            + "[--fail-on=warning|info|never] [--output=file] [--roots=file] [--threads=n] [--max-root-mb=n] [--shard=module|package] directory...";
+    private static final long DEFAULT_MAX_ROOT_MB = 64;
+
+    private AnalyzeCommand() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        String pattern = "all";
+        String format = "text";
+        String failOn = "warning";
+        String output = null;
+        String rootsFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxRootMb = DEFAULT_MAX_ROOT_MB;
+        ShardPlan.Mode shardMode = null;
+        List<Path> roots = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.matches("--pattern=(all|(visitor|chain)(,(visitor|chain))*)")) {
+                pattern = arg.substring("--pattern=".length());
+            } else if (arg.startsWith("--format=")) {
+                format = arg.substring("--format=".length());
+            } else if (arg.startsWith("--fail-on=")) {
+                failOn = arg.substring("--fail-on=".length());
+            } else if (arg.startsWith("--output=")) {
+                output = arg.substring("--output=".length());
+            } else if (arg.startsWith("--roots=")) {
+                rootsFile = arg.substring("--roots=".length());
+            } else if (arg.matches("--threads=[1-9][0-9]*")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.matches("--max-root-mb=[1-9][0-9]*")) {
+                maxRootMb = Long.parseLong(arg.substring("--max-root-mb=".length()));
+            } else if (arg.matches("--shard=(module|package)")) {
+                shardMode = ShardPlan.Mode.valueOf(arg.substring("--shard=".length()).toUpperCase());
+            } else if (arg.startsWith("--")) {
+                err.println(USAGE);
+                return ERROR;
+            } else {
+                roots.add(Paths.get(arg));
+            }
+        }
+        if (rootsFile != null) {
+            try {
+                for (String line : Files.readAllLines(Paths.get(rootsFile))) {
+                    if (!line.isBlank() && !line.startsWith("#")) {
+                        roots.add(Paths.get(line.trim()));
+                    }
+                }
+            } catch (IOException e) {
+                err.println("Could not read the roots file " + rootsFile + ": " + e.getMessage());
+                return ERROR;
+            }
+        }
+        if (roots.isEmpty() || !List.of("text", "json", "ndjson").contains(format)
+                || !List.of("warning", "info", "never").contains(failOn)) {
+            err.println(USAGE);
+            return ERROR;
+        }
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                err.println("Not a directory: " + root);
+                return ERROR;
+            }
+        }
+        boolean batch = rootsFile != null || roots.size() > 1;
+        Path directory = roots.get(0);
+
+        SourceParser sourceParser = new SourceParser(Runtime.getRuntime().availableProcessors(), new ParseCache(0));
+        AnalyzeService analyzeService = new AnalyzeService(sourceParser, new TypeSolverPool(),
+                new AnalysisMetrics(new SimpleMeterRegistry()), "per-file", false);
+        // the analyzers print their progress to System.out, which must only carry the report
+        PrintStream stdout = System.out;
+        System.setOut(err);
+        try (OutputStream reportStream = output == null ? new NonClosingOutputStream(out) : Files.newOutputStream(Paths.get(output))) {
+            ObjectMapper objectMapper = JsonMapper.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+            if (batch) {
+                BatchScan batchScan = new BatchScan(analyzeService, sourceParser, threads, maxRootMb * 1024 * 1024, shardMode);
+                return scanBatch(batchScan, roots, pattern, format, failOn, reportStream, objectMapper, err);
+            }
+            List<Path> sourceFiles = sourceParser.findJavaFilesInParallel(directory);
+            ShardPlan plan = shardMode == null ? null : ShardPlan.plan(directory, sourceFiles, shardMode);
+            AnalysisReport report;
+            if ("ndjson".equals(format)) {
+                FindingsStreamWriter writer = new FindingsStreamWriter(reportStream, objectMapper, false);
+                writer.accepted(pattern, sourceFiles.size());
+                report = plan == null ? analyzeService.analyseFilesForReport(sourceFiles, pattern, writer)
+                        : analyzeService.analyseSharded(plan, pattern, threads, writer);
+                writer.done(report);
+            } else {
+                report = plan == null ? analyzeService.analyseFilesForReport(sourceFiles, pattern, AnalysisListener.NONE)
+                        : analyzeService.analyseSharded(plan, pattern, threads, AnalysisListener.NONE);
+                if ("json".equals(format)) {
+                    FindingsJsonWriter.write(report, reportStream, objectMapper);
+                } else {
+                    reportStream.write(report.getText().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return failsOn(report, failOn) ? FINDINGS : OK;
+        } catch (IOException | UncheckedIOException e) {
+            err.println("Could not analyse " + (batch ? "the batch" : directory) + ": " + e.getMessage());
+            return ERROR;
+        } catch (RuntimeException e) {
+            // an uncaught exception would exit with 1, which reads as "findings"
+            e.printStackTrace(err);
+            return ERROR;
+        } finally {
+            System.setOut(stdout);
+            out.flush();
+            analyzeService.destroy();
+            sourceParser.destroy();
+        }
+    }
+
+    private static int scanBatch(BatchScan batchScan, List<Path> roots, String pattern, String format, String failOn,
+            OutputStream reportStream, ObjectMapper objectMapper, PrintStream err) throws IOException {
+        int[] exitCode = { OK };
+        Consumer<BatchScan.RootResult> exitCodes = result -> {
+            if (result.getStatus() == BatchScan.RootResult.Status.FAILED) {
+                err.println(result.getRoot() + " " + result.getMessage());
+                exitCode[0] = ERROR;
+            } else if (result.getReport() != null && failsOn(result.getReport(), failOn) && exitCode[0] == OK) {
+                exitCode[0] = FINDINGS;
+            }
+        };
+
+        if ("text".equals(format)) {
+            Writer writer = new OutputStreamWriter(reportStream, StandardCharsets.UTF_8);
+            batchScan.scan(roots, pattern, exitCodes.andThen(result -> {
+                try {
+                    writer.write(BatchReportWriter.text(result));
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } else if ("ndjson".equals(format)) {
+            batchScan.scan(roots, pattern, exitCodes.andThen(result -> {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(reportStream, JsonEncoding.UTF8)) {
+                    BatchReportWriter.write(result, generator, objectMapper);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } else {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(reportStream, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeStringField("pattern", pattern);
+                generator.writeArrayFieldStart("roots");
+                batchScan.scan(roots, pattern, exitCodes.andThen(result -> {
+                    try {
+                        BatchReportWriter.write(result, generator, objectMapper);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        }
+        return exitCode[0];
+    }
+
+    private static boolean failsOn(AnalysisReport report, String failOn) {
+        for (Finding finding : report.getFindings()) {
+            if ("info".equals(failOn) || ("warning".equals(failOn) && finding.getSeverity() == Finding.Severity.WARNING)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps the report writers from closing standard out.
+     */
+    private static class NonClosingOutputStream extends OutputStream {
+        private final OutputStream delegate;
+
+        NonClosingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.design_pattern_verifier.cli;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Renders the result of one root of a batch scan, either as a section of the text report or as one
+ * JSON object of the consolidated report, written to the generator one finding at a time.
+ */
+final class BatchReportWriter {
+    private BatchReportWriter() {
+    }
+
+    static String text(BatchScan.RootResult result) {
+        if (result.getReport() == null) {
+            return "Root " + result.getRoot() + " " + result.getMessage() + ".\n\n";
+        }
+        return "Results for root " + result.getRoot() + ":\n\n" + result.getReport().getText() + "\n\n";
+    }
+
+    static void write(BatchScan.RootResult result, JsonGenerator generator, ObjectMapper objectMapper) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("root", result.getRoot().toString());
+        generator.writeStringField("status", result.getStatus().name().toLowerCase(Locale.ROOT));
+        generator.writeNumberField("files", result.getFiles());
+        generator.writeNumberField("bytes", result.getBytes());
+        AnalysisReport report = result.getReport();
+        if (report == null) {
+            generator.writeStringField("message", result.getMessage());
+        } else {
+            generator.writeArrayFieldStart("findings");
+            for (Finding finding : report.getFindings()) {
+                objectMapper.writeValue(generator, finding);
+            }
+            generator.writeEndArray();
+            generator.writeStringField("text", report.getText());
+        }
+        generator.writeEndObject();
+        generator.flush();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.design_pattern_verifier.cli;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Sharding.ShardPlan;
+
+/**
+ * Analyses many source roots, e.g. every repository of a nightly scan, as independent analyses on one
+ * work-stealing pool. All roots share the parse pool and the warmed JDK type solver of the given
+ * services, while each root gets its own parsed units and type solver, which are dropped as soon as
+ * its report is done. Roots whose sources exceed the per-root budget are skipped rather than risking
+ * the heap of the whole scan; when roots are sharded, the budget holds for their largest shard, since
+ * only one shard of a root is held at a time.
+ */
+class BatchScan {
+    private final AnalyzeService analyzeService;
+    private final SourceParser sourceParser;
+    private final int threads;
+    private final long maxRootBytes;
+    private final ShardPlan.Mode shardMode;
+
+    /**
+     * @param threads How many roots are analysed at once.
+     * @param maxRootBytes The most source bytes a root, or the largest shard of a sharded root, may have; parsed and
+     *                     resolved units take a multiple of it on the heap.
+     * @param shardMode How roots are sharded, or null to analyse every root at once.
+     */
+    BatchScan(AnalyzeService analyzeService, SourceParser sourceParser, int threads, long maxRootBytes, ShardPlan.Mode shardMode) {
+        this.analyzeService = analyzeService;
+        this.sourceParser = sourceParser;
+        this.threads = threads;
+        this.maxRootBytes = maxRootBytes;
+        this.shardMode = shardMode;
+    }
+
+    /**
+     * Schedules every root and passes on their results in the order of the roots, each as soon as it and
+     * all roots before it are done.
+     */
+    void scan(List<Path> roots, String pattern, Consumer<RootResult> onResult) {
+        ExecutorService rootPool = Executors.newWorkStealingPool(this.threads);
+        try {
+            List<Future<RootResult>> pending = new ArrayList<>();
+            for (Path root : roots) {
+                pending.add(rootPool.submit(() -> this.analyseRoot(root, pattern)));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                onResult.accept(this.await(roots.get(i), pending.get(i)));
+            }
+        } finally {
+            rootPool.shutdownNow();
+        }
+    }
+
+    private RootResult analyseRoot(Path root, String pattern) {
+        try {
+            List<Path> sourceFiles = this.sourceParser.findJavaFilesInParallel(root);
+            long bytes = bytesOf(sourceFiles);
+            AnalysisReport report;
+            if (this.shardMode == null) {
+                if (bytes > this.maxRootBytes) {
+                    return RootResult.skipped(root, sourceFiles.size(), bytes,
+                            "has " + bytes + " bytes of sources, more than the budget of " + this.maxRootBytes);
+                }
+                report = this.analyzeService.analyseFilesForReport(sourceFiles, pattern, AnalysisListener.NONE);
+            } else {
+                ShardPlan plan = ShardPlan.plan(root, sourceFiles, this.shardMode);
+                for (ShardPlan.Shard shard : plan.getShards()) {
+                    long shardBytes = bytesOf(shard.getFiles());
+                    if (shardBytes > this.maxRootBytes) {
+                        return RootResult.skipped(root, sourceFiles.size(), bytes, "has a shard " + shard.getName() + " with "
+                                + shardBytes + " bytes of sources, more than the budget of " + this.maxRootBytes);
+                    }
+                }
+                // the roots already run in parallel, so each holds the trees of one shard at a time
+                report = this.analyzeService.analyseSharded(plan, pattern, 1, AnalysisListener.NONE);
+            }
+            return RootResult.analysed(root, sourceFiles.size(), bytes, report);
+        } catch (IOException | UncheckedIOException e) {
+            return RootResult.failed(root, "could not be read: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return RootResult.failed(root, "could not be analysed: " + e);
+        }
+    }
+
+    private static long bytesOf(List<Path> sourceFiles) throws IOException {
+        long bytes = 0;
+        for (Path sourceFile : sourceFiles) {
+            bytes += Files.size(sourceFile);
+        }
+        return bytes;
+    }
+
+    private RootResult await(Path root, Future<RootResult> pending) {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return RootResult.failed(root, "was interrupted");
+        } catch (ExecutionException e) {
+            return RootResult.failed(root, "could not be analysed: " + e.getCause());
+        }
+    }
+
+    /**
+     * The outcome for one root: a report if it was analysed, otherwise why not.
+     */
+    static class RootResult {
+        enum Status {
+            ANALYSED, SKIPPED, FAILED
+        }
+
+        private final Path root;
+        private final Status status;
+        private final int files;
+        private final long bytes;
+        private final AnalysisReport report;
+        private final String message;
+
+        private RootResult(Path root, Status status, int files, long bytes, AnalysisReport report, String message) {
+            this.root = root;
+            this.status = status;
+            this.files = files;
+            this.bytes = bytes;
+            this.report = report;
+            this.message = message;
+        }
+
+        static RootResult analysed(Path root, int files, long bytes, AnalysisReport report) {
+            return new RootResult(root, Status.ANALYSED, files, bytes, report, null);
+        }
+
+        static RootResult skipped(Path root, int files, long bytes, String message) {
+            return new RootResult(root, Status.SKIPPED, files, bytes, null, message);
+        }
+
+        static RootResult failed(Path root, String message) {
+            return new RootResult(root, Status.FAILED, 0, 0, null, message);
+        }
+
+        Path getRoot() {
+            return this.root;
+        }
+
+        Status getStatus() {
+            return this.status;
+        }
+
+        int getFiles() {
+            return this.files;
+        }
+
+        long getBytes() {
+            return this.bytes;
+        }
+
+        /**
+         * @return The report, or null if the root was skipped or failed.
+         */
+        AnalysisReport getReport() {
+            return this.report;
+        }
+
+        /**
+         * @return Why the root was skipped or failed, or null if it was analysed.
+         */
+        String getMessage() {
+            return this.message;
+        }
+    }
+}
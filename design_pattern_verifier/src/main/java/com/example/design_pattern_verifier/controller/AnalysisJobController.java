@@ -0,0 +1,110 @@
+package com.example.design_pattern_verifier.controller;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.Jobs.AnalysisJob;
+import com.example.design_pattern_verifier.service.Jobs.AnalysisJobService;
+import com.example.design_pattern_verifier.service.Parsing.ArchiveLimitException;
+import com.example.design_pattern_verifier.service.Parsing.ArchiveReader;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Asynchronous counterpart of the upload endpoints: POST returns a job id right away
+ * and GET /jobs/{id} reports status, progress and, once finished, the analysis result.
+ */
+@RestController
+public class AnalysisJobController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisJobController.class);
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Autowired
+    private ArchiveReader archiveReader;
+
+    @Autowired
+    private AnalysisMetrics analysisMetrics;
+
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitFiles(@RequestParam("files") MultipartFile[] files, @RequestParam("pattern") String pattern) {
+        if (files.length == 0) {
+            return ResponseEntity.badRequest().body("No files provided!");
+        }
+        this.analysisMetrics.recordUpload("jobs", MultipartSources.size(files));
+
+        try {
+            Timer.Sample copying = this.analysisMetrics.start();
+            List<SourceFile> sources = MultipartSources.read(files);
+            this.analysisMetrics.stop(copying, "upload", AnalysisMetrics.NO_PATTERN);
+            if (sources == null) {
+                return ResponseEntity.badRequest().body("Empty file in the request.");
+            }
+            return this.submit(sources, pattern);
+        } catch (Exception e) {
+            LOGGER.error("Job submission failed", e);
+            this.analysisMetrics.countFailure("jobs");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload due to server error.");
+        }
+    }
+
+    @PostMapping("/jobs/archive")
+    public ResponseEntity<?> submitArchive(@RequestParam("archive") MultipartFile archive, @RequestParam("pattern") String pattern) {
+        if (archive.isEmpty()) {
+            return ResponseEntity.badRequest().body("No archive provided!");
+        }
+        if (!ArchiveReader.isSupported(archive.getOriginalFilename())) {
+            return ResponseEntity.badRequest().body("Only .zip and .tar.gz archives are supported.");
+        }
+        this.analysisMetrics.recordUpload("jobs/archive", archive.getSize());
+
+        try (InputStream inputStream = archive.getInputStream()) {
+            Timer.Sample copying = this.analysisMetrics.start();
+            List<SourceFile> sources = this.archiveReader.readJavaSources(archive.getOriginalFilename(), inputStream);
+            this.analysisMetrics.stop(copying, "upload", AnalysisMetrics.NO_PATTERN);
+            if (sources.isEmpty()) {
+                return ResponseEntity.badRequest().body("No .java files in the archive.");
+            }
+            return this.submit(sources, pattern);
+        } catch (ArchiveLimitException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("Job submission failed", e);
+            this.analysisMetrics.countFailure("jobs/archive");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload due to server error.");
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable("id") String id) {
+        AnalysisJob job = this.analysisJobService.get(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown job: " + id);
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private ResponseEntity<?> submit(List<SourceFile> sources, String pattern) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(this.analysisJobService.submit(sources, pattern));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many analyses queued, please retry later.");
+        }
+    }
+}
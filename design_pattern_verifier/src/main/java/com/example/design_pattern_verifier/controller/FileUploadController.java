@@ -1,57 +1,204 @@
 package com.example.design_pattern_verifier.controller;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
 import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.FindingsStreamWriter;
+import com.example.design_pattern_verifier.service.Parsing.ArchiveLimitException;
+import com.example.design_pattern_verifier.service.Parsing.ArchiveReader;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Timer;
 
 @RestController
 public class FileUploadController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileUploadController.class);
+
     private final Path root = Paths.get("uploads");
 
     @Autowired
     private AnalyzeService analyzeService;
 
+    @Autowired
+    private ArchiveReader archiveReader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AnalysisMetrics analysisMetrics;
+
+    /**
+     * When set, uploads are copied into uploads/session_<millis> before they are analysed,
+     * which is handy for inspecting exactly what was received.
+     */
+    @Value("${analysis.upload.stage-to-disk:false}")
+    private boolean stageToDisk;
+
     @PostMapping("/upload")
-    public ResponseEntity<?> handleFileUpload(@RequestParam("files") MultipartFile[] files, @RequestParam("pattern") String pattern) {
+    public ResponseEntity<?> handleFileUpload(@RequestParam("files") MultipartFile[] files, @RequestParam("pattern") String pattern,
+            @RequestParam(value = "format", defaultValue = "text") String format) {
         if (files.length == 0) {
             return ResponseEntity.badRequest().body("No files provided!");
         }
-
-        String uniqueDirName = "session_" + System.currentTimeMillis();
-        Path sessionDir = this.root.resolve(uniqueDirName);
+        this.analysisMetrics.recordUpload("upload", MultipartSources.size(files));
 
         try {
-            Files.createDirectories(sessionDir);
-            for (MultipartFile file : files) {
-                if (!file.isEmpty()) {
-                    String filename = Paths.get(file.getOriginalFilename()).getFileName().toString();
-                    Path destinationPath = sessionDir.resolve(filename).normalize().toAbsolutePath();
-                    if (!destinationPath.getParent().equals(sessionDir.toAbsolutePath())) {
-                        throw new SecurityException("Cannot store file outside the session directory.");
-                    }
-                    try (InputStream inputStream = file.getInputStream()) {
-                        Files.copy(inputStream, destinationPath, StandardCopyOption.REPLACE_EXISTING);
-                    }
-                } else {
+            if (this.stageToDisk) {
+                Timer.Sample copying = this.analysisMetrics.start();
+                Path sessionDir = this.stageFiles(files);
+                this.analysisMetrics.stop(copying, "upload", AnalysisMetrics.NO_PATTERN);
+                if (sessionDir == null) {
                     return ResponseEntity.badRequest().body("Empty file in the request.");
                 }
+                return this.respond(this.analyzeService.analyseSourceDirectoryForReport(sessionDir.toString(), pattern), format);
             }
-            return ResponseEntity.ok(this.analyzeService.analyseSourceDirectory(sessionDir.toString(), pattern));
+
+            Timer.Sample copying = this.analysisMetrics.start();
+            List<SourceFile> sources = MultipartSources.read(files);
+            this.analysisMetrics.stop(copying, "upload", AnalysisMetrics.NO_PATTERN);
+            if (sources == null) {
+                return ResponseEntity.badRequest().body("Empty file in the request.");
+            }
+            return this.respond(this.analyzeService.analyseSourcesForReport(sources, pattern, AnalysisListener.NONE), format);
+        } catch (Exception e) {
+            LOGGER.error("Upload failed", e);
+            this.analysisMetrics.countFailure("upload");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload due to server error.");
+        }
+    }
+
+    /**
+     * Accepts one .zip or .tar.gz of a source tree and analyses its Java files
+     * while the archive is being decompressed, without extracting it to disk. The compressed
+     * archive is held in memory by the container, see spring.servlet.multipart.file-size-threshold,
+     * so it is decompressed straight from the request rather than from a temp file.
+     */
+    @PostMapping("/upload/archive")
+    public ResponseEntity<?> handleArchiveUpload(@RequestParam("archive") MultipartFile archive, @RequestParam("pattern") String pattern,
+            @RequestParam(value = "format", defaultValue = "text") String format) {
+        if (archive.isEmpty()) {
+            return ResponseEntity.badRequest().body("No archive provided!");
+        }
+        if (!ArchiveReader.isSupported(archive.getOriginalFilename())) {
+            return ResponseEntity.badRequest().body("Only .zip and .tar.gz archives are supported.");
+        }
+        this.analysisMetrics.recordUpload("upload/archive", archive.getSize());
+
+        try (InputStream inputStream = archive.getInputStream()) {
+            Timer.Sample copying = this.analysisMetrics.start();
+            List<SourceFile> sources = this.archiveReader.readJavaSources(archive.getOriginalFilename(), inputStream);
+            this.analysisMetrics.stop(copying, "upload", AnalysisMetrics.NO_PATTERN);
+            if (sources.isEmpty()) {
+                return ResponseEntity.badRequest().body("No .java files in the archive.");
+            }
+            return this.respond(this.analyzeService.analyseSourcesForReport(sources, pattern, AnalysisListener.NONE), format);
+        } catch (ArchiveLimitException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
         } catch (Exception e) {
-            System.err.println("Upload failed: " + e.getMessage());
+            LOGGER.error("Archive upload failed", e);
+            this.analysisMetrics.countFailure("upload/archive");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload due to server error.");
         }
     }
+
+    /**
+     * Like /upload, but streams stage updates and findings while the analysis runs instead of
+     * answering once it is done. format=ndjson (default) writes one JSON object per line,
+     * format=sse writes Server-Sent Events. The last event is "done" with the full text report.
+     */
+    @PostMapping("/upload/stream")
+    public ResponseEntity<?> handleStreamingUpload(@RequestParam("files") MultipartFile[] files, @RequestParam("pattern") String pattern,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if (files.length == 0) {
+            return ResponseEntity.badRequest().body("No files provided!");
+        }
+        this.analysisMetrics.recordUpload("upload/stream", MultipartSources.size(files));
+
+        List<SourceFile> sources;
+        try {
+            Timer.Sample copying = this.analysisMetrics.start();
+            sources = MultipartSources.read(files);
+            this.analysisMetrics.stop(copying, "upload", AnalysisMetrics.NO_PATTERN);
+        } catch (Exception e) {
+            LOGGER.error("Upload failed", e);
+            this.analysisMetrics.countFailure("upload/stream");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload due to server error.");
+        }
+        if (sources == null) {
+            return ResponseEntity.badRequest().body("Empty file in the request.");
+        }
+
+        boolean serverSentEvents = "sse".equals(format);
+        StreamingResponseBody body = outputStream -> {
+            FindingsStreamWriter writer = new FindingsStreamWriter(outputStream, this.objectMapper, serverSentEvents);
+            writer.accepted(pattern, sources.size());
+            try {
+                writer.done(this.analyzeService.analyseSourcesForReport(sources, pattern, writer));
+            } catch (UncheckedIOException e) {
+                // the client is gone, nothing left to write to
+                throw e.getCause();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Streaming analysis failed", e);
+                this.analysisMetrics.countFailure("upload/stream");
+                writer.failed("Analysis failed due to server error.");
+            }
+        };
+        MediaType mediaType = serverSentEvents ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    private ResponseEntity<?> respond(AnalysisReport report, String format) {
+        return ReportResponses.respond(report, format, this.objectMapper, this.analysisMetrics);
+    }
+
+    /**
+     * Copies the uploaded files into a fresh session directory.
+     * @return The session directory, or null if the request contained an empty file.
+     */
+    private Path stageFiles(MultipartFile[] files) throws Exception {
+        String uniqueDirName = "session_" + System.currentTimeMillis();
+        Path sessionDir = this.root.resolve(uniqueDirName);
+
+        Files.createDirectories(sessionDir);
+        for (MultipartFile file : files) {
+            if (!file.isEmpty()) {
+                String filename = Paths.get(file.getOriginalFilename()).getFileName().toString();
+                Path destinationPath = sessionDir.resolve(filename).normalize().toAbsolutePath();
+                if (!destinationPath.getParent().equals(sessionDir.toAbsolutePath())) {
+                    throw new SecurityException("Cannot store file outside the session directory.");
+                }
+                try (InputStream inputStream = file.getInputStream()) {
+                    Files.copy(inputStream, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                return null;
+            }
+        }
+        return sessionDir;
+    }
 }
@@ -0,0 +1,72 @@
+package com.example.design_pattern_verifier.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+
+/**
+ * Reads uploaded multipart files into in-memory sources. The parts are held in memory by the container as well,
+ * since the file size threshold is set to the upload limit, so no upload passes through a temp file.
+ */
+final class MultipartSources {
+    private MultipartSources() {
+    }
+
+    /**
+     * @return The sources, or null if the request contained an empty file.
+     */
+    static List<SourceFile> read(MultipartFile[] files) throws IOException {
+        List<SourceFile> sources = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                return null;
+            }
+            String filename = Paths.get(file.getOriginalFilename()).getFileName().toString();
+            try (InputStream inputStream = file.getInputStream()) {
+                sources.add(new SourceFile(filename, inputStream.readAllBytes()));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Like {@link #read(MultipartFile[])}, but keeps the relative path a client sent as the file name,
+     * e.g. "src/shop/Cart.java", so files with the same name in different directories stay apart.
+     * @return The sources, or null if the request contained an empty file.
+     * @throws SecurityException if a name is absolute or leaves its directory.
+     */
+    static List<SourceFile> readKeepingPaths(MultipartFile[] files) throws IOException {
+        List<SourceFile> sources = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                return null;
+            }
+            Path path = Paths.get(file.getOriginalFilename()).normalize();
+            if (path.isAbsolute() || path.startsWith("..")) {
+                throw new SecurityException("Invalid file name: " + file.getOriginalFilename());
+            }
+            try (InputStream inputStream = file.getInputStream()) {
+                sources.add(new SourceFile(path.toString(), inputStream.readAllBytes()));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * @return The combined size of the uploaded files in bytes.
+     */
+    static long size(MultipartFile[] files) {
+        long size = 0;
+        for (MultipartFile file : files) {
+            size += file.getSize();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.design_pattern_verifier.controller;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Projects.Project;
+import com.example.design_pattern_verifier.service.Projects.ProjectLimitException;
+import com.example.design_pattern_verifier.service.Projects.ProjectWorkspace;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Persistent projects: POST /projects/{name} uploads added or changed files and the names of deleted
+ * ones, and answers with the analysis of the whole project, re-analysing only what the diff affects.
+ */
+@RestController
+public class ProjectController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectController.class);
+
+    @Autowired
+    private ProjectWorkspace projectWorkspace;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AnalysisMetrics analysisMetrics;
+
+    @PostMapping("/projects/{name}")
+    public ResponseEntity<?> updateProject(@PathVariable("name") String name,
+            @RequestParam(value = "files", required = false) MultipartFile[] files,
+            @RequestParam(value = "deleted", required = false) List<String> deleted,
+            @RequestParam("pattern") String pattern,
+            @RequestParam(value = "format", defaultValue = "text") String format) {
+        MultipartFile[] changedFiles = files == null ? new MultipartFile[0] : files;
+        List<String> deletedFiles = new ArrayList<>();
+        if (deleted != null) {
+            deleted.forEach(path -> deletedFiles.add(Paths.get(path).normalize().toString()));
+        }
+        if (changedFiles.length == 0 && deletedFiles.isEmpty() && this.projectWorkspace.get(name) == null) {
+            return ResponseEntity.badRequest().body("No files provided!");
+        }
+        this.analysisMetrics.recordUpload("projects", MultipartSources.size(changedFiles));
+
+        try {
+            Timer.Sample copying = this.analysisMetrics.start();
+            List<SourceFile> sources = MultipartSources.readKeepingPaths(changedFiles);
+            this.analysisMetrics.stop(copying, "upload", AnalysisMetrics.NO_PATTERN);
+            if (sources == null) {
+                return ResponseEntity.badRequest().body("Empty file in the request.");
+            }
+            return ReportResponses.respond(this.projectWorkspace.update(name, sources, deletedFiles, pattern), format, this.objectMapper, this.analysisMetrics);
+        } catch (SecurityException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ProjectLimitException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("Update of project {} failed", name, e);
+            this.analysisMetrics.countFailure("projects");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to update the project due to server error.");
+        }
+    }
+
+    /**
+     * @return The names of the files the project currently holds.
+     */
+    @GetMapping("/projects/{name}")
+    public ResponseEntity<?> getProject(@PathVariable("name") String name) {
+        Project project = this.projectWorkspace.get(name);
+        if (project == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown project: " + name);
+        }
+        synchronized (project) {
+            return ResponseEntity.ok(project.getFileNames());
+        }
+    }
+
+    @DeleteMapping("/projects/{name}")
+    public ResponseEntity<?> deleteProject(@PathVariable("name") String name) {
+        if (!this.projectWorkspace.delete(name)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown project: " + name);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
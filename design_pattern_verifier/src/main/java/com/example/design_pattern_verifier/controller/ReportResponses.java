@@ -0,0 +1,35 @@
+package com.example.design_pattern_verifier.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.FindingsJsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Renders a finished analysis report for the synchronous endpoints.
+ */
+final class ReportResponses {
+    private ReportResponses() {
+    }
+
+    /**
+     * Returns the plain text report by default, or the findings as JSON for format=json.
+     */
+    static ResponseEntity<?> respond(AnalysisReport report, String format, ObjectMapper objectMapper, AnalysisMetrics analysisMetrics) {
+        if (!"json".equals(format)) {
+            return ResponseEntity.ok(report.getText());
+        }
+        StreamingResponseBody body = outputStream -> {
+            Timer.Sample formatting = analysisMetrics.start();
+            FindingsJsonWriter.write(report, outputStream, objectMapper);
+            analysisMetrics.stop(formatting, "format.json", AnalysisMetrics.NO_PATTERN);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
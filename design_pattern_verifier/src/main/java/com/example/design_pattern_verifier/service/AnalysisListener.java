@@ -0,0 +1,24 @@
+package com.example.design_pattern_verifier.service;
+
+import com.example.design_pattern_verifier.service.Findings.Finding;
+
+/**
+ * Receives progress updates while AnalyzeService works through an upload.
+ */
+public interface AnalysisListener {
+    AnalysisListener NONE = new AnalysisListener() {};
+
+    /**
+     * @param stage A short name of the stage that was reached, e.g. "parsing".
+     * @param percent A rough estimate of the overall progress between 0 and 100.
+     */
+    default void onStage(String stage, int percent) {
+    }
+
+    /**
+     * Called once per finding, as soon as the analyzer that produced it is done
+     * and before the next analyzer starts.
+     */
+    default void onFinding(Finding finding) {
+    }
+}
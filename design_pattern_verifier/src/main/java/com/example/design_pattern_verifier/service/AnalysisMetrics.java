@@ -0,0 +1,106 @@
+package com.example.design_pattern_verifier.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records where an analysis spends its time and how much it processed. Exposed by the
+ * actuator at /actuator/prometheus, e.g. as analysis_stage_seconds{stage="parse",pattern="none"}.
+ */
+@Component
+public class AnalysisMetrics {
+    /**
+     * Pattern tag of the stages every pattern shares, like receiving the upload and parsing it.
+     */
+    public static final String NO_PATTERN = "none";
+
+    private final MeterRegistry registry;
+
+    public AnalysisMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(this.registry);
+    }
+
+    public void stop(Timer.Sample sample, String stage, String pattern) {
+        sample.stop(this.stageTimer(stage, pattern));
+    }
+
+    public <T> T time(String stage, String pattern, Supplier<T> work) {
+        return this.stageTimer(stage, pattern).record(work);
+    }
+
+    public void time(String stage, String pattern, Runnable work) {
+        this.stageTimer(stage, pattern).record(work);
+    }
+
+    public void record(String stage, String pattern, long nanos) {
+        this.stageTimer(stage, pattern).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts the files, classes and methods of freshly parsed sources.
+     */
+    public void countSources(List<CompilationUnit> compilationUnits) {
+        int classes = 0;
+        int methods = 0;
+        for (CompilationUnit compilationUnit : compilationUnits) {
+            for (ClassOrInterfaceDeclaration declaration : compilationUnit.findAll(ClassOrInterfaceDeclaration.class)) {
+                classes++;
+                methods += declaration.getMethods().size();
+            }
+        }
+        this.registry.counter("analysis.files").increment(compilationUnits.size());
+        this.registry.counter("analysis.classes").increment(classes);
+        this.registry.counter("analysis.methods").increment(methods);
+    }
+
+    /**
+     * Counts the resolution failures a collector swallowed, i.e. calls or types it had to skip.
+     */
+    public void countResolutionFailures(String collector, int failures) {
+        Counter.builder("analysis.resolution.failures")
+                .tag("collector", collector)
+                .register(this.registry)
+                .increment(failures);
+    }
+
+    /**
+     * Counts analyses and uploads that failed with a server error.
+     * @param stage The endpoint or stage that failed, e.g. "upload/archive", "job" or "parse".
+     */
+    public void countFailure(String stage) {
+        Counter.builder("analysis.failures")
+                .tag("stage", stage)
+                .register(this.registry)
+                .increment();
+    }
+
+    /**
+     * @param endpoint The endpoint that received the upload, e.g. "upload" or "jobs/archive".
+     */
+    public void recordUpload(String endpoint, long bytes) {
+        DistributionSummary.builder("analysis.upload.size")
+                .baseUnit("bytes")
+                .tag("endpoint", endpoint)
+                .register(this.registry)
+                .record(bytes);
+    }
+
+    private Timer stageTimer(String stage, String pattern) {
+        return this.registry.timer("analysis.stage", "stage", stage, "pattern", pattern);
+    }
+}
@@ -6,98 +6,565 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.ChainExtractor;
 import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.HandlerChainAnalyzer;
 import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.RequestPropagationAnalyzer;
-import com.example.design_pattern_verifier.service.VisitorPattern.ClassHierarchyExtractor;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.StructuralHasher;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+import com.example.design_pattern_verifier.service.Findings.FindingLocator;
+import com.example.design_pattern_verifier.service.Parsing.ParsedUnits;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.example.design_pattern_verifier.service.Projects.Project;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.example.design_pattern_verifier.service.Sharding.CrossShardTypeSolver;
+import com.example.design_pattern_verifier.service.Sharding.ShardPlan;
+import com.example.design_pattern_verifier.service.Sharding.ShardSummary;
+import com.example.design_pattern_verifier.service.VisitorPattern.ClassHierarchyIndex;
 import com.example.design_pattern_verifier.service.VisitorPattern.DoubleDispatchDetector;
+import com.example.design_pattern_verifier.service.VisitorPattern.FusedTraversal;
 import com.example.design_pattern_verifier.service.VisitorPattern.MethodCallCollector;
 import com.example.design_pattern_verifier.service.VisitorPattern.MethodInformationExtractor;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolRelation;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolTable;
 import com.example.design_pattern_verifier.service.VisitorPattern.VisitorAnalyzer;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorCollection;
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
+
+import io.micrometer.core.instrument.Timer;
 
 @Service
-public class AnalyzeService {
-    private static final String UPLOADS_PATH = "uploads";
+public class AnalyzeService implements DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyzeService.class);
+    private static final String COMBINED_PARSE_MODE = "combined";
+    private static final String NO_RESULTS = "No results found.";
+    private static final String ALL_PATTERNS = "all";
+    private static final List<String> IMPLEMENTED_PATTERNS = List.of("visitor", "chain");
+    // files of other shards a sharded analysis keeps parsed for resolving their types, over the shards that run at once
+    private static final long CROSS_SHARD_CACHED_FILES = 1024;
+
+    /**
+     * Runs the extra patterns of a multi-pattern request; the first pattern runs on the calling thread.
+     */
+    private final ExecutorService patternPool = Executors.newFixedThreadPool(IMPLEMENTED_PATTERNS.size(), runnable -> {
+        Thread thread = new Thread(runnable, "pattern-analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private SourceParser sourceParser;
+
+    @Autowired
+    private TypeSolverPool typeSolverPool;
+
+    @Autowired
+    private AnalysisMetrics analysisMetrics;
+
+    @Value("${analysis.parse-mode:per-file}")
+    private String parseMode;
+
+    @Value("${analysis.chain.abstract-literals:false}")
+    private boolean abstractLiterals;
+
+    // the most files a sharded chain analysis parses together, see ShardSummary.chainFiles
+    @Value("${analysis.shard.max-chain-files:5000}")
+    private int maxChainFiles = 5000;
+
+    public AnalyzeService() {
+    }
+
+    /**
+     * Wires the service by hand, for running without a Spring context, e.g. from the command line.
+     */
+    public AnalyzeService(SourceParser sourceParser, TypeSolverPool typeSolverPool, AnalysisMetrics analysisMetrics,
+            String parseMode, boolean abstractLiterals) {
+        this.sourceParser = sourceParser;
+        this.typeSolverPool = typeSolverPool;
+        this.analysisMetrics = analysisMetrics;
+        this.parseMode = parseMode;
+        this.abstractLiterals = abstractLiterals;
+    }
 
     public String analyseSourceDirectory(String directoryPath, String pattern) {
-        CombinedTypeSolver combinedSolver = new CombinedTypeSolver(
-                new ReflectionTypeSolver(),
-                new JavaParserTypeSolver(Paths.get(UPLOADS_PATH))
-        );
+        return this.analyseSourceDirectoryForReport(directoryPath, pattern).getText();
+    }
+
+    public AnalysisReport analyseSourceDirectoryForReport(String directoryPath, String pattern) {
+        try {
+            ParsedUnits units = COMBINED_PARSE_MODE.equals(this.parseMode)
+                    ? this.parseCombined(Paths.get(directoryPath))
+                    : this.parse(Paths.get(directoryPath), parserConfiguration ->
+                            this.sourceParser.parseAll(this.sourceParser.findJavaFiles(Paths.get(directoryPath)), parserConfiguration));
+            return this.analyse(units, pattern, AnalysisListener.NONE, null);
+        } catch (IOException e) {
+            LOGGER.error("Failed to parse {}", directoryPath, e);
+            this.analysisMetrics.countFailure("parse");
+        }
+        return new AnalysisReport(pattern, NO_RESULTS, List.of());
+    }
+
+    /**
+     * Analyses files straight from the disk without a session directory, so types are only looked up
+     * among the given files. Used by the command line analyser, which finds the files itself.
+     */
+    public AnalysisReport analyseFilesForReport(List<Path> sourceFiles, String pattern, AnalysisListener listener) throws IOException {
+        listener.onStage("parsing", 0);
+        ParsedUnits units = this.parse(null, parserConfiguration -> this.sourceParser.parseAll(sourceFiles, parserConfiguration));
+        listener.onStage("parsed", 40);
+        return this.analyse(units, pattern, listener, null);
+    }
+
+    /**
+     * Analyses a tree too large to be parsed at once, shard by shard, see {@link ShardPlan}. Each shard is parsed
+     * and collected on its own, and only its {@link ShardSummary} outlives its syntax trees. The merged summaries
+     * decide which shards are parsed again to detect double dispatch, and which files the chain is built from.
+     * Types declared in other shards are resolved from the plan's source roots.
+     * @param parallelShards How many shards are parsed at once, which bounds the syntax trees held in memory.
+     */
+    public AnalysisReport analyseSharded(ShardPlan plan, String pattern, int parallelShards, AnalysisListener listener) throws IOException {
+        ExecutorService shardPool = Executors.newFixedThreadPool(Math.max(1, parallelShards), runnable -> {
+            Thread thread = new Thread(runnable, "shard-analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            listener.onStage("parsing", 0);
+            CrossShardTypeSolver crossShardTypes = new CrossShardTypeSolver(plan.getSourceRoots(), CROSS_SHARD_CACHED_FILES, parallelShards);
+            List<Callable<ShardSummary>> collections = new ArrayList<>();
+            for (ShardPlan.Shard shard : plan.getShards()) {
+                collections.add(() -> {
+                    List<CompilationUnit> compilationUnits = this.parseShard(shard.getFiles(), crossShardTypes);
+                    return new ShardSummary(shard, compilationUnits, this.collectForVisitorPattern(compilationUnits, new ResolutionCache()));
+                });
+            }
+            List<ShardSummary> summaries = this.runShards(shardPool, collections);
+            FindingLocator findingLocator = new FindingLocator(List.of());
+            summaries.forEach(summary -> findingLocator.mergeFrom(summary.getFindingLocator()));
+            listener.onStage("parsed", 40);
+
+            List<String> patterns = this.requestedPatterns(pattern);
+            List<AnalysisReport> reports = new ArrayList<>();
+            for (String requested : patterns) {
+                List<Finding> findings = new ArrayList<>();
+                AnalysisListener collector = this.locating(findingLocator, findings, patterns.size() == 1 ? listener : this.prefixStages(requested, listener));
+                String result = NO_RESULTS;
+                switch (requested) {
+                    case "visitor":
+                        String visitorResult = this.processVisitorShards(crossShardTypes, summaries, shardPool, collector);
+                        result = visitorResult.isEmpty() ? NO_RESULTS : visitorResult;
+                        break;
+                    case "chain":
+                        List<Path> chainFiles = ShardSummary.chainFiles(summaries);
+                        if (chainFiles.size() > this.maxChainFiles) {
+                            result = "Chain analysis skipped: the chain spans " + chainFiles.size()
+                                    + " files, more than the limit of " + this.maxChainFiles + ".";
+                            break;
+                        }
+                        ParsedUnits chainUnits = new ParsedUnits(this.parseShard(chainFiles, crossShardTypes));
+                        String chainResult = this.processForChainOfResponsibility(chainUnits, null, collector);
+                        result = chainResult.isEmpty() ? NO_RESULTS : chainResult;
+                        break;
+                    case "observer":
+                        result = "not implemented yet";
+                        break;
+                    default:
+                        break;
+                }
+                reports.add(new AnalysisReport(requested, result, findings));
+            }
+            return patterns.size() == 1 ? reports.get(0) : this.combine(pattern, reports);
+        } finally {
+            shardPool.shutdownNow();
+        }
+    }
 
-        ParserConfiguration parserConfiguration = new ParserConfiguration()
+    /**
+     * Parses some of the plan's files with a solver of their own, which finds the types of all other files through
+     * solvers over the source roots that are its own as well, so shards never share the symbol solver's caches.
+     */
+    private List<CompilationUnit> parseShard(List<Path> sourceFiles, CrossShardTypeSolver crossShardTypes) throws IOException {
+        MemoryTypeSolver shardTypes = new MemoryTypeSolver();
+        CombinedTypeSolver combinedSolver = this.typeSolverPool.sessionSolver(null, shardTypes, crossShardTypes.view());
+        Timer.Sample parsing = this.analysisMetrics.start();
+        List<CompilationUnit> compilationUnits = this.sourceParser.parseAll(sourceFiles, this.parserConfiguration(combinedSolver));
+        this.sourceParser.registerTypes(compilationUnits, shardTypes);
+        this.analysisMetrics.stop(parsing, "parse", AnalysisMetrics.NO_PATTERN);
+        this.analysisMetrics.countSources(compilationUnits);
+        return compilationUnits;
+    }
+
+    /**
+     * The visitor analysis over merged shard summaries. Double dispatch needs the method bodies, so the shards
+     * that declare a type related to a candidate are parsed once more, again a few at a time.
+     */
+    private String processVisitorShards(CrossShardTypeSolver crossShardTypes, List<ShardSummary> summaries,
+            ExecutorService shardPool, AnalysisListener listener) throws IOException {
+        List<VisitorCollection> parts = new ArrayList<>();
+        summaries.forEach(summary -> parts.add(summary.getVisitorCollection()));
+        VisitorCollection collection = VisitorCollection.merge(parts);
+        MethodCallCollector methodCallCollector = collection.getMethodCallCollector();
+        methodCallCollector.finalizeMaps();
+        SymbolRelation candidates = methodCallCollector.getCandidateRelation();
+        BitSet candidateTypes = new BitSet();
+        for (int i = 0; i < candidates.keyCount(); i++) {
+            candidateTypes.set(candidates.key(i));
+        }
+        ClassHierarchyIndex hierarchyIndex = collection.getClassHierarchyExtractor().buildHierarchyIndex();
+        listener.onStage("hierarchy built", 55);
+
+        List<Callable<DoubleDispatchDetector>> detections = new ArrayList<>();
+        for (ShardSummary summary : summaries) {
+            if (summary.mayDispatch(candidateTypes, hierarchyIndex)) {
+                detections.add(() -> {
+                    List<CompilationUnit> compilationUnits = this.parseShard(summary.getShard().getFiles(), crossShardTypes);
+                    FusedTraversal traversal = new FusedTraversal();
+                    compilationUnits.forEach(cu -> cu.accept(traversal, null));
+                    DoubleDispatchDetector Ddd = new DoubleDispatchDetector(candidates, collection.getSymbols(), hierarchyIndex, new ResolutionCache());
+                    this.analysisMetrics.time("analyze.DoubleDispatchDetector", "visitor", () -> traversal.getMethodsWithCalls().forEach(Ddd::detect));
+                    this.analysisMetrics.countResolutionFailures("DoubleDispatchDetector", Ddd.getResolutionFailures());
+                    return Ddd;
+                });
+            }
+        }
+        // the detectors only read the collection's table, so their mappings share its ids
+        SymbolRelation mappings = new SymbolRelation();
+        for (DoubleDispatchDetector Ddd : this.runShards(shardPool, detections)) {
+            SymbolRelation shardMappings = Ddd.getElementToVisitorMappingRelation();
+            for (int i = 0; i < shardMappings.size(); i++) {
+                mappings.add(shardMappings.from(i), shardMappings.to(i));
+            }
+        }
+        listener.onStage("candidates found", 70);
+
+        SymbolTable symbols = collection.getSymbols();
+        return this.analyseVisitors(collection, hierarchyIndex, mappings.toMap(symbols, symbols), null, listener);
+    }
+
+    /**
+     * @return The results of the tasks in their order.
+     */
+    private <T> List<T> runShards(ExecutorService shardPool, List<Callable<T>> tasks) throws IOException {
+        List<Future<T>> pending = new ArrayList<>();
+        tasks.forEach(task -> pending.add(shardPool.submit(task)));
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> result : pending) {
+                results.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pending.forEach(result -> result.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Analyses sources that are held in memory, e.g. read straight from the upload request,
+     * without staging them in a session directory first.
+     */
+    public String analyseSources(List<SourceFile> sources, String pattern) throws IOException {
+        return this.analyseSources(sources, pattern, AnalysisListener.NONE);
+    }
+
+    public String analyseSources(List<SourceFile> sources, String pattern, AnalysisListener listener) throws IOException {
+        return this.analyseSourcesForReport(sources, pattern, listener).getText();
+    }
+
+    /**
+     * Same as {@link #analyseSources(List, String, AnalysisListener)}, but keeps the typed findings
+     * next to the text so callers can render them, e.g. as JSON. A failed parse is thrown rather than
+     * reported as an empty result, so that background jobs and endpoints can tell it apart.
+     */
+    public AnalysisReport analyseSourcesForReport(List<SourceFile> sources, String pattern, AnalysisListener listener) throws IOException {
+        listener.onStage("parsing", 0);
+        ParsedUnits units = this.parse(null, parserConfiguration -> this.sourceParser.parseSources(sources, parserConfiguration));
+        listener.onStage("parsed", 40);
+        return this.analyse(units, pattern, listener, null);
+    }
+
+    /**
+     * Parses with a type solver of the analysis' own and registers the parsed types in it. Afterwards only the
+     * units refer to the solver, so it is dropped together with them once every pattern has released them.
+     */
+    private ParsedUnits parse(Path sessionDirectory, UnitParser unitParser) throws IOException {
+        MemoryTypeSolver uploadedTypesSolver = new MemoryTypeSolver();
+        CombinedTypeSolver combinedSolver = this.typeSolverPool.sessionSolver(sessionDirectory, uploadedTypesSolver);
+        Timer.Sample parsing = this.analysisMetrics.start();
+        List<CompilationUnit> compilationUnits = unitParser.parse(this.parserConfiguration(combinedSolver));
+        this.sourceParser.registerTypes(compilationUnits, uploadedTypesSolver);
+        this.analysisMetrics.stop(parsing, "parse", AnalysisMetrics.NO_PATTERN);
+        this.analysisMetrics.countSources(compilationUnits);
+        return new ParsedUnits(compilationUnits);
+    }
+
+    private ParserConfiguration parserConfiguration(CombinedTypeSolver combinedSolver) {
+        return new ParserConfiguration()
                 .setSymbolResolver(new JavaSymbolSolver(combinedSolver));
+    }
 
-        JavaParser javaParser = new JavaParser(parserConfiguration);
-        String result = "No results found.";
+    /**
+     * Analyses a persistent project after {@link Project#update}: the visitor analysis only re-collects
+     * the files the update marked, and both patterns reuse the resolutions the project kept from earlier runs.
+     */
+    public AnalysisReport analyseProject(Project project, String pattern, AnalysisListener listener) {
+        return this.analyse(ParsedUnits.kept(project.getCompilationUnits(), project.getResolutionCache()), pattern, listener, project);
+    }
+
+    /**
+     * @param pattern One pattern, a comma separated list of them, or "all" for every implemented pattern.
+     * Several patterns are analysed concurrently over the same compilation units, each of which releases
+     * the units once it has extracted its summaries.
+     * @param project The persistent project the units belong to, whose resolutions and earlier results are reused,
+     * or null to analyse from scratch.
+     */
+    private AnalysisReport analyse(ParsedUnits units, String pattern, AnalysisListener listener, Project project) {
+        FindingLocator findingLocator = new FindingLocator(units.getCompilationUnits());
+        List<String> patterns = this.requestedPatterns(pattern);
+        // traversals and comparisons run in parallel, and each node is resolved once for all patterns
+        units.share(patterns.size());
+        if (patterns.size() == 1) {
+            return this.analysePattern(units, project, patterns.get(0), findingLocator, listener);
+        }
+
+        List<Future<AnalysisReport>> others = new ArrayList<>();
+        for (String other : patterns.subList(1, patterns.size())) {
+            others.add(this.patternPool.submit(() ->
+                    this.analysePattern(units, project, other, findingLocator, this.prefixStages(other, listener))));
+        }
+        List<AnalysisReport> reports = new ArrayList<>();
         try {
-            Path combinedFilePath = this.combineJavaFiles(Paths.get(directoryPath));
+            reports.add(this.analysePattern(units, project, patterns.get(0), findingLocator, this.prefixStages(patterns.get(0), listener)));
+        } catch (RuntimeException e) {
+            others.forEach(other -> other.cancel(true));
+            throw e;
+        }
+        for (Future<AnalysisReport> other : others) {
+            reports.add(this.await(other));
+        }
+        return this.combine(pattern, reports);
+    }
+
+    private AnalysisReport combine(String pattern, List<AnalysisReport> reports) {
+        StringBuilder text = new StringBuilder();
+        List<Finding> findings = new ArrayList<>();
+        for (AnalysisReport report : reports) {
+            text.append("Results for pattern ").append(report.getPattern()).append(":\n\n").append(report.getText()).append("\n\n");
+            findings.addAll(report.getFindings());
+        }
+        return new AnalysisReport(pattern, text.toString(), findings);
+    }
+
+    /**
+     * Releases the units once the pattern no longer needs them.
+     */
+    private AnalysisReport analysePattern(ParsedUnits units, Project project, String pattern, FindingLocator findingLocator, AnalysisListener listener) {
+        String result = NO_RESULTS;
+        List<Finding> findings = new ArrayList<>();
+        AnalysisListener collector = this.locating(findingLocator, findings, listener);
+        ResolutionCache resolutionCache = units.getResolutionCache();
+        switch (pattern) {
+            case "visitor":
+                // not kept in a local, so the methods with calls of a fresh collection can go once they are detected
+                String visitorResult = this.processForVisitorPattern(project == null
+                        ? this.collectForVisitorPattern(units.getCompilationUnits(), resolutionCache)
+                        : project.visitorCollection((cu, symbols) -> this.collectForVisitorPattern(List.of(cu), resolutionCache, symbols)), units, project, collector);
+                result = visitorResult.isEmpty() ? NO_RESULTS : visitorResult;
+                break;
+            case "chain":
+                String chainResult = this.processForChainOfResponsibility(units, project, collector);
+                result = chainResult.isEmpty() ? NO_RESULTS : chainResult;
+                break;
+            case "observer":
+                units.release();
+                result = "not implemented yet";
+                break;
+            default:
+                units.release();
+                break;
+        }
+        return new AnalysisReport(pattern, result, findings);
+    }
+
+    /**
+     * Locates and keeps every finding before passing it on, so streamed findings already carry their position.
+     */
+    private AnalysisListener locating(FindingLocator findingLocator, List<Finding> findings, AnalysisListener listener) {
+        return new AnalysisListener() {
+            @Override
+            public void onStage(String stage, int percent) {
+                listener.onStage(stage, percent);
+            }
 
+            @Override
+            public void onFinding(Finding finding) {
+                findingLocator.locate(finding);
+                findings.add(finding);
+                listener.onFinding(finding);
+            }
+        };
+    }
+
+    private List<String> requestedPatterns(String pattern) {
+        if (ALL_PATTERNS.equals(pattern)) {
+            return IMPLEMENTED_PATTERNS;
+        }
+        List<String> patterns = new ArrayList<>();
+        for (String requested : pattern.split(",")) {
+            if (!requested.isBlank() && !patterns.contains(requested.trim())) {
+                patterns.add(requested.trim());
+            }
+        }
+        return patterns.isEmpty() ? List.of(pattern) : patterns;
+    }
+
+    private AnalysisListener prefixStages(String pattern, AnalysisListener listener) {
+        return new AnalysisListener() {
+            @Override
+            public void onStage(String stage, int percent) {
+                listener.onStage(pattern + ": " + stage, percent);
+            }
+
+            @Override
+            public void onFinding(Finding finding) {
+                listener.onFinding(finding);
+            }
+        };
+    }
+
+    private AnalysisReport await(Future<AnalysisReport> report) {
+        try {
+            return report.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for a pattern analysis.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Legacy mode: glues all files into a single temporary unit and parses it in one go.
+     */
+    private ParsedUnits parseCombined(Path directoryPath) throws IOException {
+        CombinedTypeSolver combinedSolver = this.typeSolverPool.sessionSolver(directoryPath, new MemoryTypeSolver());
+        JavaParser javaParser = new JavaParser(this.parserConfiguration(combinedSolver));
+        Timer.Sample combining = this.analysisMetrics.start();
+        Path combinedFilePath = this.combineJavaFiles(directoryPath);
+        this.analysisMetrics.stop(combining, "combine", AnalysisMetrics.NO_PATTERN);
+        try {
+            Timer.Sample parsing = this.analysisMetrics.start();
             ParseResult<CompilationUnit> parseResult = javaParser.parse(combinedFilePath);
+            this.analysisMetrics.stop(parsing, "parse", AnalysisMetrics.NO_PATTERN);
             List<CompilationUnit> compilationUnits = new ArrayList<>();
             parseResult.getResult().ifPresent(compilationUnits::add);
-            
-            switch (pattern) {
-                case "visitor":
-                    String visitorResult = this.processForVisitorPattern(compilationUnits, combinedSolver);
-                    result = visitorResult.isEmpty() ? "No results found." : visitorResult;
-                    break;
-                case "chain":
-                    String chainResult = this.processForChainOfResponsibility(compilationUnits);
-                    result = chainResult.isEmpty() ? "No results found." : chainResult;
-                    break;
-                case "observer":
-                    result = "not implemented yet";
-                    break;
-                default:
-                    break;
-            }
+            this.analysisMetrics.countSources(compilationUnits);
+            return new ParsedUnits(compilationUnits);
+        } finally {
             Files.deleteIfExists(combinedFilePath);
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        return result;
     }
 
-    private String processForVisitorPattern(List<CompilationUnit> compilationUnits, CombinedTypeSolver combinedSolver) {
-        MethodCallCollector methodCallCollector = new MethodCallCollector();
-        ClassHierarchyExtractor classHierarchyExtractor = new ClassHierarchyExtractor();
-        MethodInformationExtractor methodInformationExtractor = new MethodInformationExtractor();
+    private VisitorCollection collectForVisitorPattern(List<CompilationUnit> compilationUnits, ResolutionCache resolutionCache) {
+        return this.collectForVisitorPattern(compilationUnits, resolutionCache, new SymbolTable());
+    }
 
-        compilationUnits.forEach(cu -> {
-            cu.accept(classHierarchyExtractor, null);
-            cu.accept(methodCallCollector, null);
-            cu.accept(methodInformationExtractor, null);
-        });
-        methodCallCollector.finalizeMaps();
-        Map<String, Set<String>> methodInfo = methodInformationExtractor.getMethodInformation();
-        Map<String, Set<String>> interactions = methodInformationExtractor.getInteractions();
-        Map<String, Set<String>> candidates = methodCallCollector.getCandidates();
-        Map<String, String> subclassToSuperclassMap = classHierarchyExtractor.getSubclassToSuperclassMap();
+    private VisitorCollection collectForVisitorPattern(List<CompilationUnit> compilationUnits, ResolutionCache resolutionCache, SymbolTable symbols) {
+        VisitorCollection collection = this.analysisMetrics.time("traversal", "visitor", () -> VisitorCollection.collect(compilationUnits, resolutionCache, symbols));
+        collection.getCollectorNanos().forEach((collector, nanos) -> this.analysisMetrics.record("collect." + collector, "visitor", nanos));
+        this.analysisMetrics.countResolutionFailures("MethodCallCollector", collection.getMethodCallCollector().getResolutionFailures());
+        return collection;
+    }
 
-        DoubleDispatchDetector Ddd = new DoubleDispatchDetector(candidates, subclassToSuperclassMap);
-        compilationUnits.forEach(cu -> cu.accept(Ddd, null));
+    /**
+     * @param project If set, only the visitors its last update can have affected are analysed again.
+     */
+    private String processForVisitorPattern(VisitorCollection collection, ParsedUnits units, Project project, AnalysisListener listener) {
+        collection.getMethodCallCollector().finalizeMaps();
+        ClassHierarchyIndex hierarchyIndex = collection.getClassHierarchyExtractor().buildHierarchyIndex();
+        listener.onStage("hierarchy built", 55);
+
+        Map<String, Set<String>> elementToVisitorMappings = this.detectDoubleDispatch(collection, hierarchyIndex, units.getResolutionCache());
+        if (project == null) {
+            // the methods with calls are the last syntax trees the visitor analysis holds
+            collection = collection.summary();
+        }
+        units.release();
+        listener.onStage("candidates found", 70);
 
-        VisitorAnalyzer Vanalyzer = new VisitorAnalyzer(candidates, Ddd.getElementToVisitorMappings(), subclassToSuperclassMap, methodInfo, interactions);
-        Vanalyzer.analyze();
-        return Vanalyzer.getFormattedAnalysisResults();
+        return this.analyseVisitors(collection, hierarchyIndex, elementToVisitorMappings, project, listener);
+    }
+
+    /**
+     * @return The visitors each element dispatches to, found in the methods with calls of the collection.
+     */
+    private Map<String, Set<String>> detectDoubleDispatch(VisitorCollection collection, ClassHierarchyIndex hierarchyIndex, ResolutionCache resolutionCache) {
+        MethodCallCollector methodCallCollector = collection.getMethodCallCollector();
+        DoubleDispatchDetector Ddd = new DoubleDispatchDetector(methodCallCollector.getCandidateRelation(), collection.getSymbols(),
+                hierarchyIndex, resolutionCache);
+        this.analysisMetrics.time("analyze.DoubleDispatchDetector", "visitor", () -> collection.getMethodsWithCalls().forEach(Ddd::detect));
+        this.analysisMetrics.countResolutionFailures("DoubleDispatchDetector", Ddd.getResolutionFailures());
+        return Ddd.getElementToVisitorMappings();
+    }
+
+    /**
+     * Runs the visitor analysis once the double dispatch mappings are known.
+     * @param collection A collection whose method call maps are finalized.
+     */
+    private String analyseVisitors(VisitorCollection collection, ClassHierarchyIndex hierarchyIndex, Map<String, Set<String>> elementToVisitorMappings,
+            Project project, AnalysisListener listener) {
+        MethodInformationExtractor methodInformationExtractor = collection.getMethodInformationExtractor();
+
+        VisitorAnalyzer Vanalyzer = new VisitorAnalyzer(elementToVisitorMappings, hierarchyIndex, methodInformationExtractor);
+        if (project == null) {
+            this.analysisMetrics.time("analyze.VisitorAnalyzer", "visitor", () -> Vanalyzer.analyze());
+        } else {
+            this.analysisMetrics.time("analyze.VisitorAnalyzer", "visitor", () -> project.analyseVisitors(Vanalyzer, elementToVisitorMappings));
+        }
+        Vanalyzer.getFindings().forEach(listener::onFinding);
+        return this.analysisMetrics.time("format", "visitor", Vanalyzer::getFormattedAnalysisResults);
     }
 
     private Path combineJavaFiles(Path directoryPath) throws IOException {
@@ -121,7 +588,8 @@ public class AnalyzeService {
                             }
                         }
                     } catch (IOException e) {
-                        e.printStackTrace();
+                        LOGGER.warn("Left {} out of the combined sources", path, e);
+                        this.analysisMetrics.countFailure("combine");
                     }
                 });
         }
@@ -133,12 +601,29 @@ public class AnalyzeService {
         return combinedFilePath;
     }
 
-    private String processForChainOfResponsibility(List<CompilationUnit> compilationUnits) {
-        ChainExtractor chainExtractor = new ChainExtractor();
+    /**
+     * @param project If set and its last update cannot have changed the chain, the project's last chain results are reused.
+     */
+    private String processForChainOfResponsibility(ParsedUnits units, Project project, AnalysisListener listener) {
+        AnalysisReport reusable = project == null ? null : project.reusableChainReport();
+        if (reusable != null) {
+            units.release();
+            listener.onStage("chain extracted", 55);
+            reusable.getFindings().forEach(listener::onFinding);
+            listener.onStage("handlers compared", 75);
+            return reusable.getText();
+        }
 
-        compilationUnits.forEach(cu -> {
-            cu.accept(chainExtractor, null);
-        });
+        // the extractor summarizes the responsibilities, so the analyzers below compare summaries only
+        ResolutionCache resolutionCache = units.getResolutionCache();
+        ChainExtractor chainExtractor = new ChainExtractor(resolutionCache, new StructuralHasher(this.abstractLiterals));
+
+        this.analysisMetrics.time("analyze.ChainExtractor", "chain", () -> chainExtractor.extract(units.getCompilationUnits()));
+        units.release();
+        listener.onStage("chain extracted", 55);
+        // both analysers read the whole chain, so each of their findings depends on all of its classes
+        Set<String> chainClasses = chainExtractor.getChainClasses();
+        List<Finding> chainFindings = new ArrayList<>();
 
         StringBuilder chainResults = new StringBuilder();
 
@@ -149,11 +634,19 @@ public class AnalyzeService {
                 chainExtractor.getClients(),
                 chainExtractor.getBaseHandlerResponsibilities(),
                 chainExtractor.getChain().getConcreteHandlerResponsibilityMap(),
-                chainExtractor.getChainObjects());
+                chainExtractor.getChainObjects(),
+                resolutionCache);
+        handlerChainAnalyzer.setAbstractLiterals(this.abstractLiterals);
 
-        handlerChainAnalyzer.analyze();
+        this.analysisMetrics.time("analyze.HandlerChainAnalyzer", "chain", handlerChainAnalyzer::analyze);
 
-        chainResults.append(handlerChainAnalyzer.getFormattedAnalysisResults());
+        this.analysisMetrics.time("format", "chain", () -> chainResults.append(handlerChainAnalyzer.getFormattedAnalysisResults()));
+        chainFindings.addAll(handlerChainAnalyzer.getFindings());
+        handlerChainAnalyzer.getFindings().forEach(finding -> {
+            finding.setDependencies(chainClasses);
+            listener.onFinding(finding);
+        });
+        listener.onStage("handlers compared", 75);
 
         RequestPropagationAnalyzer requestPropagationAnalyzer = new RequestPropagationAnalyzer(
                 chainExtractor.getHandlerHierarchy(),
@@ -166,10 +659,27 @@ public class AnalyzeService {
                 chainExtractor.getRequestMethods(),
                 chainExtractor.isCircularChain());
 
-        requestPropagationAnalyzer.analyze();
+        this.analysisMetrics.time("analyze.RequestPropagationAnalyzer", "chain", requestPropagationAnalyzer::analyze);
 
-        chainResults.append(requestPropagationAnalyzer.getFormattedAnalysisResults());
+        this.analysisMetrics.time("format", "chain", () -> chainResults.append(requestPropagationAnalyzer.getFormattedAnalysisResults()));
+        chainFindings.addAll(requestPropagationAnalyzer.getFindings());
+        requestPropagationAnalyzer.getFindings().forEach(finding -> {
+            finding.setDependencies(chainClasses);
+            listener.onFinding(finding);
+        });
 
+        if (project != null) {
+            project.chainAnalysed(new AnalysisReport("chain", chainResults.toString(), chainFindings), chainClasses);
+        }
         return chainResults.toString();
     }
+
+    @Override
+    public void destroy() {
+        this.patternPool.shutdownNow();
+    }
+
+    private interface UnitParser {
+        List<CompilationUnit> parse(ParserConfiguration parserConfiguration) throws IOException;
+    }
 }
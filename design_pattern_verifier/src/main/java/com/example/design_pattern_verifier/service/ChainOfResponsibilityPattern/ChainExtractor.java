@@ -1,13 +1,14 @@
 package com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern;
 
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
 import com.example.design_pattern_verifier.service.VisitorPattern.MethodInformationExtractor;
+import com.example.design_pattern_verifier.service.VisitorPattern.TypeGraph;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.expr.*;
-import com.github.javaparser.ast.stmt.BlockStmt;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
 import java.util.*;
@@ -19,11 +20,14 @@ import java.util.stream.Collectors;
  * 2. Handlers: extend/implement the base handler
  * 3. Client: the runnable class
  *
+ * The responsibilities are summarized as soon as they are extracted, so the extractor keeps no method body
+ * once the chain is built.
  *  */
 
 public class ChainExtractor extends VoidVisitorAdapter<Void> {
 
     private Map<String, String> handlerHierarchy = new HashMap<>();
+    private final TypeGraph typeGraph = new TypeGraph();
     private List<String> baseHandlers = new ArrayList<>();
     private Chain chain = new Chain();
 
@@ -32,7 +36,8 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
 
     private Map<String, List<Responsibility>> baseHandlerResponsibilities = new HashMap<>();
 
-    private MethodInformationExtractor methodInformationExtractor = new MethodInformationExtractor();
+    // only builds signatures, which keeps no state
+    private static final MethodInformationExtractor SIGNATURES = new MethodInformationExtractor();
     private Set<String> confirmedBaseHandlers = new HashSet<>();
     private ResponsibilityCollector responsibilityCollector = new ResponsibilityCollector();
 
@@ -42,6 +47,24 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
 
     private final Map<String, String> handlerToHandler = new HashMap<>();
     private final Set<String> requestMethods = new HashSet<>();
+    private final ResolutionCache resolutionCache;
+    private final StructuralHasher structuralHasher;
+
+    public ChainExtractor() {
+        this(new ResolutionCache());
+    }
+
+    public ChainExtractor(ResolutionCache resolutionCache) {
+        this(resolutionCache, new StructuralHasher(false));
+    }
+
+    /**
+     * @param structuralHasher hashes the statements of the responsibilities for the HandlerChainAnalyzer
+     */
+    public ChainExtractor(ResolutionCache resolutionCache, StructuralHasher structuralHasher) {
+        this.resolutionCache = resolutionCache;
+        this.structuralHasher = structuralHasher;
+    }
 
     /**
      * 1. Base Handler: an abstract class/interface that handlers extend/implement
@@ -52,10 +75,12 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
      */
     @Override
     public void visit(ClassOrInterfaceDeclaration n, Void arg) {
+        typeGraph.markDeclared(n.getNameAsString());
         n.getExtendedTypes().forEach(ext -> {
             String handler = n.getNameAsString();
             String baseHandler = ext.getNameAsString();
             this.handlerHierarchy.put(handler, baseHandler);
+            typeGraph.addSupertype(handler, baseHandler);
             if (!baseHandlers.contains(baseHandler)) {
                 baseHandlers.add(baseHandler);
             }
@@ -64,31 +89,57 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
             String handler = n.getNameAsString();
             String baseHandler = impl.getNameAsString();
             this.handlerHierarchy.put(handler, baseHandler);
+            typeGraph.addSupertype(handler, baseHandler);
             if (!baseHandlers.contains(baseHandler)) baseHandlers.add(baseHandler);
         });
 
-        n.getMethods().forEach(method -> {
-            String className = n.getNameAsString();
-            String methodSignature = methodInformationExtractor.extractMethodSignature(method);
-            if (methodSignature.contains("main")) clients.add(className);
-        });
+        if (isClient(n)) clients.add(n.getNameAsString());
 
         super.visit(n, arg);
 
     }
+    /**
+     * Whether the class is a client, i.e. one of its method signatures mentions main.
+     * Sharding and projects use this as well, so they pick the same clients as the extraction.
+     */
+    public static boolean isClient(ClassOrInterfaceDeclaration n) {
+        return n.getMethods().stream().anyMatch(method -> SIGNATURES.extractMethodSignature(method).contains("main"));
+    }
+
     @Override
     public void visit(CompilationUnit cu, Void arg) {
         super.visit(cu, arg);
 
+        buildChain(List.of(cu), arg);
+    }
+
+    /**
+     * Extracts the chain from sources that were parsed file by file.
+     * Handlers, base handlers and clients are collected from every unit first
+     * so that the chain can be built across file boundaries.
+     * @param compilationUnits
+     */
+    public void extract(List<CompilationUnit> compilationUnits) {
+        for (CompilationUnit cu : compilationUnits) {
+            super.visit(cu, null);
+        }
+
+        buildChain(compilationUnits, null);
+    }
+
+    private void buildChain(List<CompilationUnit> compilationUnits, Void arg) {
         // Base Handler
+        pickDeclaredBaseHandlers();
         confirmedBaseHandlers = baseHandlers.stream()
                 .filter(baseHandler -> !handlerHierarchy.containsKey(baseHandler))
+                .filter(baseHandler -> typeGraph.isDeclared(typeGraph.idOf(baseHandler)) || handlerHierarchy.containsValue(baseHandler))
                 .collect(Collectors.toSet());
-        extractBaseResponsibilities(cu);
-        extractConcreteResponsibilities(cu);
+        compilationUnits.forEach(this::extractBaseResponsibilities);
+        compilationUnits.forEach(this::extractConcreteResponsibilities);
+        summarizeResponsibilities();
 
         // Chain
-        cu.accept(new ClientVisitor(), arg);
+        compilationUnits.forEach(cu -> cu.accept(new ClientVisitor(), arg));
         createChain();
 
         findRequestMethods();
@@ -96,6 +147,22 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
         //logChainExtractor();
     }
 
+    /**
+     * A handler can extend a class and implement interfaces at the same time, e.g.
+     * "extends Handler implements Serializable". Its base handler is the first supertype
+     * declared in the sources, so that library interfaces do not hide the actual base handler.
+     */
+    private void pickDeclaredBaseHandlers() {
+        handlerHierarchy.replaceAll((handler, baseHandler) -> {
+            for (String supertype : typeGraph.getSupertypes(handler)) {
+                if (typeGraph.isDeclared(typeGraph.idOf(supertype))) {
+                    return supertype;
+                }
+            }
+            return baseHandler;
+        });
+    }
+
     private class ClientVisitor extends VoidVisitorAdapter<Void> {
         @Override
         public void visit(ClassOrInterfaceDeclaration n, Void arg) {
@@ -133,33 +200,21 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
                         final Boolean[] isSetNext = {false};
                         if (n.getScope().isPresent() &&
                                 n.getArguments().isNonEmpty() &&
-                                !n.getArgument(0).calculateResolvedType().isPrimitive()){
-                            String resolved_type = n.getScope().get().calculateResolvedType().asReferenceType().getQualifiedName();
-                            String argument_type = n.getArgument(0).calculateResolvedType().asReferenceType().getQualifiedName();
+                                !resolutionCache.typeOf(n.getArgument(0)).isPrimitive()){
+                            String resolved_type = simpleTypeName(resolutionCache.typeOf(n.getScope().get()).asReferenceType().getQualifiedName());
+                            String argument_type = simpleTypeName(resolutionCache.typeOf(n.getArgument(0)).asReferenceType().getQualifiedName());
                             String resolved_name = n.getScope().get().toString();
 
                             String call_type = chainObjects.get(resolved_name);
 
                             if ((isHandler(call_type) || isHandler(resolved_type)) && isHandler(argument_type)) {
-                                BlockStmt block = getResponsibilityBody(call_type, n.getNameAsString());
-                                if (block == null) {
-                                    block = getResponsibilityBody(resolved_type, n.getNameAsString());
+                                Responsibility responsibility = getResponsibility(call_type, n.getNameAsString());
+                                if (responsibility == null) {
+                                    responsibility = getResponsibility(resolved_type, n.getNameAsString());
                                 }
 
-                                if (block != null) {
-
-                                    block.accept(new VoidVisitorAdapter<Void>() {
-                                        @Override
-                                        public void visit(AssignExpr n, Void arg) {
-                                            if (n.getOperator() == AssignExpr.Operator.ASSIGN){
-                                                String target = n.getTarget().calculateResolvedType().asReferenceType().getQualifiedName();
-                                                String value = n.getValue().calculateResolvedType().asReferenceType().getQualifiedName();
-                                                if (isHandler(target) && isHandler(value)) {
-                                                    isSetNext[0] = true;
-                                                }
-                                            }
-                                        }
-                                    }, null);
+                                if (responsibility != null && responsibility.assignsBetween(ChainExtractor.this::isHandler)) {
+                                    isSetNext[0] = true;
                                 }
                             }
                         }
@@ -175,11 +230,11 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
         }
     }
 
-    public BlockStmt getResponsibilityBody(String handler, String method) {
+    public Responsibility getResponsibility(String handler, String method) {
         if (potentialHandlerNodes.containsKey(handler)) {
             for (Responsibility responsibility: potentialHandlerNodes.get(handler)) {
                 if (responsibility.getMethodName().equals(method)) {
-                    return responsibility.getMethodBody();
+                    return responsibility;
                 }
             }
         }
@@ -187,7 +242,7 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
         if (baseHandlerResponsibilities.containsKey(handler)) {
             for (Responsibility responsibility: baseHandlerResponsibilities.get(handler)) {
                 if (responsibility.getMethodName().equals(method)) {
-                    return responsibility.getMethodBody();
+                    return responsibility;
                 }
             }
         }
@@ -196,7 +251,21 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
     }
 
     public boolean isHandler(String name) {
-        return (confirmedBaseHandlers.contains(name) || handlerHierarchy.containsKey(name));
+        String simpleName = simpleTypeName(name);
+        return (confirmedBaseHandlers.contains(simpleName) || handlerHierarchy.containsKey(simpleName));
+    }
+
+    /**
+     * Handlers are keyed by their simple names, while resolved types carry the package
+     * of the file they were declared in.
+     * @param qualifiedName
+     * @return the name without its package prefix
+     */
+    public static String simpleTypeName(String qualifiedName) {
+        if (qualifiedName == null) {
+            return null;
+        }
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
     }
 
     private void extractConcreteResponsibilities(CompilationUnit cu) {
@@ -227,6 +296,15 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
         });
     }
 
+    /**
+     * Replaces the bodies of all responsibilities by their summaries; everything after this reads the summaries only.
+     */
+    private void summarizeResponsibilities() {
+        for (Map<String, List<Responsibility>> responsibilities : List.of(baseHandlerResponsibilities, potentialHandlerNodes)) {
+            responsibilities.values().forEach(list -> list.forEach(r -> r.summarize(structuralHasher, resolutionCache)));
+        }
+    }
+
     private void findRequestMethods() {
        findRequestMethodsHelper(baseHandlerResponsibilities.values());
        findRequestMethodsHelper(chain.getConcreteHandlerResponsibilityMap().values());
@@ -235,18 +313,11 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
     private void findRequestMethodsHelper(Collection<List<Responsibility>> collection) {
         for (List<Responsibility> responsibilities: collection) {
             for (Responsibility responsibility : responsibilities) {
-                BlockStmt block = responsibility.getMethodBody();
-                block.accept(new VoidVisitorAdapter<Void>() {
-                    @Override
-                    public void visit(MethodCallExpr n, Void arg) {
-                        if (n.getNameAsString().equals(responsibility.getMethodName()) &&
-                                n.getScope().isPresent() &&
-                                confirmedBaseHandlers.contains(
-                                        n.getScope().get().calculateResolvedType().asReferenceType().getQualifiedName())) {
-                                requestMethods.add(responsibility.getMethodName());
-                        }
+                for (String target : responsibility.getForwardTargets()) {
+                    if (confirmedBaseHandlers.contains(simpleTypeName(target))) {
+                        requestMethods.add(responsibility.getMethodName());
                     }
-                }, null);
+                }
             }
         }
     }
@@ -346,10 +417,27 @@ public class ChainExtractor extends VoidVisitorAdapter<Void> {
         return chainVariables;
     }
 
+    public TypeGraph getTypeGraph() {
+        return typeGraph;
+    }
+
     public Map<String, String> getChainObjects() {
         return chainObjects;
     }
 
+    /**
+     * Every class the chain was built from: handlers, their supertypes, the clients and the classes of the chain objects.
+     */
+    public Set<String> getChainClasses() {
+        Set<String> chainClasses = new HashSet<>(handlerHierarchy.keySet());
+        chainClasses.addAll(handlerHierarchy.values());
+        chainClasses.addAll(baseHandlers);
+        chainClasses.addAll(clients);
+        chainClasses.addAll(chainObjects.values());
+        chainClasses.remove(null);
+        return chainClasses;
+    }
+
     public Map<String, String> getHandlerToHandler() {
         return handlerToHandler;
     }
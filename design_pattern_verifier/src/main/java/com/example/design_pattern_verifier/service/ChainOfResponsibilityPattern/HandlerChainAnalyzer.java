@@ -1,10 +1,7 @@
 package com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern;
 
-import com.github.javaparser.ast.expr.AssignExpr;
-import com.github.javaparser.ast.expr.MethodCallExpr;
-import com.github.javaparser.ast.stmt.BlockStmt;
-import com.github.javaparser.ast.stmt.Statement;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
 
 import java.util.*;
 
@@ -16,12 +13,22 @@ public class HandlerChainAnalyzer {
     private final Map<String, List<Responsibility>> responsibilitiesMap;
     private final Map<String, List<Responsibility>> concreteResponsibilitiesMap;
     private final Map<String, String> chainObjects;
+    private final ResolutionCache resolutionCache;
+    private boolean abstractLiterals = false;
     StringBuilder result;
-    StringBuilder logs = new StringBuilder("");;
+    private final List<Finding> findings = new ArrayList<>();
+    // which way the last compared pair includes each other
+    private boolean ast1IncludesAst2;
+    private boolean ast2IncludesAst1;
 
 
     public HandlerChainAnalyzer(
             Map<String, String> handlerHierarchy, List<String> baseHandlers, Chain chain, List<String> clients, Map<String, List<Responsibility>> responsibilitiesMap, Map<String, List<Responsibility>> concreteResponsibilitiesMap, Map<String, String> chainObjects) {
+        this(handlerHierarchy, baseHandlers, chain, clients, responsibilitiesMap, concreteResponsibilitiesMap, chainObjects, new ResolutionCache());
+    }
+
+    public HandlerChainAnalyzer(
+            Map<String, String> handlerHierarchy, List<String> baseHandlers, Chain chain, List<String> clients, Map<String, List<Responsibility>> responsibilitiesMap, Map<String, List<Responsibility>> concreteResponsibilitiesMap, Map<String, String> chainObjects, ResolutionCache resolutionCache) {
         this.handlerHierarchy = handlerHierarchy;
         this.baseHandlers = baseHandlers;
         this.chain = chain;
@@ -29,6 +36,7 @@ public class HandlerChainAnalyzer {
         this.responsibilitiesMap = responsibilitiesMap;
         this.concreteResponsibilitiesMap = concreteResponsibilitiesMap;
         this.chainObjects = chainObjects;
+        this.resolutionCache = resolutionCache;
     }
 
     public void analyze() {
@@ -53,30 +61,43 @@ public class HandlerChainAnalyzer {
         }
 
         List<Responsibility> allResponsibilities = new ArrayList<>(parsedResponsibilities.keySet());
+        // the ChainExtractor summarizes the responsibilities it extracts; these are the ones it has not seen
+        StructuralHasher structuralHasher = new StructuralHasher(abstractLiterals);
+        allResponsibilities.forEach(r -> r.summarize(structuralHasher, resolutionCache));
+        responsibilitiesMap.values().forEach(helpers -> helpers.forEach(r -> r.summarize(structuralHasher, resolutionCache)));
+        ResponsibilityIndex responsibilityIndex = new ResponsibilityIndex(allResponsibilities, this::getHelperInBaseHandler, this::isSetNextCall);
         for (int i = 0; i < allResponsibilities.size(); i++) {
-            for (int j = i+1; j < allResponsibilities.size(); j++) {
-                if (compareResponsibilities(allResponsibilities.get(i), allResponsibilities.get(j))){
-                    if (logs.toString().contains("ast1IncludesAst2") && logs.toString().contains("ast2IncludesAst1")) {
-                        result.append("\n -  The implementation of the responsibility " + allResponsibilities.get(i) + " of " + parsedResponsibilities.get(allResponsibilities.get(i)) +
-                                " is identical to " + allResponsibilities.get(j) + " of " + parsedResponsibilities.get(allResponsibilities.get(j)) + "!\n" +
-                                "Suggestion for Chain of Responsibility Structure: \n Remove redundancy by deleting the handler " + parsedResponsibilities.get(allResponsibilities.get(j)) + " or remove its responsibility." +
-                                " Otherwise, consider removing duplicate functionality from the responsibility of " + parsedResponsibilities.get(allResponsibilities.get(i)) + " to ensure handler Single Responsibility Principle.\n");
-                    } else if (logs.toString().contains("ast1IncludesAst2")) {
-                        result.append("\n -  The implementation of the responsibility " + allResponsibilities.get(i) + " of " + parsedResponsibilities.get(allResponsibilities.get(i)) +
-                                " already covers the functionality of " + allResponsibilities.get(j) + " of " + parsedResponsibilities.get(allResponsibilities.get(j)) + "!\n" +
-                                "Suggestion for Chain of Responsibility Structure: \n Remove redundancy by deleting the handler " + parsedResponsibilities.get(allResponsibilities.get(j)) + " or remove its responsibility." +
-                                " Otherwise, consider removing duplicate functionality from the responsibility of " + parsedResponsibilities.get(allResponsibilities.get(i)) + " to ensure handler Single Responsibility Principle.\n");
-                    } else if (logs.toString().contains("ast2IncludesAst1")) {
-                        result.append("\n -  The implementation of the responsibility " + allResponsibilities.get(j) + " of " + parsedResponsibilities.get(allResponsibilities.get(j)) +
-                                " already covers the functionality of " + allResponsibilities.get(i) + " of " + parsedResponsibilities.get(allResponsibilities.get(i)) + "!\n" +
-                                "Suggestion for Chain of Responsibility Structure: \n Remove redundancy by deleting the handler " + parsedResponsibilities.get(allResponsibilities.get(i)) + " or remove its responsibility." +
-                                " Otherwise, consider removing duplicate functionality from the responsibility of " + parsedResponsibilities.get(allResponsibilities.get(j)) + " to ensure handler Single Responsibility Principle.\n");
+            BitSet candidates = responsibilityIndex.candidatesAfter(i);
+            for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+                if (compareResponsibilities(responsibilityIndex, i, j)){
+                    Responsibility first = allResponsibilities.get(i);
+                    Responsibility second = allResponsibilities.get(j);
+                    String firstHandler = parsedResponsibilities.get(first);
+                    String secondHandler = parsedResponsibilities.get(second);
+                    if (ast1IncludesAst2 && ast2IncludesAst1) {
+                        result.append("\n -  The implementation of the responsibility " + first + " of " + firstHandler +
+                                " is identical to " + second + " of " + secondHandler + "!\n" +
+                                "Suggestion for Chain of Responsibility Structure: \n " + redundancySuggestion(secondHandler, firstHandler) + "\n");
+                        addRedundancyFinding(firstHandler, secondHandler, first, second,
+                                "The implementation of the responsibility " + first + " of " + firstHandler + " is identical to " + second + " of " + secondHandler);
+                    } else if (ast1IncludesAst2) {
+                        result.append("\n -  The implementation of the responsibility " + first + " of " + firstHandler +
+                                " already covers the functionality of " + second + " of " + secondHandler + "!\n" +
+                                "Suggestion for Chain of Responsibility Structure: \n " + redundancySuggestion(secondHandler, firstHandler) + "\n");
+                        addRedundancyFinding(firstHandler, secondHandler, first, second,
+                                "The implementation of the responsibility " + first + " of " + firstHandler + " already covers the functionality of " + second + " of " + secondHandler);
+                    } else if (ast2IncludesAst1) {
+                        result.append("\n -  The implementation of the responsibility " + second + " of " + secondHandler +
+                                " already covers the functionality of " + first + " of " + firstHandler + "!\n" +
+                                "Suggestion for Chain of Responsibility Structure: \n " + redundancySuggestion(firstHandler, secondHandler) + "\n");
+                        addRedundancyFinding(secondHandler, firstHandler, second, first,
+                                "The implementation of the responsibility " + second + " of " + secondHandler + " already covers the functionality of " + first + " of " + firstHandler);
                     }
                     result.append("\n");
 
-                    result.append("\n ===> Redundancy Detected: \n The handlers " + parsedResponsibilities.get(allResponsibilities.get(i)) + " and "
-                            + parsedResponsibilities.get(allResponsibilities.get(j)) +
-                            " have a redundancy in their responsibility " + allResponsibilities.get(i) + "\n");
+                    result.append("\n ===> Redundancy Detected: \n The handlers " + firstHandler + " and "
+                            + secondHandler +
+                            " have a redundancy in their responsibility " + first + "\n");
 
                     result.append("\n");
                 }
@@ -84,6 +105,20 @@ public class HandlerChainAnalyzer {
         }
     }
 
+    private String redundancySuggestion(String redundantHandler, String coveringHandler) {
+        return "Remove redundancy by deleting the handler " + redundantHandler + " or remove its responsibility." +
+                " Otherwise, consider removing duplicate functionality from the responsibility of " + coveringHandler + " to ensure handler Single Responsibility Principle.";
+    }
+
+    /**
+     * The subject is the handler whose responsibility is covered, since that is the one the suggestion asks to remove.
+     */
+    private void addRedundancyFinding(String coveringHandler, String redundantHandler, Responsibility covering, Responsibility redundant, String message) {
+        findings.add(new Finding("chain", Finding.Kind.REDUNDANT_RESPONSIBILITY, Finding.Severity.WARNING, redundantHandler,
+                List.of(coveringHandler, redundantHandler), List.of(covering.getMethodName(), redundant.getMethodName()),
+                message, redundancySuggestion(redundantHandler, coveringHandler)));
+    }
+
     private void logChainAnalysis() {
         result = new StringBuilder("Chain of Responsibility Analysis Results for Chain Structure:  \n");
 
@@ -99,6 +134,8 @@ public class HandlerChainAnalyzer {
             result.append("->" + handler);
         }
         result.append("\n");
+        findings.add(new Finding("chain", Finding.Kind.CHAIN_STRUCTURE, Finding.Severity.INFO, baseHandlers.isEmpty() ? null : baseHandlers.get(0),
+                new ArrayList<>(chain.getHandlerNames()), List.of(), "Chain: " + chain.getHandlerNames() + ", clients: " + clients, null));
         result.append("\n Handler hierarchy (ConcreteHandlerClass=BaseHandlerClass): \n" + handlerHierarchy + "\n");
         Map<String, String> bidirectionalChainObjects = new HashMap<>();
         for(Map.Entry<String, String> entry : chainObjects.entrySet()){
@@ -107,6 +144,8 @@ public class HandlerChainAnalyzer {
         for (String handler: handlerHierarchy.keySet()) {
             if(!(chain.getHandlerNames().contains(bidirectionalChainObjects.get(handler)))) {
                 result.append("\n ===> Redundancy Detected:Handler " + handler + " is redundant since it is implemented but not used in the chain\n");
+                findings.add(new Finding("chain", Finding.Kind.UNUSED_HANDLER, Finding.Severity.WARNING, handler, Arrays.asList(handler, handlerHierarchy.get(handler)), List.of(),
+                        "Handler " + handler + " is implemented but not used in the chain", "Add " + handler + " to the chain or delete it."));
             }
         }
         result.append("\n");
@@ -124,99 +163,56 @@ public class HandlerChainAnalyzer {
 
     /**
      * Basic AST comparison catches if ASTs are identical
-     * @param r1
-     * @param r2
+     * @param responsibilityIndex
+     * @param i
+     * @param j
      * @return
      */
-    private boolean compareResponsibilities(Responsibility r1, Responsibility r2) {
-        BlockStmt ast1 = r1.getMethodBody();
-        BlockStmt ast2 = r2.getMethodBody();
+    private boolean compareResponsibilities(ResponsibilityIndex responsibilityIndex, int i, int j) {
+        if (responsibilityIndex.isSetNextCall(i) || responsibilityIndex.isSetNextCall(j)) return false;
 
-        if (isSetNextCall(ast1) || isSetNextCall(ast2)) return false;
+        // If one AST is a subset of the other, or calls a function that is a subset of the other
+        ast1IncludesAst2 = responsibilityIndex.statementsIncludedIn(i, j) || responsibilityIndex.callsHelperWithBodyOf(i, j);
+        ast2IncludesAst1 = responsibilityIndex.statementsIncludedIn(j, i) || responsibilityIndex.callsHelperWithBodyOf(j, i);
 
-        Set<String> statementsAst1 = collectStatements(ast1);
-        Set<String> statementsAst2 = collectStatements(ast2);
-
-        // If one AST is a subset of the other
-        boolean ast1IncludesAst2 = statementsAst2.containsAll(statementsAst1);
-        boolean ast2IncludesAst1 = statementsAst1.containsAll(statementsAst2);
-
-        // If one AST calls a function that is a subset of the other
-        boolean ast1CallsMethodWithBodyOfR2 = callsMethodWithBody(ast1, r2.getMethodBody());
-        boolean ast2CallsMethodWithBodyOfR1 = callsMethodWithBody(ast2, r1.getMethodBody());
-
-        if (ast1IncludesAst2 || ast1CallsMethodWithBodyOfR2) {
-            logs.append("ast1IncludesAst2");
-
-        }
-        if (ast2IncludesAst1 || ast2CallsMethodWithBodyOfR1) {
-            logs.append("ast2IncludesAst1");
-        }
-
-        return ast1IncludesAst2 || ast2IncludesAst1 || ast1CallsMethodWithBodyOfR2 || ast2CallsMethodWithBodyOfR1;
+        return ast1IncludesAst2 || ast2IncludesAst1;
     }
 
-    private Set<String> collectStatements(BlockStmt ast) {
-        Set<String> statements = new HashSet<>();
-        ast.accept(new VoidVisitorAdapter<Void>() {
-            @Override
-            public void visit(BlockStmt n, Void arg) {
-                for (Statement stmt : n.getStatements()) {
-                    statements.add(stmt.toString());
-                }
-                super.visit(n, arg);
-            }
-        }, null);
-        return statements;
-    }
-
-
-    private boolean callsMethodWithBody(BlockStmt ast, BlockStmt otherBody) {
-        final boolean[] callsMethodWithBody = {false};
-        ast.accept(new VoidVisitorAdapter<Void>() {
-            @Override
-            public void visit(MethodCallExpr n, Void arg) {
-                String methodName = n.getNameAsString();
-                BlockStmt methodBody = getMethodBodyByNameOfHelperInBaseHandler(methodName);
-                if (methodBody != null && methodBody.equals(otherBody)) {
-                    callsMethodWithBody[0] = true;
-                }
-                super.visit(n, arg);
-            }
-        }, null);
-        return callsMethodWithBody[0];
-    }
-
-    private BlockStmt getMethodBodyByNameOfHelperInBaseHandler(String methodName) {
+    private Responsibility getHelperInBaseHandler(String methodName) {
         List<Responsibility> possibleDeclaredFunctions = responsibilitiesMap.get(baseHandlers.get(0));
+        if (possibleDeclaredFunctions == null) {
+            return null;
+        }
         for (Responsibility r: possibleDeclaredFunctions) {
             if(r.getMethodName().equals(methodName)) {
-                return r.getMethodBody();
+                return r;
             }
         }
         return null;
     }
 
-    private boolean isSetNextCall(BlockStmt ast) {
-        final boolean[] isSetNext = {false};
-        ast.accept(new VoidVisitorAdapter<Void>() {
-            @Override
-            public void visit(AssignExpr n, Void arg) {
-                if (n.getOperator() == AssignExpr.Operator.ASSIGN){
-                    String target = n.getTarget().calculateResolvedType().asReferenceType().getQualifiedName();
-                    String value = n.getValue().calculateResolvedType().asReferenceType().getQualifiedName();
-                    if (isHandler(target) && isHandler(value)) {
-                        isSetNext[0] = true;
-                    }
-                }
-            }
-        }, null);
-        return isSetNext[0];
+    private boolean isSetNextCall(Responsibility responsibility) {
+        return responsibility.assignsBetween(this::isHandler);
     }
 
 
     public boolean isHandler(String name) {
-        return (baseHandlers.contains(name) || handlerHierarchy.containsKey(name));
+        String simpleName = ChainExtractor.simpleTypeName(name);
+        return (baseHandlers.contains(simpleName) || handlerHierarchy.containsKey(simpleName));
+    }
+
+    /**
+     * When set, responsibilities that only differ in their literals (e.g. the message a logger prints)
+     * are reported as redundant as well. Responsibilities are hashed when they are summarized, so this
+     * has to match the hasher of the ChainExtractor that extracted them.
+     * @param abstractLiterals
+     */
+    public void setAbstractLiterals(boolean abstractLiterals) {
+        this.abstractLiterals = abstractLiterals;
+    }
+
+    public List<Finding> getFindings() {
+        return findings;
     }
 
     public String getFormattedAnalysisResults() {
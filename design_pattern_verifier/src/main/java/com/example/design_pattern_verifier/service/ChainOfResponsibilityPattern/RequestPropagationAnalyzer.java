@@ -1,8 +1,6 @@
 package com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern;
 
-import com.github.javaparser.ast.expr.*;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.github.javaparser.ast.stmt.*;
+import com.example.design_pattern_verifier.service.Findings.Finding;
 
 import java.util.*;
 
@@ -25,6 +23,7 @@ public class RequestPropagationAnalyzer {
     private final boolean circularChain;
 
     private StringBuilder result;
+    private final List<Finding> findings = new ArrayList<>();
 
     public RequestPropagationAnalyzer(
             Map<String, String> handlerHierarchy,
@@ -53,11 +52,19 @@ public class RequestPropagationAnalyzer {
         result.append("\t - client calls the following request methods: ").append(requestMethods).append("\n");
         if (circularChain) {
             result.append("\t - the created chain is circular which can result in an endless loop of requests. \n");
+            findings.add(new Finding("chain", Finding.Kind.CIRCULAR_CHAIN, Finding.Severity.WARNING, firstHandlerClass(),
+                    new ArrayList<>(chain.getHandlerNames()), new ArrayList<>(requestMethods),
+                    "The created chain is circular which can result in an endless loop of requests.", "Make sure the last handler of the chain does not point back to an earlier one."));
             System.out.println();
         } else {
             checkPropagation();
             if (!canPropagate.isEmpty()) {
                 result.append("\t - the following chain handlers have the ability to propagate requests to handlers down the chain: ").append(canPropagate).append("\n");
+                for (Map.Entry<String, String> entry: canPropagate.entrySet()) {
+                    findings.add(new Finding("chain", Finding.Kind.REQUEST_PROPAGATION, Finding.Severity.INFO, chainObjects.get(entry.getKey()),
+                            List.of(entry.getKey()), List.of(entry.getValue()),
+                            "Handler " + entry.getKey() + " propagates " + entry.getValue() + " down the chain", null));
+                }
             }
             if (!cannotPropagate.isEmpty()) {
                 result.append("\t - the following chain handlers cannot propagate requests to the handlers down the chain: ").append(cannotPropagate).append("\n");
@@ -65,6 +72,10 @@ public class RequestPropagationAnalyzer {
                 result.append("\nHandlers to investigate:\n");
                 for (String handler: cannotPropagate.keySet()) {
                     result.append("\t - Handler of class type ").append(chainObjects.get(handler)).append(" with request method ").append(cannotPropagate.get(handler)).append("\n");
+                    findings.add(new Finding("chain", Finding.Kind.BROKEN_PROPAGATION, Finding.Severity.WARNING, chainObjects.get(handler),
+                            List.of(handler), List.of(cannotPropagate.get(handler)),
+                            "Handler " + handler + " cannot propagate " + cannotPropagate.get(handler) + " to the next handler in chain",
+                            "Ensure that " + cannotPropagate.get(handler) + " passes the request on to the next handler in chain."));
                 }
             }
         }
@@ -73,35 +84,29 @@ public class RequestPropagationAnalyzer {
     private void checkPropagation() {
         for (String handler: chain.getHandlerNames()) {
             for (String request: requestMethods) {
-                BlockStmt block = findRequest(request, handler);
-
-                final Boolean[] canPropegate = {false};
-                if (block != null) {
-                    block.accept(new VoidVisitorAdapter<Void>() {
-                        @Override
-                        public void visit(MethodCallExpr n, Void arg) {
-                            if (n.getScope().isPresent() &&
-                                n.getNameAsString().equals(request) &&
-                                baseHandlers.contains(
-                                        n.getScope().get().calculateResolvedType().asReferenceType().getQualifiedName())) {
-                                canPropagate.put(handler, request);
-                                canPropegate[0] = true;
-                            }
+                Responsibility responsibility = findRequest(request, handler);
+
+                boolean canPropegate = false;
+                if (responsibility != null) {
+                    for (String target : responsibility.getForwardTargets()) {
+                        if (baseHandlers.contains(ChainExtractor.simpleTypeName(target))) {
+                            canPropagate.put(handler, request);
+                            canPropegate = true;
                         }
-                    }, null);
+                    }
                 }
-                if (!canPropegate[0] && !chain.tail.handlerName.equals(handler)) {
+                if (!canPropegate && !chain.tail.handlerName.equals(handler)) {
                     cannotPropagate.put(handler, request);
                 }
             }
         }
     }
 
-    private BlockStmt findRequest(String request, String handler) {
+    private Responsibility findRequest(String request, String handler) {
         if ( chain.getConcreteHandlerResponsibilityMap().containsKey(handler)) {
             for (Responsibility responsibility:  chain.getConcreteHandlerResponsibilityMap().get(handler)) {
                 if (responsibility.getMethodName().equals(request)) {
-                    return responsibility.getMethodBody();
+                    return responsibility;
                 }
             }
         }
@@ -109,7 +114,7 @@ public class RequestPropagationAnalyzer {
         if (baseHandlerResponsibilities.containsKey(handlerHierarchy.get(chainObjects.get(handler)))) {
             for (Responsibility responsibility: baseHandlerResponsibilities.get(handlerHierarchy.get(chainObjects.get(handler)))) {
                 if (responsibility.getMethodName().equals(request)) {
-                    return responsibility.getMethodBody();
+                    return responsibility;
                 }
             }
         }
@@ -117,6 +122,14 @@ public class RequestPropagationAnalyzer {
         return null;
     }
 
+    private String firstHandlerClass() {
+        return chain.getHandlerNames().isEmpty() ? null : chainObjects.get(chain.getHandlerNames().get(0));
+    }
+
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
     public String getFormattedAnalysisResults() {
         return result.toString();
     }
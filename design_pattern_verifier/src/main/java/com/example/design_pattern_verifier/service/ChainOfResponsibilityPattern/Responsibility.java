@@ -1,20 +1,106 @@
 package com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern;
 
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.github.javaparser.resolution.types.ResolvedType;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Predicate;
 
+/**
+ * A method of a handler. Once summarized, the responsibility only keeps what the chain analyzers read
+ * of its body and drops the body itself, so the syntax trees do not outlive the extraction:
+ * 1. the structural fingerprints of its statements and the fingerprint of the whole body, as hash pairs only,
+ *    so the summary stays a fixed 16 bytes per distinct statement however deeply the body is nested
+ * 2. the names of the methods it calls
+ * 3. the types it passes its own request on to, e.g. the next handler
+ * 4. the types of the plain assignments it makes, e.g. of the next handler
+ */
 public class Responsibility {
     private String methodName;
     private List<String> parameters;
     private BlockStmt methodBody;
 
+    private boolean summarized;
+    // the two hashes of each distinct statement, one pair after the other
+    private long[] statementHashes;
+    private StructuralHasher.Fingerprint bodyFingerprint;
+    private final List<String> calledMethods = new ArrayList<>();
+    private final Set<String> forwardTargets = new HashSet<>();
+    // target type to value type, both qualified
+    private final List<String[]> assignments = new ArrayList<>();
+
     public Responsibility(String methodName, List<String> parameters, BlockStmt methodBody) {
         this.methodName = methodName;
         this.parameters = parameters;
         this.methodBody = methodBody;
     }
 
+    /**
+     * Extracts the summary of the body and drops the body. Does nothing if the responsibility is summarized already.
+     * Calls and assignments whose types cannot be resolved are left out of the summary.
+     * @param structuralHasher fingerprints the statements; its settings hold for every later comparison
+     * @param resolutionCache resolves the scopes of forwarded requests and the types of assignments
+     */
+    public void summarize(StructuralHasher structuralHasher, ResolutionCache resolutionCache) {
+        if (summarized) {
+            return;
+        }
+        Set<StructuralHasher.Fingerprint> statementFingerprints = structuralHasher.statementFingerprints(methodBody);
+        statementHashes = new long[statementFingerprints.size() * 2];
+        int next = 0;
+        for (StructuralHasher.Fingerprint statement : statementFingerprints) {
+            statementHashes[next++] = statement.getHash();
+            statementHashes[next++] = statement.getCheck();
+        }
+        bodyFingerprint = structuralHasher.bodyFingerprint(methodBody);
+        // calls and assignments are searched everywhere in the body, e.g. in call arguments and lambdas
+        methodBody.accept(new VoidVisitorAdapter<Void>() {
+            @Override
+            public void visit(MethodCallExpr n, Void arg) {
+                calledMethods.add(n.getNameAsString());
+                if (n.getNameAsString().equals(methodName) && n.getScope().isPresent()) {
+                    ResolvedType scope = typeOf(resolutionCache, n.getScope().get());
+                    if (scope != null) {
+                        forwardTargets.add(scope.asReferenceType().getQualifiedName());
+                    }
+                }
+                super.visit(n, arg);
+            }
+        }, null);
+        methodBody.accept(new VoidVisitorAdapter<Void>() {
+            @Override
+            public void visit(AssignExpr n, Void arg) {
+                if (n.getOperator() == AssignExpr.Operator.ASSIGN) {
+                    ResolvedType target = typeOf(resolutionCache, n.getTarget());
+                    ResolvedType value = typeOf(resolutionCache, n.getValue());
+                    if (target != null && value != null) {
+                        assignments.add(new String[] { target.asReferenceType().getQualifiedName(), value.asReferenceType().getQualifiedName() });
+                    }
+                }
+                super.visit(n, arg);
+            }
+        }, null);
+        methodBody = null;
+        summarized = true;
+    }
+
+    /**
+     * @return the reference type of the expression, or null if it is not one or cannot be resolved
+     */
+    private static ResolvedType typeOf(ResolutionCache resolutionCache, Expression expression) {
+        try {
+            ResolvedType type = resolutionCache.typeOf(expression);
+            return type.isReferenceType() ? type : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public String getMethodName() {
         return methodName;
     }
@@ -23,10 +109,59 @@ public class Responsibility {
         return parameters;
     }
 
+    /**
+     * @return the body, or null once the responsibility is summarized
+     */
     public BlockStmt getMethodBody() {
         return methodBody;
     }
 
+    public boolean isSummarized() {
+        return summarized;
+    }
+
+    /**
+     * @return a new set of the fingerprints the summary keeps as hash pairs
+     * @see StructuralHasher#statementFingerprints(BlockStmt)
+     */
+    public Set<StructuralHasher.Fingerprint> getStatementFingerprints() {
+        Set<StructuralHasher.Fingerprint> statementFingerprints = new HashSet<>();
+        for (int i = 0; i < statementHashes.length; i += 2) {
+            statementFingerprints.add(new StructuralHasher.Fingerprint(statementHashes[i], statementHashes[i + 1]));
+        }
+        return statementFingerprints;
+    }
+
+    /**
+     * @see StructuralHasher#bodyFingerprint(BlockStmt)
+     */
+    public StructuralHasher.Fingerprint getBodyFingerprint() {
+        return bodyFingerprint;
+    }
+
+    public List<String> getCalledMethods() {
+        return calledMethods;
+    }
+
+    /**
+     * @return the qualified types of the objects the responsibility calls a method of its own name on
+     */
+    public Set<String> getForwardTargets() {
+        return forwardTargets;
+    }
+
+    /**
+     * @return whether the responsibility assigns one handler to another, e.g. when setting the next handler
+     */
+    public boolean assignsBetween(Predicate<String> isHandler) {
+        for (String[] assignment : assignments) {
+            if (isHandler.test(assignment[0]) && isHandler.test(assignment[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return methodName;
@@ -0,0 +1,121 @@
+package com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fingerprints of the summarized responsibilities compared by the HandlerChainAnalyzer:
+ * 1. the structural fingerprints of the statements of the body (nested blocks included), interned to ids and kept as a bit set
+ * 2. the base handler helpers the body calls, by body fingerprint
+ * An inverted index from statement id to responsibilities yields the only pairs that can be redundant,
+ * so the analyzer does not have to compare every pair of responsibilities.
+ */
+public class ResponsibilityIndex {
+    private final List<Responsibility> responsibilities;
+    private final List<BitSet> statements = new ArrayList<>();
+    private final List<List<Responsibility>> calledHelpers = new ArrayList<>();
+    private final Map<Integer, BitSet> respsByStatement = new HashMap<>();
+    private final Map<StructuralHasher.Fingerprint, BitSet> respsByBody = new HashMap<>();
+    private final Map<StructuralHasher.Fingerprint, BitSet> respsByCalledHelperBody = new HashMap<>();
+    private final BitSet withoutStatements = new BitSet();
+    private final Predicate<Responsibility> setNextCall;
+    private final Map<Integer, Boolean> setNextCalls = new HashMap<>();
+
+    /**
+     * @param responsibilities the summarized responsibilities to compare, in comparison order
+     * @param helperByName looks up a summarized base handler helper method by name, or null
+     * @param setNextCall tells whether a responsibility links handlers; only evaluated for responsibilities that are compared
+     */
+    public ResponsibilityIndex(List<Responsibility> responsibilities, Function<String, Responsibility> helperByName, Predicate<Responsibility> setNextCall) {
+        this.responsibilities = responsibilities;
+        this.setNextCall = setNextCall;
+
+        Map<StructuralHasher.Fingerprint, Integer> statementIds = new HashMap<>();
+        for (int i = 0; i < responsibilities.size(); i++) {
+            Responsibility responsibility = responsibilities.get(i);
+
+            BitSet bodyStatements = new BitSet();
+            for (StructuralHasher.Fingerprint statement : responsibility.getStatementFingerprints()) {
+                int id = statementIds.computeIfAbsent(statement, k -> statementIds.size());
+                bodyStatements.set(id);
+                respsByStatement.computeIfAbsent(id, k -> new BitSet()).set(i);
+            }
+            statements.add(bodyStatements);
+            if (bodyStatements.isEmpty()) {
+                withoutStatements.set(i);
+            }
+
+            respsByBody.computeIfAbsent(responsibility.getBodyFingerprint(), k -> new BitSet()).set(i);
+            List<Responsibility> helpers = new ArrayList<>();
+            for (String calledMethod : responsibility.getCalledMethods()) {
+                Responsibility helper = helperByName.apply(calledMethod);
+                if (helper != null) {
+                    helpers.add(helper);
+                    respsByCalledHelperBody.computeIfAbsent(helper.getBodyFingerprint(), k -> new BitSet()).set(i);
+                }
+            }
+            calledHelpers.add(helpers);
+        }
+    }
+
+    /**
+     * @return the indices j > i of the responsibilities that might be redundant with responsibility i
+     */
+    public BitSet candidatesAfter(int i) {
+        BitSet candidates = new BitSet();
+        if (statements.get(i).isEmpty()) {
+            // an empty body is included in every other body
+            candidates.set(i + 1, responsibilities.size());
+            return candidates;
+        }
+        BitSet bodyStatements = statements.get(i);
+        for (int id = bodyStatements.nextSetBit(0); id >= 0; id = bodyStatements.nextSetBit(id + 1)) {
+            candidates.or(respsByStatement.get(id));
+        }
+        candidates.or(withoutStatements);
+        for (Responsibility helper : calledHelpers.get(i)) {
+            BitSet sameBody = respsByBody.get(helper.getBodyFingerprint());
+            if (sameBody != null) {
+                candidates.or(sameBody);
+            }
+        }
+        BitSet callers = respsByCalledHelperBody.get(responsibilities.get(i).getBodyFingerprint());
+        if (callers != null) {
+            candidates.or(callers);
+        }
+        candidates.clear(0, i + 1);
+        return candidates;
+    }
+
+    /**
+     * @return whether every statement of responsibility i also occurs in responsibility j
+     */
+    public boolean statementsIncludedIn(int i, int j) {
+        BitSet difference = (BitSet) statements.get(i).clone();
+        difference.andNot(statements.get(j));
+        return difference.isEmpty();
+    }
+
+    /**
+     * @return whether responsibility i calls a base handler helper whose body equals the body of responsibility j
+     */
+    public boolean callsHelperWithBodyOf(int i, int j) {
+        StructuralHasher.Fingerprint otherBody = responsibilities.get(j).getBodyFingerprint();
+        for (Responsibility helper : calledHelpers.get(i)) {
+            if (helper.getBodyFingerprint().equals(otherBody)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isSetNextCall(int i) {
+        Boolean cached = setNextCalls.get(i);
+        if (cached == null) {
+            cached = setNextCall.test(responsibilities.get(i));
+            setNextCalls.put(i, cached);
+        }
+        return cached;
+    }
+}
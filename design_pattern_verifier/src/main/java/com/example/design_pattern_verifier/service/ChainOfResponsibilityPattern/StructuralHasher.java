@@ -0,0 +1,274 @@
+package com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern;
+
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.stmt.*;
+import com.github.javaparser.ast.type.PrimitiveType;
+
+import java.util.*;
+
+/**
+ * Merkle-style structural fingerprints of statements. Each node hashes its kind, its own tokens and the hashes
+ * of its children, so a method body is fingerprinted in a single pass without printing any statement.
+ * 1. local variables and parameters are renamed by position, i.e. by the depth of the scope that declares them and
+ *    their declaration order in it, and by their declared type, so statements that only differ in variable names
+ *    match while {@code a - b} and {@code b - a} do not
+ * 2. optionally, literals are reduced to their kind, so statements that only differ in constants match
+ * Formatting and comments never take part. A fingerprint is two independent 64-bit hashes of the same tokens, an
+ * FNV-1a hash and a multiply-rotate hash with its own seed and constants, so a collision has to hit both at once.
+ * {@link #bodyFingerprint(BlockStmt)} fingerprints a body as written instead, to tell whether two bodies are the same.
+ */
+public class StructuralHasher {
+    private static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long CHECK_SEED = 0x9e3779b97f4a7c15L;
+    private static final long CHECK_C1 = 0x87c37b91114253d5L;
+    private static final long CHECK_C2 = 0x4cf5ad432745937fL;
+
+    private final boolean abstractLiterals;
+
+    public StructuralHasher(boolean abstractLiterals) {
+        this.abstractLiterals = abstractLiterals;
+    }
+
+    /**
+     * Fingerprints every statement of every block in the body, nested blocks included.
+     * @param body
+     * @return the distinct statement fingerprints
+     */
+    public Set<Fingerprint> statementFingerprints(BlockStmt body) {
+        Set<Fingerprint> fingerprints = new HashSet<>();
+        Scopes scopes = new Scopes();
+        body.getParentNode()
+                .filter(parent -> parent instanceof MethodDeclaration)
+                .ifPresent(parent -> ((MethodDeclaration) parent).getParameters()
+                        .forEach(parameter -> scopes.declare(parameter.getNameAsString(), parameter.getType().asString())));
+        hash(body, scopes, fingerprints);
+        return fingerprints;
+    }
+
+    /**
+     * Fingerprints the body as written, without renaming variables or reducing literals, so only equal bodies match.
+     * @param body
+     * @return the fingerprint of the whole body
+     */
+    public Fingerprint bodyFingerprint(BlockStmt body) {
+        return hash(body, null, new HashSet<>());
+    }
+
+    /**
+     * @param scopes the variables in scope, or null to hash the node as written
+     */
+    private Fingerprint hash(Node node, Scopes scopes, Set<Fingerprint> fingerprints) {
+        if (scopes != null && node instanceof VariableDeclarator) {
+            VariableDeclarator variable = (VariableDeclarator) node;
+            scopes.declare(variable.getNameAsString(), variable.getType().asString());
+        } else if (scopes != null && node instanceof Parameter) {
+            Parameter parameter = (Parameter) node;
+            scopes.declare(parameter.getNameAsString(), parameter.getType().asString());
+        }
+        boolean opensScope = scopes != null && opensScope(node);
+        if (opensScope) {
+            scopes.open();
+        }
+
+        String kind = node.getClass().getSimpleName();
+        String token = token(node, scopes);
+        long hash = mix(mix(OFFSET, kind), token);
+        long check = mixCheck(mixCheck(CHECK_SEED, kind), token);
+        int children = 0;
+        for (Node child : node.getChildNodes()) {
+            if (!(child instanceof Comment)) {
+                Fingerprint childFingerprint = hash(child, scopes, fingerprints);
+                hash = (hash ^ childFingerprint.hash) * PRIME;
+                check = combineCheck(check, childFingerprint.check);
+                children++;
+            }
+        }
+        Fingerprint fingerprint = new Fingerprint(hash, finishCheck(check, children));
+
+        if (opensScope) {
+            scopes.close();
+        }
+        if (node instanceof Statement && node.getParentNode().filter(parent -> parent instanceof BlockStmt).isPresent()) {
+            fingerprints.add(fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * The part of a node that is not a child node: names, literal values and operators.
+     */
+    private String token(Node node, Scopes scopes) {
+        if (node instanceof SimpleName) {
+            String identifier = ((SimpleName) node).getIdentifier();
+            if (scopes != null && isVariableName(node)) {
+                String position = scopes.positionOf(identifier);
+                if (position != null) {
+                    return position;
+                }
+            }
+            return identifier;
+        }
+        if (node instanceof Name) {
+            return ((Name) node).getIdentifier();
+        }
+        if (node instanceof LiteralExpr) {
+            if (abstractLiterals && scopes != null) {
+                return "";
+            }
+            if (node instanceof LiteralStringValueExpr) {
+                return ((LiteralStringValueExpr) node).getValue();
+            }
+            if (node instanceof BooleanLiteralExpr) {
+                return String.valueOf(((BooleanLiteralExpr) node).getValue());
+            }
+            return "";
+        }
+        if (node instanceof BinaryExpr) {
+            return ((BinaryExpr) node).getOperator().name();
+        }
+        if (node instanceof UnaryExpr) {
+            return ((UnaryExpr) node).getOperator().name();
+        }
+        if (node instanceof AssignExpr) {
+            return ((AssignExpr) node).getOperator().name();
+        }
+        if (node instanceof PrimitiveType) {
+            return ((PrimitiveType) node).getType().name();
+        }
+        if (node instanceof Modifier) {
+            return ((Modifier) node).getKeyword().name();
+        }
+        return "";
+    }
+
+    /**
+     * Names of variable references and declarations; method, field and type names are kept as written.
+     */
+    private boolean isVariableName(Node name) {
+        return name.getParentNode()
+                .filter(parent -> parent instanceof NameExpr || parent instanceof VariableDeclarator || parent instanceof Parameter)
+                .isPresent();
+    }
+
+    /**
+     * Nodes whose declarations are not visible after them.
+     */
+    private static boolean opensScope(Node node) {
+        return node instanceof BlockStmt || node instanceof LambdaExpr || node instanceof ForStmt || node instanceof ForEachStmt
+                || node instanceof CatchClause || node instanceof TryStmt || node instanceof SwitchEntry;
+    }
+
+    /**
+     * Mixes every character of the token, so tokens with equal {@link String#hashCode()} still hash apart.
+     */
+    private static long mix(long hash, String token) {
+        hash = (hash ^ token.length()) * PRIME;
+        for (int i = 0; i < token.length(); i++) {
+            hash = (hash ^ token.charAt(i)) * PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The second hash folds the token in with its own multiplier, so it does not collide where FNV-1a does.
+     */
+    private static long mixCheck(long check, String token) {
+        check = combineCheck(check, token.length());
+        for (int i = 0; i < token.length(); i++) {
+            check = (check ^ token.charAt(i)) * CHECK_C2;
+        }
+        return check;
+    }
+
+    private static long combineCheck(long check, long value) {
+        return Long.rotateLeft(check ^ (value * CHECK_C1), 31) * CHECK_C2;
+    }
+
+    /**
+     * Spreads every bit of the second hash and its child count over the result, like the finalizer of MurmurHash3.
+     */
+    private static long finishCheck(long check, int children) {
+        check ^= children;
+        check ^= check >>> 33;
+        check *= 0xff51afd7ed558ccdL;
+        check ^= check >>> 33;
+        check *= 0xc4ceb9fe1a85ec53L;
+        return check ^ (check >>> 33);
+    }
+
+    /**
+     * The local variables in scope. A variable is named by the depth of the scope that declares it, its
+     * declaration order in that scope and its type; the parameters of the method are declared in the outermost scope.
+     */
+    private static class Scopes {
+        private final Deque<Map<String, String>> scopes = new ArrayDeque<>(List.of(new HashMap<>()));
+
+        void open() {
+            scopes.push(new HashMap<>());
+        }
+
+        void close() {
+            scopes.pop();
+        }
+
+        void declare(String name, String type) {
+            Map<String, String> scope = scopes.peek();
+            scope.put(name, "$" + (scopes.size() - 1) + "." + scope.size() + ":" + type);
+        }
+
+        String positionOf(String name) {
+            for (Map<String, String> scope : scopes) {
+                String position = scope.get(name);
+                if (position != null) {
+                    return position;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The two independent hashes of a statement or body; fingerprints are equal only if both hashes are.
+     */
+    public static final class Fingerprint {
+        private final long hash;
+        private final long check;
+
+        Fingerprint(long hash, long check) {
+            this.hash = hash;
+            this.check = check;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        public long getCheck() {
+            return check;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint fingerprint = (Fingerprint) other;
+            return hash == fingerprint.hash && check == fingerprint.check;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.design_pattern_verifier.service.Findings;
+
+import java.util.List;
+
+/**
+ * The outcome of one analysis: the findings, plus the same text the analyzers have always produced.
+ */
+public class AnalysisReport {
+    private final String pattern;
+    private final String text;
+    private final List<Finding> findings;
+
+    public AnalysisReport(String pattern, String text, List<Finding> findings) {
+        this.pattern = pattern;
+        this.text = text;
+        this.findings = findings;
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public List<Finding> getFindings() {
+        return this.findings;
+    }
+}
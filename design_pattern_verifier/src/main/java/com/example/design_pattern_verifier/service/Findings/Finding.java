@@ -0,0 +1,121 @@
+package com.example.design_pattern_verifier.service.Findings;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * One typed result of an analysis, e.g. a visitor that misses element types or a redundant handler.
+ * The subject is the class the finding is about; classes and methods list the other types and
+ * methods involved. The location is filled in after the analysis, from the parsed sources.
+ * The dependencies are every class the analyzer read to reach the finding, so that an incremental
+ * analysis knows which findings a changed class can affect.
+ */
+public class Finding {
+    public enum Kind {
+        DOUBLE_DISPATCH,
+        VISITOR_STRATEGY,
+        EXPECTED_ELEMENTS,
+        HANDLES_ALL_ELEMENTS,
+        MISSING_ELEMENTS,
+        MISSING_VISITOR_BODY,
+        CHAIN_STRUCTURE,
+        UNUSED_HANDLER,
+        REDUNDANT_RESPONSIBILITY,
+        REQUEST_PROPAGATION,
+        BROKEN_PROPAGATION,
+        CIRCULAR_CHAIN
+    }
+
+    public enum Severity {
+        INFO, WARNING
+    }
+
+    private final String pattern;
+    private final Kind kind;
+    private final Severity severity;
+    private final String subject;
+    private final List<String> classes;
+    private final List<String> methods;
+    private final String message;
+    private final String suggestion;
+    private SourceLocation location;
+    private Set<String> dependencies = Set.of();
+
+    public Finding(String pattern, Kind kind, Severity severity, String subject, List<String> classes, List<String> methods,
+            String message, String suggestion) {
+        this.pattern = pattern;
+        this.kind = kind;
+        this.severity = severity;
+        this.subject = subject;
+        this.classes = classes;
+        this.methods = methods;
+        this.message = message;
+        this.suggestion = suggestion;
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    public Severity getSeverity() {
+        return this.severity;
+    }
+
+    public String getSubject() {
+        return this.subject;
+    }
+
+    public List<String> getClasses() {
+        return this.classes;
+    }
+
+    public List<String> getMethods() {
+        return this.methods;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * @return What to change, or null if nothing needs to change.
+     */
+    public String getSuggestion() {
+        return this.suggestion;
+    }
+
+    /**
+     * @return Where the subject is declared, or null if it is not declared in the analysed sources.
+     */
+    public SourceLocation getLocation() {
+        return this.location;
+    }
+
+    public void setLocation(SourceLocation location) {
+        this.location = location;
+    }
+
+    /**
+     * @return The names of the classes whose declarations, hierarchy or method bodies the finding was derived from.
+     */
+    @JsonIgnore
+    public Set<String> getDependencies() {
+        return this.dependencies;
+    }
+
+    public void setDependencies(Collection<String> dependencies) {
+        this.dependencies = Set.copyOf(dependencies);
+    }
+
+    @Override
+    public String toString() {
+        return this.kind + " " + this.subject + ": " + this.message;
+    }
+}
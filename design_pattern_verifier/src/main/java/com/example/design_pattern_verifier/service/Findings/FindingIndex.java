@@ -0,0 +1,41 @@
+package com.example.design_pattern_verifier.service.Findings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from class names to the findings that depend on them, see {@link Finding#getDependencies()}.
+ */
+public class FindingIndex {
+    private final Map<String, List<Finding>> findingsByClass = new HashMap<>();
+
+    public FindingIndex(List<Finding> findings) {
+        for (Finding finding : findings) {
+            for (String dependency : finding.getDependencies()) {
+                this.findingsByClass.computeIfAbsent(dependency, k -> new ArrayList<>()).add(finding);
+            }
+        }
+    }
+
+    /**
+     * @param changedClasses Names of classes that were added, changed or deleted.
+     * @return Every finding that depends on at least one of them.
+     */
+    public Set<Finding> touchedBy(Collection<String> changedClasses) {
+        Set<Finding> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String changedClass : changedClasses) {
+            touched.addAll(this.findingsByClass.getOrDefault(changedClass, List.of()));
+        }
+        return touched;
+    }
+
+    public boolean isEmpty() {
+        return this.findingsByClass.isEmpty();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.design_pattern_verifier.service.Findings;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+/**
+ * Points findings at the declaration of their subject. The analyzers only know simple class names,
+ * so the first declaration of a name wins when several files declare it.
+ */
+public class FindingLocator {
+    private final Map<String, SourceLocation> declarations = new HashMap<>();
+
+    public FindingLocator(List<CompilationUnit> compilationUnits) {
+        compilationUnits.forEach(cu -> {
+            String file = cu.getStorage()
+                    .map(storage -> storage.getPath().getFileName().toString())
+                    .orElse(null);
+            for (TypeDeclaration<?> type : cu.findAll(TypeDeclaration.class)) {
+                type.getBegin().ifPresent(begin -> this.declarations.putIfAbsent(type.getNameAsString(),
+                        new SourceLocation(file, begin.line, begin.column)));
+            }
+        });
+    }
+
+    /**
+     * Adds the declarations another locator knows and this one does not, e.g. the ones of another shard.
+     */
+    public void mergeFrom(FindingLocator other) {
+        other.declarations.forEach(this.declarations::putIfAbsent);
+    }
+
+    public void locate(List<Finding> findings) {
+        findings.forEach(this::locate);
+    }
+
+    public void locate(Finding finding) {
+        if (finding.getSubject() != null) {
+            finding.setLocation(this.declarations.get(finding.getSubject()));
+        }
+    }
+}
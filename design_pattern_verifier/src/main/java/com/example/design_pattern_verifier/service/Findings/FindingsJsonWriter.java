@@ -0,0 +1,31 @@
+package com.example.design_pattern_verifier.service.Findings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a report as JSON straight to the response, one finding at a time,
+ * instead of building the whole document as a string first.
+ */
+public final class FindingsJsonWriter {
+    private FindingsJsonWriter() {
+    }
+
+    public static void write(AnalysisReport report, OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("pattern", report.getPattern());
+            generator.writeArrayFieldStart("findings");
+            for (Finding finding : report.getFindings()) {
+                objectMapper.writeValue(generator, finding);
+            }
+            generator.writeEndArray();
+            generator.writeStringField("text", report.getText());
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.design_pattern_verifier.service.Findings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Writes progress and findings to the response while the analysis is still running,
+ * either as newline-delimited JSON or as Server-Sent Events. Every event is flushed right away.
+ * A failed write, e.g. because the client went away, aborts the analysis with an UncheckedIOException.
+ */
+public class FindingsStreamWriter implements AnalysisListener {
+    private final OutputStream outputStream;
+    private final ObjectMapper objectMapper;
+    private final boolean serverSentEvents;
+
+    public FindingsStreamWriter(OutputStream outputStream, ObjectMapper objectMapper, boolean serverSentEvents) {
+        this.outputStream = outputStream;
+        this.objectMapper = objectMapper;
+        this.serverSentEvents = serverSentEvents;
+    }
+
+    public void accepted(String pattern, int fileCount) {
+        this.write(this.event("accepted")
+                .put("pattern", pattern)
+                .put("files", fileCount));
+    }
+
+    @Override
+    public void onStage(String stage, int percent) {
+        this.write(this.event("stage")
+                .put("stage", stage)
+                .put("progress", percent));
+    }
+
+    @Override
+    public void onFinding(Finding finding) {
+        ObjectNode event = this.event("finding");
+        event.set("finding", this.objectMapper.valueToTree(finding));
+        this.write(event);
+    }
+
+    public void done(AnalysisReport report) {
+        this.write(this.event("done")
+                .put("findings", report.getFindings().size())
+                .put("text", report.getText()));
+    }
+
+    public void failed(String message) {
+        this.write(this.event("error")
+                .put("message", message));
+    }
+
+    private ObjectNode event(String type) {
+        return this.objectMapper.createObjectNode().put("event", type);
+    }
+
+    private synchronized void write(ObjectNode event) {
+        String type = event.get("event").asText();
+        try {
+            String json = this.objectMapper.writeValueAsString(event);
+            String line = this.serverSentEvents
+                    ? "event: " + type + "\ndata: " + json + "\n\n"
+                    : json + "\n";
+            this.outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+            this.outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
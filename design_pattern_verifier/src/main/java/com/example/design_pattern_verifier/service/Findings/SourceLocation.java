@@ -0,0 +1,30 @@
+package com.example.design_pattern_verifier.service.Findings;
+
+public class SourceLocation {
+    private final String file;
+    private final int line;
+    private final int column;
+
+    public SourceLocation(String file, int line, int column) {
+        this.file = file;
+        this.line = line;
+        this.column = column;
+    }
+
+    public String getFile() {
+        return this.file;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    @Override
+    public String toString() {
+        return this.file + ":" + this.line + ":" + this.column;
+    }
+}
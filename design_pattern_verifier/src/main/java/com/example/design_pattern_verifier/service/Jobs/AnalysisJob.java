@@ -0,0 +1,108 @@
+package com.example.design_pattern_verifier.service.Jobs;
+
+import java.util.List;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+
+/**
+ * The state of one asynchronous analysis. Instances are updated by the worker thread
+ * and read by status requests, so every field is volatile.
+ */
+public class AnalysisJob implements AnalysisListener {
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final String pattern;
+    private final int fileCount;
+    private final long submittedAt = System.currentTimeMillis();
+    private volatile long finishedAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile String stage = "queued";
+    private volatile int progress;
+    private volatile String result;
+    private volatile List<Finding> findings;
+    private volatile String error;
+
+    public AnalysisJob(String id, String pattern, int fileCount) {
+        this.id = id;
+        this.pattern = pattern;
+        this.fileCount = fileCount;
+    }
+
+    @Override
+    public void onStage(String stage, int percent) {
+        this.stage = stage;
+        this.progress = percent;
+    }
+
+    void markRunning() {
+        this.status = Status.RUNNING;
+    }
+
+    void markSucceeded(AnalysisReport report) {
+        this.result = report.getText();
+        this.findings = report.getFindings();
+        this.onStage("done", 100);
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.SUCCEEDED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.stage = "failed";
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return this.status == Status.SUCCEEDED || this.status == Status.FAILED;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    public int getFileCount() {
+        return this.fileCount;
+    }
+
+    public long getSubmittedAt() {
+        return this.submittedAt;
+    }
+
+    public long getFinishedAt() {
+        return this.finishedAt;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public String getStage() {
+        return this.stage;
+    }
+
+    public int getProgress() {
+        return this.progress;
+    }
+
+    public String getResult() {
+        return this.result;
+    }
+
+    public List<Finding> getFindings() {
+        return this.findings;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+}
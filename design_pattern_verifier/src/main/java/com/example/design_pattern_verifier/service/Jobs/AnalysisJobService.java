@@ -0,0 +1,104 @@
+package com.example.design_pattern_verifier.service.Jobs;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+
+/**
+ * Runs analyses in the background so that uploads return immediately with a job id.
+ * Jobs run on a fixed number of worker threads behind a bounded queue; once the queue is
+ * full new jobs are rejected instead of piling up their sources in memory.
+ * Finished jobs are kept for a while so that clients can fetch their results; expired ones are
+ * dropped whenever the service is used, including by clients that only poll.
+ */
+@Service
+public class AnalysisJobService implements DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisJobService.class);
+
+    private final AnalyzeService analyzeService;
+    private final AnalysisMetrics analysisMetrics;
+    private final ThreadPoolExecutor workers;
+    private final long retentionMillis;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AnalysisJobService(AnalyzeService analyzeService, AnalysisMetrics analysisMetrics,
+            @Value("${analysis.jobs.threads:2}") int threads,
+            @Value("${analysis.jobs.queue-capacity:16}") int queueCapacity,
+            @Value("${analysis.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.analyzeService = analyzeService;
+        this.analysisMetrics = analysisMetrics;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "analysis-job");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @return The queued job.
+     * @throws RejectedExecutionException if the queue is full.
+     */
+    public AnalysisJob submit(List<SourceFile> sources, String pattern) {
+        this.evictExpiredJobs();
+
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), pattern, sources.size());
+        this.jobs.put(job.getId(), job);
+        try {
+            this.workers.execute(() -> this.run(job, sources));
+        } catch (RejectedExecutionException e) {
+            this.jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public AnalysisJob get(String id) {
+        this.evictExpiredJobs();
+        return this.jobs.get(id);
+    }
+
+    public int getQueueDepth() {
+        this.evictExpiredJobs();
+        return this.workers.getQueue().size();
+    }
+
+    private void run(AnalysisJob job, List<SourceFile> sources) {
+        job.markRunning();
+        try {
+            job.markSucceeded(this.analyzeService.analyseSourcesForReport(sources, job.getPattern(), job));
+        } catch (Exception e) {
+            LOGGER.error("Analysis job {} failed", job.getId(), e);
+            this.analysisMetrics.countFailure("job");
+            job.markFailed("Analysis failed due to server error.");
+        }
+    }
+
+    private void evictExpiredJobs() {
+        long now = System.currentTimeMillis();
+        this.jobs.values().removeIf(job -> job.isFinished() && now - job.getFinishedAt() > this.retentionMillis);
+    }
+
+    @Override
+    public void destroy() {
+        this.workers.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an uploaded archive has more entries or more uncompressed bytes than allowed.
+ */
+public class ArchiveLimitException extends IOException {
+    public ArchiveLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the Java sources of a .zip or .tar.gz source tree while it is being decompressed.
+ * Entries are never extracted to disk; non-Java entries are skipped without being buffered, but their
+ * bytes count towards the uncompressed budget like those of the sources, since they are decompressed all the same.
+ */
+@Component
+public class ArchiveReader {
+    private final int maxEntries;
+    private final long maxUncompressedBytes;
+
+    public ArchiveReader(@Value("${analysis.archive.max-entries:20000}") int maxEntries,
+            @Value("${analysis.archive.max-uncompressed-bytes:268435456}") long maxUncompressedBytes) {
+        this.maxEntries = maxEntries;
+        this.maxUncompressedBytes = maxUncompressedBytes;
+    }
+
+    public static boolean isSupported(String filename) {
+        return isZip(filename) || isTarGz(filename);
+    }
+
+    /**
+     * @param filename The name of the uploaded archive, used to pick the format.
+     * @param inputStream The compressed archive content.
+     * @return The .java entries of the archive, in archive order.
+     */
+    public List<SourceFile> readJavaSources(String filename, InputStream inputStream) throws IOException {
+        if (isZip(filename)) {
+            return this.readZip(inputStream);
+        }
+        if (isTarGz(filename)) {
+            return this.readTarGz(inputStream);
+        }
+        throw new IllegalArgumentException("Unsupported archive type: " + filename);
+    }
+
+    private List<SourceFile> readZip(InputStream inputStream) throws IOException {
+        List<SourceFile> sources = new ArrayList<>();
+        int entryCount = 0;
+        long uncompressedBytes = 0;
+        try (ZipInputStream zipInputStream = new ZipInputStream(new BufferedInputStream(inputStream))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entryCount = this.checkEntryCount(entryCount + 1);
+                if (entry.isDirectory() || !entry.getName().endsWith(".java")) {
+                    uncompressedBytes += this.skipEntry(zipInputStream, this.maxUncompressedBytes - uncompressedBytes);
+                    continue;
+                }
+                byte[] content = this.readEntry(zipInputStream, this.maxUncompressedBytes - uncompressedBytes);
+                uncompressedBytes += content.length;
+                sources.add(new SourceFile(entry.getName(), content));
+            }
+        }
+        return sources;
+    }
+
+    private List<SourceFile> readTarGz(InputStream inputStream) throws IOException {
+        List<SourceFile> sources = new ArrayList<>();
+        int entryCount = 0;
+        long uncompressedBytes = 0;
+        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(new GZIPInputStream(new BufferedInputStream(inputStream)))) {
+            TarArchiveEntry entry;
+            while ((entry = tarInputStream.getNextEntry()) != null) {
+                entryCount = this.checkEntryCount(entryCount + 1);
+                if (entry.getSize() > this.maxUncompressedBytes - uncompressedBytes) {
+                    throw this.sizeLimitExceeded();
+                }
+                if (!entry.isFile() || !entry.getName().endsWith(".java")) {
+                    uncompressedBytes += this.skipEntry(tarInputStream, this.maxUncompressedBytes - uncompressedBytes);
+                    continue;
+                }
+                byte[] content = this.readEntry(tarInputStream, this.maxUncompressedBytes - uncompressedBytes);
+                uncompressedBytes += content.length;
+                sources.add(new SourceFile(entry.getName(), content));
+            }
+        }
+        return sources;
+    }
+
+    private int checkEntryCount(int entryCount) throws ArchiveLimitException {
+        if (entryCount > this.maxEntries) {
+            throw new ArchiveLimitException("Archive has more than " + this.maxEntries + " entries.");
+        }
+        return entryCount;
+    }
+
+    /**
+     * Reads the current entry, failing as soon as it grows beyond the remaining budget
+     * instead of trusting the size recorded in the archive.
+     */
+    private byte[] readEntry(InputStream entryStream, long remainingBytes) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = entryStream.read(buffer)) != -1) {
+            if (content.size() + (long) read > remainingBytes) {
+                throw this.sizeLimitExceeded();
+            }
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Drains the current entry without keeping it, failing like {@link #readEntry} once it grows beyond the remaining budget.
+     * @return How many bytes the entry expanded to.
+     */
+    private long skipEntry(InputStream entryStream, long remainingBytes) throws IOException {
+        long skipped = 0;
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = entryStream.read(buffer)) != -1) {
+            skipped += read;
+            if (skipped > remainingBytes) {
+                throw this.sizeLimitExceeded();
+            }
+        }
+        return skipped;
+    }
+
+    private ArchiveLimitException sizeLimitExceeded() {
+        return new ArchiveLimitException("Archive expands to more than " + this.maxUncompressedBytes + " bytes.");
+    }
+
+    private static boolean isZip(String filename) {
+        return filename != null && filename.toLowerCase().endsWith(".zip");
+    }
+
+    private static boolean isTarGz(String filename) {
+        return filename != null && (filename.toLowerCase().endsWith(".tar.gz") || filename.toLowerCase().endsWith(".tgz"));
+    }
+}
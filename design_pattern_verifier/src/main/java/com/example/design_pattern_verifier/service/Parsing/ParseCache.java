@@ -0,0 +1,95 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+
+/**
+ * Content-addressed cache of parsed sources, keyed by the SHA-256 of the file bytes.
+ * The cache keeps a pristine copy of every unit and only ever hands out clones, so units
+ * are never shared between analyses and each analysis can attach its own symbol resolver.
+ * Least recently used entries are evicted once more than maxEntries units are cached.
+ */
+@Component
+public class ParseCache {
+    private final int maxEntries;
+    private final Map<String, CompilationUnit> units;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ParseCache(@Value("${analysis.parse-cache.max-entries:2000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.units = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompilationUnit> eldest) {
+                return this.size() > ParseCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static String contentHash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * @param contentHash The hash of the source bytes.
+     * @return A private copy of the cached unit, or null if the content has not been parsed before.
+     */
+    public CompilationUnit get(String contentHash) {
+        if (this.maxEntries <= 0) {
+            return null;
+        }
+        CompilationUnit cached;
+        synchronized (this.units) {
+            cached = this.units.get(contentHash);
+        }
+        if (cached == null) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+        this.hits.incrementAndGet();
+        return cached.clone();
+    }
+
+    /**
+     * Stores a copy of the given unit; the caller keeps using its own instance. The copy drops the symbol
+     * resolver, which would otherwise keep the type solver of the analysis that parsed it alive.
+     */
+    public void put(String contentHash, CompilationUnit compilationUnit) {
+        if (this.maxEntries <= 0) {
+            return;
+        }
+        CompilationUnit pristine = compilationUnit.clone();
+        pristine.removeData(Node.SYMBOL_RESOLVER_KEY);
+        synchronized (this.units) {
+            this.units.putIfAbsent(contentHash, pristine);
+        }
+    }
+
+    public int size() {
+        synchronized (this.units) {
+            return this.units.size();
+        }
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+}
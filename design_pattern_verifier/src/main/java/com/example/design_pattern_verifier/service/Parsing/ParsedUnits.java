@@ -0,0 +1,77 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+import java.util.List;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * The parsed units of one analysis and the resolutions made on them, shared by the patterns analysed
+ * over them. Each pattern releases the units as soon as it has extracted its summaries from them. Once
+ * all of them have, the units and resolutions are dropped, so comparing the summaries and formatting the
+ * results no longer keep the syntax trees, or the type solver that refers to them, on the heap.
+ */
+public class ParsedUnits {
+    private final boolean kept;
+    private List<CompilationUnit> compilationUnits;
+    private ResolutionCache resolutionCache;
+    private int holders = 1;
+
+    public ParsedUnits(List<CompilationUnit> compilationUnits) {
+        this(compilationUnits, null, false);
+    }
+
+    private ParsedUnits(List<CompilationUnit> compilationUnits, ResolutionCache resolutionCache, boolean kept) {
+        this.compilationUnits = compilationUnits;
+        this.resolutionCache = resolutionCache;
+        this.kept = kept;
+    }
+
+    /**
+     * Units that outlive the analysis, e.g. the ones of a persistent project, together with their resolutions;
+     * releasing them drops nothing.
+     */
+    public static ParsedUnits kept(List<CompilationUnit> compilationUnits, ResolutionCache resolutionCache) {
+        return new ParsedUnits(compilationUnits, resolutionCache, true);
+    }
+
+    /**
+     * @param holders How many patterns are analysed over the units, each of which releases them once.
+     * The symbol solver is not thread safe, so the resolutions of several patterns run one at a time.
+     */
+    public synchronized void share(int holders) {
+        this.holders = holders;
+        if (this.resolutionCache == null) {
+            this.resolutionCache = new ResolutionCache(holders > 1);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException If every holder has released the units already.
+     */
+    public synchronized List<CompilationUnit> getCompilationUnits() {
+        if (this.compilationUnits == null) {
+            throw new IllegalStateException("The compilation units were released already.");
+        }
+        return this.compilationUnits;
+    }
+
+    public synchronized ResolutionCache getResolutionCache() {
+        if (this.resolutionCache == null) {
+            this.resolutionCache = new ResolutionCache();
+        }
+        return this.resolutionCache;
+    }
+
+    /**
+     * Called by every holder once it no longer reads the syntax trees or resolves any of their nodes.
+     */
+    public synchronized void release() {
+        this.holders--;
+        if (this.holders == 0 && !this.kept) {
+            this.compilationUnits = null;
+            if (this.resolutionCache != null) {
+                this.resolutionCache.clear();
+            }
+        }
+    }
+}
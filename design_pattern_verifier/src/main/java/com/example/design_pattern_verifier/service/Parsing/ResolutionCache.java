@@ -0,0 +1,200 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+
+/**
+ * Remembers symbol resolution results for one analysis, keyed by the identity of the AST node,
+ * so each expression, call or type is resolved at most once however many collectors ask for it.
+ * Failed resolutions are remembered as well and rethrown, so callers keep their usual error handling.
+ * Type names themselves are already cached further down, by the shared JDK solver and the
+ * memory solver holding the uploaded types.
+ */
+public class ResolutionCache {
+    private final Map<Node, Object> expressionTypes = new IdentityHashMap<>();
+    private final Map<Node, Object> methodDeclarations = new IdentityHashMap<>();
+    private final Map<Node, Object> types = new IdentityHashMap<>();
+    // keyed by the argument at the parameter's position, so each position of a call gets its own entry
+    private final Map<Node, Object> parameterTypes = new IdentityHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Object resolutionLock;
+
+    public ResolutionCache() {
+        this(false);
+    }
+
+    /**
+     * @param serializeResolution Whether resolutions must not overlap, e.g. because several analyses
+     * resolve nodes of the same compilation units on different threads and the symbol solver is not thread safe.
+     */
+    public ResolutionCache(boolean serializeResolution) {
+        this.resolutionLock = serializeResolution ? new Object() : null;
+    }
+
+    /**
+     * Cached {@link Expression#calculateResolvedType()}.
+     */
+    public ResolvedType typeOf(Expression expression) {
+        return this.lookup(this.expressionTypes, expression, expression::calculateResolvedType);
+    }
+
+    /**
+     * Cached {@link MethodCallExpr#resolve()}.
+     */
+    public ResolvedMethodDeclaration methodOf(MethodCallExpr methodCall) {
+        return this.lookup(this.methodDeclarations, methodCall, methodCall::resolve);
+    }
+
+    /**
+     * Cached {@link Type#resolve()}.
+     */
+    public ResolvedType typeOf(Type type) {
+        return this.lookup(this.types, type, type::resolve);
+    }
+
+    /**
+     * Cached type of a parameter of the method a call resolves to, resolved under the same lock as the method.
+     * @param index The position of the parameter; the call must have an argument there.
+     */
+    public ResolvedType parameterTypeOf(MethodCallExpr methodCall, int index) {
+        return this.lookup(this.parameterTypes, methodCall.getArgument(index),
+                () -> this.methodOf(methodCall).getParam(index).getType());
+    }
+
+    /**
+     * Resolution runs outside the map locks, so lookups never wait on a resolution;
+     * if two analyses race on the same node the first stored result wins.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(Map<Node, Object> results, Node node, Supplier<T> resolver) {
+        Object cached;
+        synchronized (results) {
+            cached = results.get(node);
+        }
+        if (cached == null) {
+            this.misses.incrementAndGet();
+            cached = this.resolve(resolver);
+            synchronized (results) {
+                Object existing = results.putIfAbsent(node, cached);
+                if (existing != null) {
+                    cached = existing;
+                }
+            }
+        } else {
+            this.hits.incrementAndGet();
+        }
+        if (cached instanceof Failure) {
+            throw ((Failure) cached).exception;
+        }
+        return (T) cached;
+    }
+
+    private Object resolve(Supplier<?> resolver) {
+        if (this.resolutionLock == null) {
+            return this.resolveOrFailure(resolver);
+        }
+        synchronized (this.resolutionLock) {
+            return this.resolveOrFailure(resolver);
+        }
+    }
+
+    private Object resolveOrFailure(Supplier<?> resolver) {
+        try {
+            return resolver.get();
+        } catch (RuntimeException e) {
+            return new Failure(e);
+        }
+    }
+
+    /**
+     * Forgets every result resolved for a node of the given units, e.g. because they were replaced
+     * or a type they refer to has changed. Nodes that no longer belong to any unit are dropped as well.
+     */
+    public void evict(Collection<CompilationUnit> compilationUnits) {
+        Set<CompilationUnit> stale = Collections.newSetFromMap(new IdentityHashMap<>());
+        stale.addAll(compilationUnits);
+        for (Map<Node, Object> results : List.of(this.expressionTypes, this.methodDeclarations, this.types, this.parameterTypes)) {
+            synchronized (results) {
+                results.keySet().removeIf(node -> node.findCompilationUnit().map(stale::contains).orElse(true));
+            }
+        }
+    }
+
+    /**
+     * The types the cached resolutions of each unit ended up in: the declaring types of the resolved methods and
+     * the resolved reference types, by simple name. A unit also depends on these when it does not name them,
+     * e.g. when it calls a method a class inherits or calls a method on what another call returned.
+     */
+    public Map<CompilationUnit, Set<String>> resolvedTypeNames() {
+        Map<CompilationUnit, Set<String>> typeNames = new IdentityHashMap<>();
+        for (Map<Node, Object> results : List.of(this.expressionTypes, this.methodDeclarations, this.types, this.parameterTypes)) {
+            synchronized (results) {
+                results.forEach((node, result) -> {
+                    String typeName = typeNameOf(result);
+                    if (typeName != null) {
+                        node.findCompilationUnit().ifPresent(cu -> typeNames.computeIfAbsent(cu, k -> new HashSet<>()).add(typeName));
+                    }
+                });
+            }
+        }
+        return typeNames;
+    }
+
+    private static String typeNameOf(Object result) {
+        try {
+            if (result instanceof ResolvedMethodDeclaration) {
+                return ((ResolvedMethodDeclaration) result).declaringType().getName();
+            }
+            if (result instanceof ResolvedType && ((ResolvedType) result).isReferenceType()) {
+                String qualifiedName = ((ResolvedType) result).asReferenceType().getQualifiedName();
+                return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+            }
+        } catch (RuntimeException e) {
+            // a declaration that cannot tell its type adds no dependency
+        }
+        return null;
+    }
+
+    /**
+     * Forgets every result, so the cache no longer keeps any syntax tree alive.
+     */
+    public void clear() {
+        for (Map<Node, Object> results : List.of(this.expressionTypes, this.methodDeclarations, this.types, this.parameterTypes)) {
+            synchronized (results) {
+                results.clear();
+            }
+        }
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    private static class Failure {
+        private final RuntimeException exception;
+
+        Failure(RuntimeException exception) {
+            this.exception = exception;
+        }
+    }
+}
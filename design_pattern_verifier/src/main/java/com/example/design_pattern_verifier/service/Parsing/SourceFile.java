@@ -0,0 +1,27 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+/**
+ * A Java source that is held in memory, e.g. the content of an uploaded multipart file.
+ */
+public class SourceFile {
+    private final String name;
+    private final byte[] content;
+
+    public SourceFile(String name, byte[] content) {
+        this.name = name;
+        this.content = content;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public byte[] getContent() {
+        return this.content;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
+
+/**
+ * Parses every source file into its own CompilationUnit on a bounded pool of worker threads.
+ * Unlike the combined mode, package and import declarations of each file are kept intact.
+ * Files whose content was parsed before are served from the ParseCache instead.
+ */
+@Component
+public class SourceParser implements DisposableBean {
+    private final ExecutorService parsePool;
+    private final ParseCache parseCache;
+
+    @Autowired
+    public SourceParser(ParseCache parseCache) {
+        this(Runtime.getRuntime().availableProcessors(), parseCache);
+    }
+
+    public SourceParser(int threads, ParseCache parseCache) {
+        this.parseCache = parseCache;
+        this.parsePool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "source-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Collects all .java files below the given directory in a stable order.
+     * @param directoryPath The directory to walk.
+     * @return The sorted list of Java source files.
+     */
+    public List<Path> findJavaFiles(Path directoryPath) throws IOException {
+        try (Stream<Path> paths = Files.walk(directoryPath)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(".java"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Same as findJavaFiles, but lists the subdirectories concurrently on the common fork/join pool,
+     * which pays off for large trees, e.g. a whole repository checked out by a CI job.
+     * Like Files.walk, symbolic links to directories are not followed.
+     */
+    public List<Path> findJavaFilesInParallel(Path directoryPath) throws IOException {
+        try {
+            List<Path> javaFiles = ForkJoinPool.commonPool().invoke(new DirectoryListing(directoryPath));
+            javaFiles.sort(null);
+            return javaFiles;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses each file with its own JavaParser instance sharing the given configuration.
+     * The returned list keeps the order of the given files; files that could not be parsed at all are skipped.
+     * @param sourceFiles The files to parse.
+     * @param parserConfiguration The configuration (including the symbol resolver) used for every file.
+     * @return The parsed compilation units.
+     */
+    public List<CompilationUnit> parseAll(List<Path> sourceFiles, ParserConfiguration parserConfiguration) throws IOException {
+        List<Callable<Optional<CompilationUnit>>> tasks = new ArrayList<>();
+        for (Path sourceFile : sourceFiles) {
+            tasks.add(() -> this.parseSource(Files.readAllBytes(sourceFile), sourceFile, parserConfiguration));
+        }
+        return this.runAll(tasks);
+    }
+
+    /**
+     * Same as parseAll, for sources that are already held in memory and never touch the disk.
+     * @param sources The in-memory sources to parse.
+     * @param parserConfiguration The configuration (including the symbol resolver) used for every source.
+     * @return The parsed compilation units.
+     */
+    public List<CompilationUnit> parseSources(List<SourceFile> sources, ParserConfiguration parserConfiguration) throws IOException {
+        List<Callable<Optional<CompilationUnit>>> tasks = new ArrayList<>();
+        for (SourceFile source : sources) {
+            tasks.add(() -> this.parseSource(source.getContent(), Paths.get(source.getName()), parserConfiguration));
+        }
+        return this.runAll(tasks);
+    }
+
+    private List<CompilationUnit> runAll(List<Callable<Optional<CompilationUnit>>> tasks) throws IOException {
+        List<Future<Optional<CompilationUnit>>> pending = new ArrayList<>();
+        for (Callable<Optional<CompilationUnit>> task : tasks) {
+            pending.add(this.parsePool.submit(task));
+        }
+
+        List<CompilationUnit> compilationUnits = new ArrayList<>();
+        try {
+            for (Future<Optional<CompilationUnit>> future : pending) {
+                future.get().ifPresent(compilationUnits::add);
+            }
+        } catch (InterruptedException e) {
+            pending.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing source files.", e);
+        } catch (ExecutionException e) {
+            pending.forEach(future -> future.cancel(true));
+            throw new IOException("Failed to parse source files.", e.getCause());
+        }
+        return compilationUnits;
+    }
+
+    /**
+     * @param content The raw source bytes.
+     * @param storage Where the source came from; only used to name the unit.
+     */
+    private Optional<CompilationUnit> parseSource(byte[] content, Path storage, ParserConfiguration parserConfiguration) {
+        String contentHash = ParseCache.contentHash(content);
+
+        CompilationUnit cached = this.parseCache.get(contentHash);
+        if (cached != null) {
+            parserConfiguration.getSymbolResolver().ifPresent(symbolResolver -> cached.setData(Node.SYMBOL_RESOLVER_KEY, symbolResolver));
+            cached.setStorage(storage);
+            return Optional.of(cached);
+        }
+
+        ParseResult<CompilationUnit> parseResult = new JavaParser(parserConfiguration).parse(new String(content, StandardCharsets.UTF_8));
+        parseResult.getResult().ifPresent(cu -> {
+            cu.setStorage(storage);
+            if (parseResult.isSuccessful()) {
+                this.parseCache.put(contentHash, cu);
+            }
+        });
+        return parseResult.getResult();
+    }
+
+    /**
+     * Registers every named type of the parsed units with the given solver so that symbol resolution
+     * can cross file boundaries, which the combined mode got for free by gluing everything into one unit.
+     * @param compilationUnits The parsed compilation units.
+     * @param typeSolver The in-memory solver that is part of the units' combined type solver.
+     */
+    public void registerTypes(List<CompilationUnit> compilationUnits, MemoryTypeSolver typeSolver) {
+        for (CompilationUnit cu : compilationUnits) {
+            for (TypeDeclaration<?> type : cu.findAll(TypeDeclaration.class)) {
+                try {
+                    ResolvedReferenceTypeDeclaration resolvedType = type.resolve();
+                    type.getFullyQualifiedName().ifPresent(name -> typeSolver.addDeclaration(name, resolvedType));
+                } catch (Exception ex) {
+                    // System.err.println("Failed to register type: " + type.getNameAsString());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.parsePool.shutdownNow();
+    }
+
+    private static class DirectoryListing extends RecursiveTask<List<Path>> {
+        private final Path directory;
+
+        DirectoryListing(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> javaFiles = new ArrayList<>();
+            List<DirectoryListing> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(this.directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        DirectoryListing listing = new DirectoryListing(entry);
+                        listing.fork();
+                        subdirectories.add(listing);
+                    } else if (Files.isRegularFile(entry) && entry.toString().endsWith(".java")) {
+                        javaFiles.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            subdirectories.forEach(listing -> javaFiles.addAll(listing.join()));
+            return javaFiles;
+        }
+    }
+}
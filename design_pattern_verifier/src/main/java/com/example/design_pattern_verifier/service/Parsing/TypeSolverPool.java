@@ -0,0 +1,114 @@
+package com.example.design_pattern_verifier.service.Parsing;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+/**
+ * Hands out session-scoped type solvers that all share one long-lived JDK type solver.
+ * JDK types only ever refer to other JDK types, so their declarations are resolved once against
+ * a JDK-only root and reused by every analysis, while uploaded sources are only looked up
+ * inside the directory of the session they belong to. Concurrent analyses look JDK types up without a lock:
+ * the JDK solver is a bare reflection solver, which keeps no state beyond the class loader, and the pool's
+ * concurrent map is the only cache. A combined solver around it would add a cache the symbol solver does not guard.
+ */
+@Component
+public class TypeSolverPool {
+    private static final List<String> WARM_UP_TYPES = List.of(
+            "java.lang.Object", "java.lang.String", "java.lang.Number", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Double", "java.lang.Boolean", "java.lang.Character", "java.lang.StringBuilder",
+            "java.lang.System", "java.lang.Math", "java.lang.Exception", "java.lang.RuntimeException",
+            "java.lang.Iterable", "java.lang.Comparable", "java.io.PrintStream",
+            "java.util.List", "java.util.ArrayList", "java.util.Map", "java.util.HashMap", "java.util.Set",
+            "java.util.HashSet", "java.util.Collection", "java.util.Optional", "java.util.Scanner",
+            "java.util.logging.Level", "java.util.logging.Logger");
+
+    private final TypeSolver jdkTypeSolver = new ReflectionTypeSolver();
+    private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> jdkTypes = new ConcurrentHashMap<>();
+
+    public TypeSolverPool() {
+        this.warmUp();
+    }
+
+    /**
+     * Builds the type solver for one analysis.
+     * @param sessionDir The directory holding the files of this upload only, or null when the sources never touched the disk.
+     * @param uploadedTypes Solvers for the already parsed sources of this upload.
+     * @return A combined solver: shared JDK types first, then the uploaded sources.
+     */
+    public CombinedTypeSolver sessionSolver(Path sessionDir, TypeSolver... uploadedTypes) {
+        CombinedTypeSolver combinedSolver = new CombinedTypeSolver(new SharedJdkTypeSolver());
+        for (TypeSolver typeSolver : uploadedTypes) {
+            combinedSolver.add(typeSolver);
+        }
+        if (sessionDir != null) {
+            combinedSolver.add(new JavaParserTypeSolver(sessionDir));
+        }
+        return combinedSolver;
+    }
+
+    /**
+     * Only successful lookups are cached, so the cache is bounded by the JDK types that were actually used.
+     */
+    private SymbolReference<ResolvedReferenceTypeDeclaration> solveJdkType(String name) {
+        SymbolReference<ResolvedReferenceTypeDeclaration> cached = this.jdkTypes.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        SymbolReference<ResolvedReferenceTypeDeclaration> reference = this.jdkTypeSolver.tryToSolveType(name);
+        if (reference.isSolved()) {
+            this.jdkTypes.putIfAbsent(name, reference);
+        }
+        return reference;
+    }
+
+    private void warmUp() {
+        WARM_UP_TYPES.forEach(name -> {
+            try {
+                SymbolReference<ResolvedReferenceTypeDeclaration> reference = this.solveJdkType(name);
+                if (reference.isSolved()) {
+                    reference.getCorrespondingDeclaration().getAllAncestors();
+                }
+            } catch (Exception ex) {
+                // System.err.println("Failed to warm up JDK type: " + name);
+            }
+        });
+    }
+
+    public int getCachedJdkTypeCount() {
+        return this.jdkTypes.size();
+    }
+
+    /**
+     * A per-session view on the shared JDK types. Each session gets its own instance because
+     * a type solver can only be attached to a single parent.
+     */
+    private class SharedJdkTypeSolver implements TypeSolver {
+        private TypeSolver parent;
+
+        @Override
+        public TypeSolver getParent() {
+            return this.parent;
+        }
+
+        @Override
+        public void setParent(TypeSolver parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+            return TypeSolverPool.this.solveJdkType(name);
+        }
+    }
+}
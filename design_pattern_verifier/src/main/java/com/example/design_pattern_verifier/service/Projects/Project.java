@@ -0,0 +1,311 @@
+package com.example.design_pattern_verifier.service.Projects;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.ChainExtractor;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+import com.example.design_pattern_verifier.service.Findings.FindingIndex;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolTable;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorAnalyzer;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorCollection;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
+
+/**
+ * A named set of sources that stays in memory between analyses, so later uploads only have to send
+ * what changed. The parsed units, the symbol resolutions and what the visitor collectors found in
+ * each file are kept; an update re-parses the changed files and marks them to be collected again,
+ * together with every file that depends on a type they declare or on a subtype of one, either by
+ * naming it or through a resolution that ended up in it. The findings of the last analysis are indexed by the
+ * classes they depend on, so only the visitors and chain an update can have affected are analysed
+ * again. Callers must not run two updates or analyses of the same project at once.
+ */
+public class Project {
+    private final String name;
+    private final Map<String, ProjectFile> files = new LinkedHashMap<>();
+    // kept across analyses, which may run several patterns concurrently
+    private final ResolutionCache resolutionCache = new ResolutionCache(true);
+    // the file collections intern into one table, so merging them needs no translation; names of deleted files stay in it
+    private final SymbolTable symbols = new SymbolTable();
+    private int revision;
+    // names of the classes added, changed or deleted since each pattern was last analysed
+    private final Set<String> changedSinceVisitorAnalysis = new HashSet<>();
+    private final Set<String> changedSinceChainAnalysis = new HashSet<>();
+    // set when an update may have added or removed handlers or clients, which no finding can depend on yet
+    private boolean chainStale = true;
+    private VisitorAnalyzer lastVisitorAnalyzer;
+    private Map<String, Set<String>> lastVisitorMappings = Map.of();
+    private FindingIndex visitorFindingIndex;
+    private AnalysisReport lastChainReport;
+    private Set<String> lastChainClasses = Set.of();
+
+    public Project(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Applies one diff to the project.
+     * @param changed Added or modified files; files whose content did not change are skipped.
+     * @param deleted Names of files to remove; unknown names are ignored.
+     * @return How many files have to be collected again, including the changed ones.
+     */
+    public int update(List<SourceFile> changed, List<String> deleted, SourceParser sourceParser, TypeSolverPool typeSolverPool) throws IOException {
+        Set<String> touchedTypes = new HashSet<>();
+        List<CompilationUnit> staleUnits = new ArrayList<>();
+        List<SourceFile> toParse = new ArrayList<>();
+        Map<String, String> contentHashes = new LinkedHashMap<>();
+        for (SourceFile source : changed) {
+            String contentHash = ParseCache.contentHash(source.getContent());
+            ProjectFile existing = this.files.get(source.getName());
+            if (existing == null || !existing.contentHash.equals(contentHash)) {
+                toParse.add(source);
+                contentHashes.put(source.getName(), contentHash);
+            }
+        }
+        for (String path : deleted) {
+            ProjectFile removed = this.files.remove(path);
+            if (removed != null) {
+                touchedTypes.addAll(removed.declaredTypes);
+                staleUnits.add(removed.compilationUnit);
+                this.changed(removed);
+            }
+        }
+
+        // uploaded types are re-registered with a fresh solver so that deleted and renamed types disappear
+        MemoryTypeSolver projectTypes = new MemoryTypeSolver();
+        CombinedTypeSolver combinedSolver = typeSolverPool.sessionSolver(null, projectTypes);
+        JavaSymbolSolver symbolSolver = new JavaSymbolSolver(combinedSolver);
+        Set<String> changedPaths = new HashSet<>();
+        for (CompilationUnit cu : sourceParser.parseSources(toParse, new ParserConfiguration().setSymbolResolver(symbolSolver))) {
+            String path = cu.getStorage().map(storage -> storage.getPath().toString()).orElseThrow();
+            ProjectFile file = new ProjectFile(contentHashes.get(path), cu);
+            ProjectFile replaced = this.files.put(path, file);
+            if (replaced != null) {
+                touchedTypes.addAll(replaced.declaredTypes);
+                staleUnits.add(replaced.compilationUnit);
+                this.changed(replaced);
+            }
+            touchedTypes.addAll(file.declaredTypes);
+            changedPaths.add(path);
+            this.changed(file);
+        }
+        List<CompilationUnit> compilationUnits = this.getCompilationUnits();
+        compilationUnits.forEach(cu -> cu.setData(Node.SYMBOL_RESOLVER_KEY, symbolSolver));
+        sourceParser.registerTypes(compilationUnits, projectTypes);
+
+        Set<String> affectedTypes = this.withSubtypes(touchedTypes);
+        this.changedSinceVisitorAnalysis.addAll(affectedTypes);
+        this.changedSinceChainAnalysis.addAll(affectedTypes);
+        Map<CompilationUnit, Set<String>> resolvedTypes = this.resolutionCache.resolvedTypeNames();
+        int dirty = 0;
+        for (Map.Entry<String, ProjectFile> entry : this.files.entrySet()) {
+            ProjectFile file = entry.getValue();
+            if (changedPaths.contains(entry.getKey())) {
+                dirty++;
+            } else if (file.refersToAny(affectedTypes)
+                    || !Collections.disjoint(resolvedTypes.getOrDefault(file.compilationUnit, Set.of()), affectedTypes)) {
+                file.visitorCollection = null;
+                staleUnits.add(file.compilationUnit);
+                dirty++;
+            }
+        }
+        this.resolutionCache.evict(staleUnits);
+        this.revision++;
+        return dirty;
+    }
+
+    /**
+     * @return The types and every type inheriting from one of them, directly or further down,
+     * since a change to a type also changes the members its subtypes inherit.
+     */
+    private Set<String> withSubtypes(Set<String> types) {
+        Map<String, Set<String>> subtypes = new HashMap<>();
+        this.files.values().forEach(file -> file.supertypes.forEach((type, supertypes) ->
+                supertypes.forEach(supertype -> subtypes.computeIfAbsent(supertype, k -> new HashSet<>()).add(type))));
+        Set<String> result = new HashSet<>(types);
+        Deque<String> pending = new ArrayDeque<>(types);
+        while (!pending.isEmpty()) {
+            for (String subtype : subtypes.getOrDefault(pending.poll(), Set.of())) {
+                if (result.add(subtype)) {
+                    pending.add(subtype);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records a file's old or new version as changed. Its referenced names are included because a
+     * new subclass or a removed one changes the hierarchy of the types it names.
+     */
+    private void changed(ProjectFile file) {
+        this.changedSinceVisitorAnalysis.addAll(file.declaredTypes);
+        this.changedSinceVisitorAnalysis.addAll(file.referencedNames);
+        this.changedSinceChainAnalysis.addAll(file.declaredTypes);
+        this.changedSinceChainAnalysis.addAll(file.referencedNames);
+        this.chainStale |= file.mayShapeChain;
+    }
+
+    /**
+     * Runs the visitor analysis, analysing again only the visitors whose double dispatch mappings changed
+     * or whose findings depend on a class changed since the last run; the others keep their earlier results.
+     * @param analyzer A new analyzer over the whole project.
+     * @param mappings The element to visitor mappings the analyzer was given.
+     */
+    public void analyseVisitors(VisitorAnalyzer analyzer, Map<String, Set<String>> mappings) {
+        if (this.lastVisitorAnalyzer == null) {
+            analyzer.analyze();
+        } else {
+            Set<String> affected = new HashSet<>();
+            this.visitorFindingIndex.touchedBy(this.changedSinceVisitorAnalysis).forEach(finding -> affected.add(finding.getSubject()));
+            mappings.forEach((visitor, elements) -> {
+                if (!elements.equals(this.lastVisitorMappings.get(visitor))) {
+                    affected.add(visitor);
+                }
+            });
+            analyzer.analyze(affected);
+            for (String visitor : mappings.keySet()) {
+                if (!affected.contains(visitor)) {
+                    analyzer.adopt(this.lastVisitorAnalyzer, visitor);
+                }
+            }
+        }
+
+        Map<String, Set<String>> mappingsCopy = new HashMap<>();
+        mappings.forEach((visitor, elements) -> mappingsCopy.put(visitor, Set.copyOf(elements)));
+        this.lastVisitorAnalyzer = analyzer;
+        this.lastVisitorMappings = mappingsCopy;
+        this.visitorFindingIndex = new FindingIndex(analyzer.getFindings());
+        this.changedSinceVisitorAnalysis.clear();
+    }
+
+    /**
+     * @return The last chain analysis, if no update since then can have changed its result, otherwise null.
+     * The chain analysers compare every handler with every other one, so the chain is reused or analysed again as a whole.
+     */
+    public AnalysisReport reusableChainReport() {
+        if (this.lastChainReport == null || this.chainStale) {
+            return null;
+        }
+        for (String changed : this.changedSinceChainAnalysis) {
+            if (this.lastChainClasses.contains(changed)) {
+                return null;
+            }
+        }
+        return this.lastChainReport;
+    }
+
+    /**
+     * Keeps the result of a full chain analysis for {@link #reusableChainReport()}.
+     * @param chainClasses Every class the chain was built from.
+     */
+    public void chainAnalysed(AnalysisReport report, Set<String> chainClasses) {
+        this.lastChainReport = report;
+        this.lastChainClasses = Set.copyOf(chainClasses);
+        this.changedSinceChainAnalysis.clear();
+        this.chainStale = false;
+    }
+
+    /**
+     * Collects the files that are missing a collection and merges the collections of all files.
+     * @param collector Collects a single unit into the project's symbol table.
+     */
+    public VisitorCollection visitorCollection(BiFunction<CompilationUnit, SymbolTable, VisitorCollection> collector) {
+        List<VisitorCollection> collections = new ArrayList<>();
+        for (ProjectFile file : this.files.values()) {
+            if (file.visitorCollection == null) {
+                file.visitorCollection = collector.apply(file.compilationUnit, this.symbols);
+            }
+            collections.add(file.visitorCollection);
+        }
+        return VisitorCollection.merge(collections);
+    }
+
+    public List<CompilationUnit> getCompilationUnits() {
+        List<CompilationUnit> compilationUnits = new ArrayList<>();
+        this.files.values().forEach(file -> compilationUnits.add(file.compilationUnit));
+        return compilationUnits;
+    }
+
+    public ResolutionCache getResolutionCache() {
+        return this.resolutionCache;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public List<String> getFileNames() {
+        return new ArrayList<>(this.files.keySet());
+    }
+
+    /**
+     * @return How many updates have been applied.
+     */
+    public int getRevision() {
+        return this.revision;
+    }
+
+    private static class ProjectFile {
+        private final String contentHash;
+        private final CompilationUnit compilationUnit;
+        private final Set<String> declaredTypes = new HashSet<>();
+        // the direct supertypes of each declared class or interface, by simple name
+        private final Map<String, Set<String>> supertypes = new HashMap<>();
+        // simple names of every type and plain name the file mentions; the types it reaches indirectly,
+        // e.g. through inherited members or returned objects, are only known from its resolutions
+        private final Set<String> referencedNames = new HashSet<>();
+        // whether the file declares a subtype or a client as the chain extraction picks them, and so may add handlers or clients to a chain
+        private final boolean mayShapeChain;
+        private VisitorCollection visitorCollection;
+
+        ProjectFile(String contentHash, CompilationUnit compilationUnit) {
+            this.contentHash = contentHash;
+            this.compilationUnit = compilationUnit;
+            compilationUnit.findAll(TypeDeclaration.class).forEach(type -> this.declaredTypes.add(type.getNameAsString()));
+            for (ClassOrInterfaceDeclaration type : compilationUnit.findAll(ClassOrInterfaceDeclaration.class)) {
+                Set<String> typeSupertypes = this.supertypes.computeIfAbsent(type.getNameAsString(), k -> new HashSet<>());
+                type.getExtendedTypes().forEach(supertype -> typeSupertypes.add(supertype.getNameAsString()));
+                type.getImplementedTypes().forEach(supertype -> typeSupertypes.add(supertype.getNameAsString()));
+            }
+            compilationUnit.findAll(ClassOrInterfaceType.class).forEach(type -> this.referencedNames.add(type.getNameAsString()));
+            compilationUnit.findAll(NameExpr.class).forEach(name -> this.referencedNames.add(name.getNameAsString()));
+            this.mayShapeChain = compilationUnit.findAll(ClassOrInterfaceDeclaration.class).stream()
+                    .anyMatch(type -> type.getExtendedTypes().isNonEmpty() || type.getImplementedTypes().isNonEmpty() || ChainExtractor.isClient(type));
+        }
+
+        boolean refersToAny(Set<String> typeNames) {
+            for (String typeName : typeNames) {
+                if (this.referencedNames.contains(typeName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
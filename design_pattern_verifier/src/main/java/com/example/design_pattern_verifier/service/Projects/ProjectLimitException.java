@@ -0,0 +1,10 @@
+package com.example.design_pattern_verifier.service.Projects;
+
+/**
+ * Thrown when a new project is uploaded while the workspace already holds as many projects as allowed.
+ */
+public class ProjectLimitException extends RuntimeException {
+    public ProjectLimitException(String message) {
+        super(message);
+    }
+}
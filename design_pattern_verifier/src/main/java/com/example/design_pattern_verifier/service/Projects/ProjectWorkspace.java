@@ -0,0 +1,74 @@
+package com.example.design_pattern_verifier.service.Projects;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+
+/**
+ * Keeps persistent projects by name. The first upload of a name creates the project and analyses
+ * everything; later uploads send only added, changed and deleted files and are analysed incrementally.
+ * Updates of the same project run one at a time, different projects are independent.
+ */
+@Service
+public class ProjectWorkspace {
+    private final AnalyzeService analyzeService;
+    private final SourceParser sourceParser;
+    private final TypeSolverPool typeSolverPool;
+    private final int maxProjects;
+    private final Map<String, Project> projects = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProjectWorkspace(AnalyzeService analyzeService, SourceParser sourceParser, TypeSolverPool typeSolverPool,
+            @Value("${analysis.projects.max-count:16}") int maxProjects) {
+        this.analyzeService = analyzeService;
+        this.sourceParser = sourceParser;
+        this.typeSolverPool = typeSolverPool;
+        this.maxProjects = maxProjects;
+    }
+
+    /**
+     * Applies the diff to the named project, creating it if needed, and analyses the result.
+     * @throws ProjectLimitException if the project is new and the workspace is full.
+     */
+    public AnalysisReport update(String name, List<SourceFile> changed, List<String> deleted, String pattern) throws IOException {
+        Project project = this.projects.get(name);
+        if (project == null) {
+            synchronized (this.projects) {
+                if (!this.projects.containsKey(name) && this.projects.size() >= this.maxProjects) {
+                    throw new ProjectLimitException("The workspace already holds " + this.maxProjects + " projects, delete one first.");
+                }
+                project = this.projects.computeIfAbsent(name, Project::new);
+            }
+        }
+        synchronized (project) {
+            project.update(changed, deleted, this.sourceParser, this.typeSolverPool);
+            return this.analyzeService.analyseProject(project, pattern, AnalysisListener.NONE);
+        }
+    }
+
+    /**
+     * @return The project, or null if there is none with that name.
+     */
+    public Project get(String name) {
+        return this.projects.get(name);
+    }
+
+    /**
+     * @return Whether a project with that name existed.
+     */
+    public boolean delete(String name) {
+        return this.projects.remove(name) != null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.design_pattern_verifier.service.Sharding;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+
+/**
+ * Looks up the types of other shards from the source roots of a sharded analysis. Each shard gets solvers
+ * of its own, since the declarations a solver parsed are resolved through caches the symbol solver does not
+ * guard, so the shards resolve in parallel without a common lock. The files a solver keeps parsed are split
+ * from one budget over the roots and the shards that run at once, which keeps them bounded over the analysis.
+ */
+public class CrossShardTypeSolver {
+    private final List<Path> sourceRoots;
+    private final long cachedFilesPerRoot;
+
+    /**
+     * @param cachedFiles How many parsed files the solvers of the shards that run at once keep at most.
+     * @param parallelShards How many shards run at once.
+     */
+    public CrossShardTypeSolver(List<Path> sourceRoots, long cachedFiles, int parallelShards) {
+        this.sourceRoots = sourceRoots;
+        this.cachedFilesPerRoot = Math.max(1, cachedFiles / Math.max(1, sourceRoots.size()) / Math.max(1, parallelShards));
+    }
+
+    /**
+     * @return New solvers over the source roots for the combined solver of one shard; the declarations they find
+     * resolve their own references through that combined solver, which holds the JDK types as well.
+     */
+    public TypeSolver view() {
+        CombinedTypeSolver sourceRootTypes = new CombinedTypeSolver();
+        for (Path sourceRoot : this.sourceRoots) {
+            sourceRootTypes.add(new JavaParserTypeSolver(sourceRoot, new ParserConfiguration(), this.cachedFilesPerRoot));
+        }
+        return sourceRootTypes;
+    }
+}
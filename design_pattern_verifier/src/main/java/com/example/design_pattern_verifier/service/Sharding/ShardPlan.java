@@ -0,0 +1,124 @@
+package com.example.design_pattern_verifier.service.Sharding;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a source tree that is too large to be held in memory at once into shards that are
+ * parsed and collected one at a time. Shards follow the Gradle or Maven modules of the tree, or
+ * its package directories for finer shards. The source roots are kept as well, so every shard
+ * can look up the types of the other shards.
+ */
+public class ShardPlan {
+    public enum Mode {
+        MODULE, PACKAGE
+    }
+
+    private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final List<String> BUILD_FILES = List.of("build.gradle", "build.gradle.kts", "pom.xml");
+
+    private final List<Shard> shards;
+    private final List<Path> sourceRoots;
+
+    private ShardPlan(List<Shard> shards, List<Path> sourceRoots) {
+        this.shards = shards;
+        this.sourceRoots = sourceRoots;
+    }
+
+    /**
+     * @param root The directory the files were found in; module shards never reach above it.
+     * @param sourceFiles The files to split, e.g. from SourceParser.findJavaFiles.
+     */
+    public static ShardPlan plan(Path root, List<Path> sourceFiles, Mode mode) throws IOException {
+        Map<Path, List<Path>> filesByShard = new LinkedHashMap<>();
+        Set<Path> sourceRoots = new LinkedHashSet<>();
+        Map<Path, Path> modules = new LinkedHashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            Path directory = sourceFile.toAbsolutePath().getParent();
+            sourceRoots.add(sourceRoot(sourceFile, directory));
+            Path shard = mode == Mode.PACKAGE ? directory : moduleOf(directory, root.toAbsolutePath(), modules);
+            filesByShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(sourceFile);
+        }
+
+        List<Shard> shards = new ArrayList<>();
+        filesByShard.forEach((directory, files) -> shards.add(new Shard(directory.toString(), files)));
+        return new ShardPlan(shards, new ArrayList<>(sourceRoots));
+    }
+
+    /**
+     * The directory the file's package starts in, or the file's own directory if the path does not match the package.
+     */
+    private static Path sourceRoot(Path sourceFile, Path directory) throws IOException {
+        Matcher matcher = PACKAGE_DECLARATION.matcher(Files.readString(sourceFile, StandardCharsets.ISO_8859_1));
+        if (!matcher.find()) {
+            return directory;
+        }
+        Path sourceRoot = directory;
+        String[] segments = matcher.group(1).split("\\.");
+        for (int i = segments.length - 1; i >= 0; i--) {
+            if (sourceRoot == null || sourceRoot.getFileName() == null || !sourceRoot.getFileName().toString().equals(segments[i])) {
+                return directory;
+            }
+            sourceRoot = sourceRoot.getParent();
+        }
+        return sourceRoot != null ? sourceRoot : directory;
+    }
+
+    /**
+     * The closest directory up to the root that holds a build file, or the root itself.
+     */
+    private static Path moduleOf(Path directory, Path root, Map<Path, Path> modules) {
+        Path module = modules.get(directory);
+        if (module != null) {
+            return module;
+        }
+        if (directory.equals(root) || !directory.startsWith(root)) {
+            module = root;
+        } else if (BUILD_FILES.stream().anyMatch(buildFile -> Files.isRegularFile(directory.resolve(buildFile)))) {
+            module = directory;
+        } else {
+            module = moduleOf(directory.getParent(), root, modules);
+        }
+        modules.put(directory, module);
+        return module;
+    }
+
+    public List<Shard> getShards() {
+        return this.shards;
+    }
+
+    public List<Path> getSourceRoots() {
+        return this.sourceRoots;
+    }
+
+    /**
+     * The files of one module or package.
+     */
+    public static class Shard {
+        private final String name;
+        private final List<Path> files;
+
+        Shard(String name, List<Path> files) {
+            this.name = name;
+            this.files = files;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public List<Path> getFiles() {
+            return this.files;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.design_pattern_verifier.service.Sharding;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.ChainExtractor;
+import com.example.design_pattern_verifier.service.Findings.FindingLocator;
+import com.example.design_pattern_verifier.service.VisitorPattern.ClassHierarchyIndex;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolTable;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorCollection;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+/**
+ * What is kept of a shard once its syntax trees are dropped: the visitor collectors' maps, where
+ * its types are declared, and the hierarchy edges and client references that relate its types to
+ * the types of other shards. Summaries only hold names, so all of them fit in memory together.
+ */
+public class ShardSummary {
+    private final ShardPlan.Shard shard;
+    private final VisitorCollection visitorCollection;
+    private final FindingLocator findingLocator;
+    private final Map<Path, Set<String>> typesByFile = new LinkedHashMap<>();
+    private final Map<String, Set<String>> supertypes = new HashMap<>();
+    private final List<Path> clientFiles = new ArrayList<>();
+    // types the clients name, e.g. the handlers they chain together
+    private final Set<String> clientReferences = new HashSet<>();
+
+    public ShardSummary(ShardPlan.Shard shard, List<CompilationUnit> compilationUnits, VisitorCollection visitorCollection) {
+        this.shard = shard;
+        this.visitorCollection = visitorCollection.summary();
+        this.findingLocator = new FindingLocator(compilationUnits);
+        for (CompilationUnit cu : compilationUnits) {
+            Path file = cu.getStorage().map(storage -> storage.getPath()).orElse(null);
+            Set<String> types = this.typesByFile.computeIfAbsent(file, k -> new HashSet<>());
+            cu.findAll(TypeDeclaration.class).forEach(type -> types.add(type.getNameAsString()));
+            boolean client = false;
+            for (ClassOrInterfaceDeclaration type : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+                Set<String> typeSupertypes = this.supertypes.computeIfAbsent(type.getNameAsString(), k -> new HashSet<>());
+                type.getExtendedTypes().forEach(supertype -> typeSupertypes.add(supertype.getNameAsString()));
+                type.getImplementedTypes().forEach(supertype -> typeSupertypes.add(supertype.getNameAsString()));
+                client |= ChainExtractor.isClient(type);
+            }
+            if (client) {
+                this.clientFiles.add(file);
+                this.clientReferences.addAll(types);
+                cu.findAll(ClassOrInterfaceType.class).forEach(type -> this.clientReferences.add(type.getNameAsString()));
+            }
+        }
+    }
+
+    /**
+     * Whether double dispatch may start in this shard, i.e. it declares a type related to one of the candidates.
+     * @param candidates The ids of the candidate types in the table of the hierarchy's type graph.
+     */
+    public boolean mayDispatch(BitSet candidates, ClassHierarchyIndex hierarchyIndex) {
+        SymbolTable symbols = hierarchyIndex.getTypeGraph().getSymbols();
+        for (Set<String> types : this.typesByFile.values()) {
+            for (String type : types) {
+                int id = symbols.idOf(type);
+                if (id != -1 && (candidates.get(id)
+                        || hierarchyIndex.ancestorIds(id).intersects(candidates)
+                        || hierarchyIndex.descendantIds(id).intersects(candidates))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The files the chain analysis needs, which are parsed together: every client, the declared types a client
+     * names that take part in a hierarchy, i.e. the handlers, their declared supertypes up to the base handlers,
+     * and every declared subtype of those, i.e. the handlers left out of the chain. The walk goes up from the
+     * named types and then only down, so the other supertypes of a handler left out of the chain do not pull in
+     * hierarchies of their own; types that only a client names, e.g. its requests, are resolved from the source
+     * roots instead. The set is still as large as the hierarchies of the base handlers, so the caller bounds it.
+     */
+    public static List<Path> chainFiles(List<ShardSummary> summaries) {
+        Map<String, Set<String>> supertypes = new HashMap<>();
+        Map<String, Set<String>> subtypes = new HashMap<>();
+        Set<String> declared = new HashSet<>();
+        for (ShardSummary summary : summaries) {
+            summary.supertypes.forEach((type, typeSupertypes) -> typeSupertypes.forEach(supertype -> {
+                supertypes.computeIfAbsent(type, k -> new HashSet<>()).add(supertype);
+                subtypes.computeIfAbsent(supertype, k -> new HashSet<>()).add(type);
+            }));
+            summary.typesByFile.values().forEach(declared::addAll);
+        }
+
+        Set<String> ancestors = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        summaries.forEach(summary -> summary.clientReferences.stream()
+                .filter(type -> supertypes.containsKey(type) || subtypes.containsKey(type))
+                .forEach(pending::add));
+        while (!pending.isEmpty()) {
+            String type = pending.poll();
+            // library supertypes such as Runnable would connect unrelated hierarchies
+            if (declared.contains(type) && ancestors.add(type)) {
+                pending.addAll(supertypes.getOrDefault(type, Set.of()));
+            }
+        }
+        Set<String> reached = new HashSet<>(ancestors);
+        pending.addAll(ancestors);
+        while (!pending.isEmpty()) {
+            for (String subtype : subtypes.getOrDefault(pending.poll(), Set.of())) {
+                if (reached.add(subtype)) {
+                    pending.add(subtype);
+                }
+            }
+        }
+
+        List<Path> chainFiles = new ArrayList<>();
+        for (ShardSummary summary : summaries) {
+            summary.typesByFile.forEach((file, types) -> {
+                if (summary.clientFiles.contains(file) || types.stream().anyMatch(reached::contains)) {
+                    chainFiles.add(file);
+                }
+            });
+        }
+        return chainFiles;
+    }
+
+    public ShardPlan.Shard getShard() {
+        return this.shard;
+    }
+
+    /**
+     * @return The visitor collection of the shard, without syntax trees and without the methods with calls.
+     */
+    public VisitorCollection getVisitorCollection() {
+        return this.visitorCollection;
+    }
+
+    public FindingLocator getFindingLocator() {
+        return this.findingLocator;
+    }
+}
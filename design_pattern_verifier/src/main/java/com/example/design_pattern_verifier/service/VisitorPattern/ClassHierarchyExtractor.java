@@ -6,27 +6,78 @@ import java.util.Map;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
-public class ClassHierarchyExtractor extends VoidVisitorAdapter<Void> {
+public class ClassHierarchyExtractor extends VoidVisitorAdapter<Void> implements NodeCollector {
     private Map<String, String> subclassToSuperclassMap = new HashMap<>();
+    private TypeGraph typeGraph;
+
+    public ClassHierarchyExtractor() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbols The table the other collectors of the same analysis intern into as well.
+     */
+    public ClassHierarchyExtractor(SymbolTable symbols) {
+        this.typeGraph = new TypeGraph(symbols);
+    }
 
     @Override
     public void visit(ClassOrInterfaceDeclaration n, Void arg) {
         super.visit(n, arg);
+        this.collect(n);
+    }
+
+    @Override
+    public void collect(ClassOrInterfaceDeclaration n) {
+        this.typeGraph.markDeclared(n.getNameAsString());
 
         n.getExtendedTypes().forEach(ext -> {
             String subclass = n.getNameAsString();
             String superclass = ext.getNameAsString();
             this.subclassToSuperclassMap.put(subclass, superclass);
+            this.typeGraph.addSupertype(subclass, superclass);
         });
 
         n.getImplementedTypes().forEach(impl -> {
             String subclass = n.getNameAsString();
             String iface = impl.getNameAsString();
             this.subclassToSuperclassMap.put(subclass, iface);
+            this.typeGraph.addSupertype(subclass, iface);
         });
     }
 
+    /**
+     * Adds everything another extractor collected, e.g. the one that only saw a single file.
+     */
+    public void mergeFrom(ClassHierarchyExtractor other) {
+        this.subclassToSuperclassMap.putAll(other.subclassToSuperclassMap);
+        TypeGraph otherGraph = other.typeGraph;
+        for (int id = 0; id < otherGraph.size(); id++) {
+            String name = otherGraph.nameOf(id);
+            if (otherGraph.isDeclared(id)) {
+                this.typeGraph.markDeclared(name);
+            }
+            for (int supertype : otherGraph.supertypesOf(id)) {
+                this.typeGraph.addSupertype(name, otherGraph.nameOf(supertype));
+            }
+        }
+    }
+
     public Map<String, String> getSubclassToSuperclassMap() {
         return this.subclassToSuperclassMap;
     }
+
+    /**
+     * Every extends and implements edge; unlike subclassToSuperclassMap, classes with several supertypes keep all of them.
+     */
+    public TypeGraph getTypeGraph() {
+        return this.typeGraph;
+    }
+
+    /**
+     * Indexes the hierarchy collected so far; call once all units have been visited.
+     */
+    public ClassHierarchyIndex buildHierarchyIndex() {
+        return new ClassHierarchyIndex(this.typeGraph);
+    }
 }
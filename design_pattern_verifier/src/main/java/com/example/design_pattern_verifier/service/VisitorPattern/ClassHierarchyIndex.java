@@ -0,0 +1,152 @@
+package com.example.design_pattern_verifier.service.VisitorPattern;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ancestor and descendant sets for every type in a {@link TypeGraph}, computed once so that
+ * relationship checks are bit lookups instead of walks up the inheritance chain.
+ * Every supertype counts, so a class implementing several interfaces is related to all of them.
+ * Cycles (e.g. a class named like the interface it implements) stop at the first repeated type.
+ */
+public class ClassHierarchyIndex {
+    private static final BitSet NONE = new BitSet();
+
+    private final TypeGraph typeGraph;
+    private final BitSet[] ancestors;
+    private final BitSet[] descendants;
+
+    public ClassHierarchyIndex(TypeGraph typeGraph) {
+        this.typeGraph = typeGraph;
+        int size = typeGraph.size();
+        this.ancestors = new BitSet[size];
+        this.descendants = new BitSet[size];
+        // most ids are method names or types without supertypes, so sets are only allocated for the types of a hierarchy
+        for (int id = 0; id < size; id++) {
+            if (!typeGraph.hasSupertypes(id)) {
+                continue;
+            }
+            this.ancestors[id] = typeGraph.ancestorsOf(id);
+            for (int ancestor = this.ancestors[id].nextSetBit(0); ancestor >= 0; ancestor = this.ancestors[id].nextSetBit(ancestor + 1)) {
+                if (this.descendants[ancestor] == null) {
+                    this.descendants[ancestor] = new BitSet();
+                }
+                this.descendants[ancestor].set(id);
+            }
+        }
+    }
+
+    /**
+     * Indexes a single-parent hierarchy, treating every class in it as declared.
+     */
+    public ClassHierarchyIndex(Map<String, String> subclassToSuperclassMap) {
+        this(subclassToSuperclassMap, new SymbolTable());
+    }
+
+    /**
+     * @param symbols The table the graph interns the classes into, e.g. one that already holds other names to compare.
+     */
+    public ClassHierarchyIndex(Map<String, String> subclassToSuperclassMap, SymbolTable symbols) {
+        this(toTypeGraph(subclassToSuperclassMap, symbols));
+    }
+
+    private static TypeGraph toTypeGraph(Map<String, String> subclassToSuperclassMap, SymbolTable symbols) {
+        TypeGraph typeGraph = new TypeGraph(symbols);
+        subclassToSuperclassMap.forEach((subclass, superclass) -> {
+            typeGraph.markDeclared(subclass);
+            typeGraph.markDeclared(superclass);
+            typeGraph.addSupertype(subclass, superclass);
+        });
+        return typeGraph;
+    }
+
+    /**
+     * @return Whether ancestor is a proper supertype of className, directly or further up.
+     */
+    public boolean isAncestor(String ancestor, String className) {
+        int ancestorId = this.typeGraph.idOf(ancestor);
+        int classId = this.typeGraph.idOf(className);
+        return ancestorId != -1 && this.ancestorIds(classId).get(ancestorId);
+    }
+
+    /**
+     * @return Whether the types are the same or one inherits from the other.
+     */
+    public boolean isRelated(String classA, String classB) {
+        return classA.equals(classB) || this.isAncestor(classB, classA) || this.isAncestor(classA, classB);
+    }
+
+    /**
+     * @return Whether the types of the {@link TypeGraph} ids are the same or one inherits from the other; false for unknown ids.
+     */
+    public boolean isRelated(int classA, int classB) {
+        return classA != -1 && classB != -1
+                && (classA == classB || this.ancestorIds(classA).get(classB) || this.ancestorIds(classB).get(classA));
+    }
+
+    /**
+     * @return The ids of all proper supertypes of the type, empty for ids the table handed out after the index was built;
+     * the set must not be modified.
+     */
+    public BitSet ancestorIds(int id) {
+        return id >= 0 && id < this.ancestors.length && this.ancestors[id] != null ? this.ancestors[id] : NONE;
+    }
+
+    /**
+     * @return The ids of all types inheriting from the type; the set must not be modified.
+     */
+    public BitSet descendantIds(int id) {
+        return id >= 0 && id < this.descendants.length && this.descendants[id] != null ? this.descendants[id] : NONE;
+    }
+
+    public Set<String> getAncestors(String className) {
+        int id = this.typeGraph.idOf(className);
+        return id == -1 ? Collections.emptySet() : this.names(this.ancestorIds(id), false);
+    }
+
+    /**
+     * @return The ancestors that are declared in the analysed sources, leaving out e.g. JDK interfaces.
+     */
+    public Set<String> getDeclaredAncestors(String className) {
+        int id = this.typeGraph.idOf(className);
+        return id == -1 ? Collections.emptySet() : this.names(this.ancestorIds(id), true);
+    }
+
+    public Set<String> getDescendants(String className) {
+        int id = this.typeGraph.idOf(className);
+        return id == -1 ? Collections.emptySet() : this.names(this.descendantIds(id), false);
+    }
+
+    /**
+     * @return The topmost declared types the class inherits from, or the class itself if it has none.
+     */
+    public Set<String> getRoots(String className) {
+        Set<String> roots = new LinkedHashSet<>();
+        for (String ancestor : this.getDeclaredAncestors(className)) {
+            if (this.getDeclaredAncestors(ancestor).isEmpty()) {
+                roots.add(ancestor);
+            }
+        }
+        if (roots.isEmpty()) {
+            roots.add(className);
+        }
+        return roots;
+    }
+
+    public TypeGraph getTypeGraph() {
+        return this.typeGraph;
+    }
+
+    private Set<String> names(BitSet ids, boolean declaredOnly) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (!declaredOnly || this.typeGraph.isDeclared(id)) {
+                result.add(this.typeGraph.nameOf(id));
+            }
+        }
+        return result;
+    }
+}
@@ -1,23 +1,77 @@
 package com.example.design_pattern_verifier.service.VisitorPattern;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.Map;
 import java.util.Set;
 
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
+/**
+ * Finds the elements that pass themselves to a candidate visitor. The detector compares the ids of the
+ * symbol table behind the hierarchy's type graph, which the collectors of the analysis share, and only
+ * reads it, so detectors over different files can share the candidates and the hierarchy index. A type
+ * the collectors never saw has no id and cannot be related to a candidate.
+ */
 public class DoubleDispatchDetector extends VoidVisitorAdapter<Void> {
-    private Map<String, Set<String>> candidates;
-    private Map<String, Set<String>> elementToVisitorMappings = new HashMap<>();
-    private Map<String, String> subclassToSuperclassMap;
+    private final SymbolTable types;
+    private final SymbolRelation candidates;
+    private final SymbolRelation elementToVisitorMappings = new SymbolRelation();
+    private final ClassHierarchyIndex hierarchyIndex;
+    private final ResolutionCache resolutionCache;
+    private int resolutionFailures;
 
     public DoubleDispatchDetector(Map<String, Set<String>> candidates, Map<String, String> subclassToSuperclassMap) {
-        this.candidates = candidates;
-        this.subclassToSuperclassMap = subclassToSuperclassMap;
+        this(candidates, hierarchyOf(candidates, subclassToSuperclassMap), new ResolutionCache());
+    }
+
+    /**
+     * @param candidates Names the table of the hierarchy's type graph does not know cannot be related to anything and are left out.
+     */
+    public DoubleDispatchDetector(Map<String, Set<String>> candidates, ClassHierarchyIndex hierarchyIndex, ResolutionCache resolutionCache) {
+        this(candidates, new SymbolTable(), hierarchyIndex, resolutionCache);
+    }
+
+    private DoubleDispatchDetector(Map<String, Set<String>> candidates, SymbolTable symbols, ClassHierarchyIndex hierarchyIndex, ResolutionCache resolutionCache) {
+        this(SymbolRelation.of(candidates, symbols), symbols, hierarchyIndex, resolutionCache);
+    }
+
+    /**
+     * Indexes the hierarchy in a table that knows the candidates as well, so candidates outside of it can still be compared.
+     */
+    private static ClassHierarchyIndex hierarchyOf(Map<String, Set<String>> candidates, Map<String, String> subclassToSuperclassMap) {
+        SymbolTable symbols = new SymbolTable();
+        candidates.forEach((type, related) -> {
+            symbols.intern(type);
+            related.forEach(symbols::intern);
+        });
+        return new ClassHierarchyIndex(subclassToSuperclassMap, symbols);
+    }
+
+    /**
+     * @param candidates The candidates as collected, e.g. by {@link MethodCallCollector#getCandidateRelation()}.
+     * @param symbols The table the candidates' ids belong to; it is only read, and the relation is used as is
+     * when it is the table of the hierarchy's type graph.
+     */
+    public DoubleDispatchDetector(SymbolRelation candidates, SymbolTable symbols, ClassHierarchyIndex hierarchyIndex, ResolutionCache resolutionCache) {
+        this.types = hierarchyIndex.getTypeGraph().getSymbols();
+        this.hierarchyIndex = hierarchyIndex;
+        this.resolutionCache = resolutionCache;
+        if (symbols == this.types) {
+            this.candidates = candidates;
+        } else {
+            this.candidates = new SymbolRelation();
+            for (int i = 0; i < candidates.size(); i++) {
+                int from = this.types.idOf(symbols.nameOf(candidates.from(i)));
+                int to = this.types.idOf(symbols.nameOf(candidates.to(i)));
+                if (from != -1 && to != -1) {
+                    this.candidates.add(from, to);
+                }
+            }
+        }
     }
 
     /**
@@ -26,20 +80,26 @@ public class DoubleDispatchDetector extends VoidVisitorAdapter<Void> {
     @Override
     public void visit(MethodDeclaration n, Void arg) {
         super.visit(n, arg);
+        this.detect(n);
+    }
 
+    /**
+     * Checks a single method for double dispatch calls, without visiting nested declarations.
+     * Used by the fused traversal, which already knows which methods contain calls.
+     */
+    public void detect(MethodDeclaration n) {
         n.getBody().ifPresent(body -> {
             try {
                 body.getStatements().forEach(statement -> {
                     statement.findAll(MethodCallExpr.class).forEach(methodCall -> {
-                        String callerClassName = this.findClassName(n);
-                        String calleeClassName = methodCall.resolve().declaringType().getQualifiedName();
+                        int caller = this.findClass(n);
+                        int callee = this.types.idOf(SymbolTable.normalizeTypeName(this.resolutionCache.methodOf(methodCall).declaringType().getQualifiedName()));
                         
-                        // System.out.println("Caller: " + callerClassName + " | Callee: " + calleeClassName + " | " + n.getParameters());
-                        if (this.isCandidatePair(callerClassName, calleeClassName)) {
+                        if (caller != -1 && this.isCandidatePair(caller, callee)) {
                             methodCall.getArguments().forEach(argument -> {
                                 if (argument.toString().equals("this")) {
-                                    if (this.calleeMatchesMethodParameter(n, calleeClassName)) {
-                                        this.checkAndMap(callerClassName, calleeClassName);
+                                    if (this.calleeMatchesMethodParameter(n, callee)) {
+                                        this.checkAndMap(caller, callee);
                                     }
                                 }
                             });
@@ -47,6 +107,7 @@ public class DoubleDispatchDetector extends VoidVisitorAdapter<Void> {
                     });
                 });
             } catch (Exception ex) {
+                this.resolutionFailures++;
                 // System.err.println("Failed to resolve method call in method: " + n);
             }
         });
@@ -55,7 +116,7 @@ public class DoubleDispatchDetector extends VoidVisitorAdapter<Void> {
     /**
      * Determines if a caller-callee pair is considered a candidate for double dispatch.
      */
-    private boolean isCandidatePair(String caller, String callee) {
+    private boolean isCandidatePair(int caller, int callee) {
         if (this.directOrInheritedCandidate(caller, callee)) {
             return true;
         }
@@ -66,32 +127,18 @@ public class DoubleDispatchDetector extends VoidVisitorAdapter<Void> {
     /**
      * Checks direct or inherited relationships between caller and callee as candidates.
      */
-    private boolean directOrInheritedCandidate(String caller, String callee) {
-        Set<String> callerCandidates = this.candidates.get(caller);
-        if (callerCandidates != null && (callerCandidates.contains(callee) || callerCandidates.stream().anyMatch(c -> this.isRelated(c, callee) || this.isRelated(callee, c)))) {
-            return true;
-        }
-    
-        for (String superCallee : this.subclassToSuperclassMap.keySet()) {
-            if (this.isRelated(superCallee, callee) || this.isRelated(callee, superCallee)) {
-                if (callerCandidates != null && callerCandidates.contains(superCallee)) {
-                    return true;
-                }
-            }
-        }
-    
-        return false;
+    private boolean directOrInheritedCandidate(int caller, int callee) {
+        return this.candidates.anyTarget(caller, candidate -> this.isRelated(candidate, callee));
     }
     
     /**
      * Examines inheritance chains to identify potential candidate relationships.
      */
-    private boolean checkCallerInheritanceForCandidates(String caller, String callee) {
-        for (Map.Entry<String, Set<String>> entry : this.candidates.entrySet()) {
-            if (this.isRelated(entry.getKey(), caller) || this.isRelated(caller, entry.getKey())) {
-                if (entry.getValue().contains(callee) || entry.getValue().stream().anyMatch(c -> this.isRelated(c, callee) || this.isRelated(callee, c))) {
-                    return true;
-                }
+    private boolean checkCallerInheritanceForCandidates(int caller, int callee) {
+        for (int i = 0; i < this.candidates.keyCount(); i++) {
+            int candidate = this.candidates.key(i);
+            if (this.isRelated(candidate, caller) && this.candidates.anyTarget(candidate, related -> this.isRelated(related, callee))) {
+                return true;
             }
         }
     
@@ -101,109 +148,81 @@ public class DoubleDispatchDetector extends VoidVisitorAdapter<Void> {
     /**
      * Checks if a callee matches or is related to a method's parameter.
      */
-    private boolean calleeMatchesMethodParameter(MethodDeclaration methodDeclaration, String calleeClassName) {
+    private boolean calleeMatchesMethodParameter(MethodDeclaration methodDeclaration, int callee) {
         return methodDeclaration.getParameters().stream().anyMatch(param -> {
-            String paramTypeName = param.getType().resolve().describe();
-            paramTypeName = this.normalizeTypeName(paramTypeName);
-    
-            if (paramTypeName.equals(calleeClassName)) {
-                return true;
-            }
-    
-            return this.isRelated(calleeClassName, paramTypeName) || this.isRelated(paramTypeName, calleeClassName);
+            String paramTypeName = this.resolutionCache.typeOf(param.getType()).describe();
+            return this.isRelated(callee, this.types.idOf(SymbolTable.normalizeTypeName(paramTypeName)));
         });
     }
     
-    private boolean isRelated(String classA, String classB) {
-        if (classA.equals(classB)) {
-            return true;
-        }
-    
-        String currentClass = classA;
-        while (currentClass != null && this.subclassToSuperclassMap.containsKey(currentClass)) {
-            if (this.subclassToSuperclassMap.get(currentClass).equals(classB)) {
-                return true;
-            }
-            currentClass = this.subclassToSuperclassMap.get(currentClass);
-        }
-    
-        currentClass = classB;
-        while (currentClass != null && this.subclassToSuperclassMap.containsKey(currentClass)) {
-            if (this.subclassToSuperclassMap.get(currentClass).equals(classA)) {
-                return true;
-            }
-            currentClass = this.subclassToSuperclassMap.get(currentClass);
-        }
-    
-        return false;
+    /**
+     * Same class, or one inherits from the other. The check is symmetric, and false for types without an id.
+     */
+    private boolean isRelated(int classA, int classB) {
+        return this.hierarchyIndex.isRelated(classA, classB);
     }
     
-    private void checkAndMap(String callerClassName, String calleeClassName) {
-        for (String candidate : this.candidates.keySet()) {
-            if (this.isRelated(candidate, callerClassName) || this.isRelated(candidate, calleeClassName)) {
-                this.candidates.get(candidate).forEach(relatedCandidate -> {
-                    if (this.isRelated(relatedCandidate, callerClassName) || this.isRelated(relatedCandidate, calleeClassName)) {
-                        this.mapCallerToCalleeAndItsInheritance(callerClassName, calleeClassName);
-                    }
-                });
+    private void checkAndMap(int caller, int callee) {
+        for (int i = 0; i < this.candidates.keyCount(); i++) {
+            int candidate = this.candidates.key(i);
+            if (this.isRelated(candidate, caller) || this.isRelated(candidate, callee)) {
+                boolean related = this.candidates.anyTarget(candidate,
+                        relatedCandidate -> this.isRelated(relatedCandidate, caller) || this.isRelated(relatedCandidate, callee));
+                if (related) {
+                    this.mapCallerToCalleeAndItsInheritance(caller, callee);
+                    return;
+                }
             }
         }
     }
     
-    private void mapCallerToCalleeAndItsInheritance(String callerClassName, String calleeClassName) {
-        this.addMapping(calleeClassName, callerClassName);
-    
-        String currentSuperclass = this.subclassToSuperclassMap.get(calleeClassName);
-        while (currentSuperclass != null) {
-            this.addMapping(currentSuperclass, callerClassName);
-            currentSuperclass = this.subclassToSuperclassMap.get(currentSuperclass);
-        }
-
-        this.subclassToSuperclassMap.forEach((subclass, superclass) -> {
-            if (this.isDescendantOf(calleeClassName, subclass)) {
-                this.addMapping(subclass, callerClassName);
+    private void mapCallerToCalleeAndItsInheritance(int caller, int callee) {
+        this.elementToVisitorMappings.add(callee, caller);
+        TypeGraph typeGraph = this.hierarchyIndex.getTypeGraph();
+        BitSet ancestors = this.hierarchyIndex.ancestorIds(callee);
+        for (int superclass = ancestors.nextSetBit(0); superclass >= 0; superclass = ancestors.nextSetBit(superclass + 1)) {
+            if (typeGraph.isDeclared(superclass)) {
+                this.elementToVisitorMappings.add(superclass, caller);
             }
-        });
-    }
-    
-    private void addMapping(String callee, String caller) {
-        this.elementToVisitorMappings.computeIfAbsent(callee, k -> new HashSet<>()).add(caller);
-    }
-    
-    private boolean isDescendantOf(String superclass, String subclass) {
-        String currentClass = subclass;
-        while (currentClass != null) {
-            if (this.subclassToSuperclassMap.get(currentClass) == null) {
-                return false;
-            }
-            if (this.subclassToSuperclassMap.get(currentClass).equals(superclass)) {
-                return true;
-            }
-            currentClass = this.subclassToSuperclassMap.get(currentClass);
         }
-        return false;
+        BitSet descendants = this.hierarchyIndex.descendantIds(callee);
+        for (int subclass = descendants.nextSetBit(0); subclass >= 0; subclass = descendants.nextSetBit(subclass + 1)) {
+            this.elementToVisitorMappings.add(subclass, caller);
+        }
     }
     
+    /**
+     * @return The id of the class declaring the method, or -1 if it is not declared in a class or interface the collectors saw.
+     */
     @SuppressWarnings("unchecked")
-    private String findClassName(MethodDeclaration n) {
+    private int findClass(MethodDeclaration n) {
         return n.findAncestor(ClassOrInterfaceDeclaration.class)
-                .map(ClassOrInterfaceDeclaration::getNameAsString)
-                .orElse(null);
+                .map(classDeclaration -> this.types.idOf(classDeclaration.getNameAsString()))
+                .orElse(-1);
     }
 
     public Map<String, Set<String>> getElementToVisitorMappings() {
+        return this.elementToVisitorMappings.toMap(this.types, this.types);
+    }
+
+    /**
+     * @return The mappings as ids of {@link #getTypes()}, e.g. to merge the mappings of several detectors.
+     */
+    public SymbolRelation getElementToVisitorMappingRelation() {
         return this.elementToVisitorMappings;
     }
 
-    private String normalizeTypeName(String typeName) {
-        int genericStartIndex = typeName.indexOf('<');
-        if (genericStartIndex != -1) {
-            typeName = typeName.substring(0, genericStartIndex);
-        }
-        int lastDotIndex = typeName.lastIndexOf('.');
-        if (lastDotIndex != -1) {
-            typeName = typeName.substring(lastDotIndex + 1);
-        }
-        return typeName;
+    /**
+     * @return The table of the hierarchy's type graph, shared with the collectors.
+     */
+    public SymbolTable getTypes() {
+        return this.types;
+    }
+
+    /**
+     * @return How many methods were skipped because one of their calls could not be resolved.
+     */
+    public int getResolutionFailures() {
+        return this.resolutionFailures;
     }
-}
\ No newline at end of file
+}
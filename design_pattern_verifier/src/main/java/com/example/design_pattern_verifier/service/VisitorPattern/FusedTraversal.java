@@ -0,0 +1,96 @@
+package com.example.design_pattern_verifier.service.VisitorPattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.InstanceOfExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+/**
+ * Walks the AST once and hands every node to all registered collectors, instead of
+ * each collector walking the whole tree on its own. Nodes are dispatched after their
+ * children, in the same order the collectors would see them when visited separately.
+ * While walking, it also remembers the methods that contain calls, so that the
+ * DoubleDispatchDetector can check only those methods once the candidates are known,
+ * and how long each collector took, since their work is interleaved node by node.
+ */
+public class FusedTraversal extends VoidVisitorAdapter<Void> {
+    private final List<NodeCollector> collectors = new ArrayList<>();
+    private final List<MethodDeclaration> methodsWithCalls = new ArrayList<>();
+    private long[] collectorNanos = new long[0];
+    private int methodCallCount;
+
+    public FusedTraversal register(NodeCollector collector) {
+        this.collectors.add(collector);
+        this.collectorNanos = Arrays.copyOf(this.collectorNanos, this.collectors.size());
+        return this;
+    }
+
+    @Override
+    public void visit(ClassOrInterfaceDeclaration n, Void arg) {
+        super.visit(n, arg);
+        this.dispatch(collector -> collector.collect(n));
+    }
+
+    @Override
+    public void visit(MethodDeclaration n, Void arg) {
+        int callsBefore = this.methodCallCount;
+        super.visit(n, arg);
+        if (this.methodCallCount > callsBefore && n.getBody().isPresent()) {
+            this.methodsWithCalls.add(n);
+        }
+    }
+
+    @Override
+    public void visit(MethodCallExpr n, Void arg) {
+        super.visit(n, arg);
+        this.methodCallCount++;
+        this.dispatch(collector -> collector.collect(n));
+    }
+
+    @Override
+    public void visit(CastExpr n, Void arg) {
+        super.visit(n, arg);
+        this.dispatch(collector -> collector.collect(n));
+    }
+
+    @Override
+    public void visit(InstanceOfExpr n, Void arg) {
+        super.visit(n, arg);
+        this.dispatch(collector -> collector.collect(n));
+    }
+
+    private void dispatch(Consumer<NodeCollector> hook) {
+        for (int i = 0; i < this.collectors.size(); i++) {
+            long start = System.nanoTime();
+            hook.accept(this.collectors.get(i));
+            this.collectorNanos[i] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @return Every method whose body contains at least one call, inner methods before the methods enclosing them.
+     */
+    public List<MethodDeclaration> getMethodsWithCalls() {
+        return this.methodsWithCalls;
+    }
+
+    /**
+     * @return The time each registered collector spent in its hooks, by collector class name, in registration order.
+     */
+    public Map<String, Long> getCollectorNanos() {
+        Map<String, Long> collectorNanos = new LinkedHashMap<>();
+        for (int i = 0; i < this.collectors.size(); i++) {
+            collectorNanos.merge(this.collectors.get(i).getClass().getSimpleName(), this.collectorNanos[i], Long::sum);
+        }
+        return collectorNanos;
+    }
+}
@@ -4,16 +4,41 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 
 
-public class MethodCallCollector extends VoidVisitorAdapter<Void> {
-    private Map<String, Set<String>> candidates = new HashMap<>();
-    private Map<String, Map<String, Set<String>>> methodCalls = new HashMap<>();
+/**
+ * Collects the types that are passed to methods of other types. Type and method names are interned
+ * once in the symbol table, and the maps are kept as relations of their ids.
+ */
+public class MethodCallCollector extends VoidVisitorAdapter<Void> implements NodeCollector {
+    private final SymbolTable symbols;
+    private SymbolRelation candidates = new SymbolRelation();
+    // scope type to method name; the numbers of these pairs are the keys of the argument types
+    private final SymbolRelation calledMethods = new SymbolRelation();
+    private final SymbolRelation argumentTypes = new SymbolRelation();
+    private final ResolutionCache resolutionCache;
+    private int resolutionFailures;
+
+    public MethodCallCollector() {
+        this(new ResolutionCache());
+    }
+
+    public MethodCallCollector(ResolutionCache resolutionCache) {
+        this(resolutionCache, new SymbolTable());
+    }
+
+    /**
+     * @param symbols The table the other collectors of the same analysis intern into as well.
+     */
+    public MethodCallCollector(ResolutionCache resolutionCache, SymbolTable symbols) {
+        this.resolutionCache = resolutionCache;
+        this.symbols = symbols;
+    }
 
     /**
      *  Iterates through all arguments of each method call expression, resolving the types of the arguments and the scope.
@@ -25,59 +50,96 @@ public class MethodCallCollector extends VoidVisitorAdapter<Void> {
     @Override
     public void visit(MethodCallExpr n, Void arg) {
         super.visit(n, arg);
+        this.collect(n);
+    }
 
+    @Override
+    public void collect(MethodCallExpr n) {
         n.getArguments().forEach(argument -> {
             try {
-                String argumentType = argument.calculateResolvedType().describe();
+                String argumentType = this.resolutionCache.typeOf(argument).describe();
                 n.getScope().ifPresent(scope -> {
                     try {
-                        String scopeType = scope.calculateResolvedType().describe();
-                        ResolvedMethodDeclaration resolvedMethod = n.resolve();
+                        String scopeType = this.resolutionCache.typeOf(scope).describe();
+                        ResolvedMethodDeclaration resolvedMethod = this.resolutionCache.methodOf(n);
                         String methodName = resolvedMethod.getName();
 
-                        String scopeTypeNormalized = this.normalizeTypeName(scopeType);
-                        String argumentTypeNormalized = this.normalizeTypeName(argumentType);
+                        int scopeTypeId = this.symbols.intern(SymbolTable.normalizeTypeName(scopeType));
+                        int argumentTypeId = this.symbols.intern(SymbolTable.normalizeTypeName(argumentType));
 
-                        if (resolvedMethod.getParam(0).getType().describe().equals(argumentType)) {
-                            this.candidates.computeIfAbsent(scopeTypeNormalized, k -> new HashSet<>()).add(argumentTypeNormalized);
-                            this.candidates.computeIfAbsent(argumentTypeNormalized, k -> new HashSet<>()).add(scopeTypeNormalized);
+                        if (this.resolutionCache.parameterTypeOf(n, 0).describe().equals(argumentType)) {
+                            this.candidates.add(scopeTypeId, argumentTypeId);
+                            this.candidates.add(argumentTypeId, scopeTypeId);
                         }
 
-                        this.methodCalls.computeIfAbsent(scopeTypeNormalized, k -> new HashMap<>())
-                                .computeIfAbsent(methodName, k -> new HashSet<>())
-                                .add(argumentTypeNormalized);
+                        int call = this.calledMethods.pairIndex(scopeTypeId, this.symbols.intern(methodName));
+                        this.argumentTypes.add(call, argumentTypeId);
                     } catch (Exception ex) {
+                        this.resolutionFailures++;
                         // System.err.println("Failed to resolve scope type in method call: " + n);
                     }
                 });
             } catch (Exception ex) {
+                this.resolutionFailures++;
                 // System.err.println("Failed to resolve argument type in method call: " + n);
             }
         });
     }
 
+    /**
+     * Adds everything another collector collected, e.g. the one that only saw a single file.
+     * Call {@link #finalizeMaps()} on the merged collector, not on the parts.
+     */
+    public void mergeFrom(MethodCallCollector other) {
+        int[] ids = this.symbols.internAll(other.symbols);
+        for (int i = 0; i < other.candidates.size(); i++) {
+            this.candidates.add(ids[other.candidates.from(i)], ids[other.candidates.to(i)]);
+        }
+        for (int i = 0; i < other.argumentTypes.size(); i++) {
+            int otherCall = other.argumentTypes.from(i);
+            int call = this.calledMethods.pairIndex(ids[other.calledMethods.from(otherCall)], ids[other.calledMethods.to(otherCall)]);
+            this.argumentTypes.add(call, ids[other.argumentTypes.to(i)]);
+        }
+        this.resolutionFailures += other.resolutionFailures;
+    }
+
     public void finalizeMaps() {
-        Map<String, Set<String>> filteredCandidates = this.candidates.entrySet().stream()
-                .filter(entry -> !entry.getKey().startsWith("java."))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        this.candidates = filteredCandidates;
+        this.candidates = this.candidates.filterKeys(type -> !this.symbols.nameOf(type).startsWith("java."));
     }
 
+    /**
+     * @return The candidates as names; {@link #getCandidateRelation()} keeps them as ids.
+     */
     public Map<String, Set<String>> getCandidates() {
+        return this.candidates.toMap(this.symbols, this.symbols);
+    }
+
+    /**
+     * @return The types passed to each other's methods, as ids of {@link #getSymbols()}.
+     */
+    public SymbolRelation getCandidateRelation() {
         return this.candidates;
     }
 
-    public Map<String, Map<String, Set<String>>> getMethodCalls() {
-        return this.methodCalls;
+    public SymbolTable getSymbols() {
+        return this.symbols;
     }
 
-    private String normalizeTypeName(String typeName) {
-        int lastDotIndex = typeName.lastIndexOf('.');
-        String simpleName = (lastDotIndex != -1) ? typeName.substring(lastDotIndex + 1) : typeName;
-        int genericStartIndex = simpleName.indexOf('<');
-        if (genericStartIndex != -1) {
-            simpleName = simpleName.substring(0, genericStartIndex);
+    public Map<String, Map<String, Set<String>>> getMethodCalls() {
+        Map<String, Map<String, Set<String>>> methodCalls = new HashMap<>();
+        for (int i = 0; i < this.argumentTypes.size(); i++) {
+            int call = this.argumentTypes.from(i);
+            methodCalls.computeIfAbsent(this.symbols.nameOf(this.calledMethods.from(call)), k -> new HashMap<>())
+                    .computeIfAbsent(this.symbols.nameOf(this.calledMethods.to(call)), k -> new HashSet<>())
+                    .add(this.symbols.nameOf(this.argumentTypes.to(i)));
         }
-        return simpleName;
+        return methodCalls;
+    }
+
+    /**
+     * @return How many arguments or scopes could not be resolved and were skipped.
+     */
+    public int getResolutionFailures() {
+        return this.resolutionFailures;
     }
 }
\ No newline at end of file
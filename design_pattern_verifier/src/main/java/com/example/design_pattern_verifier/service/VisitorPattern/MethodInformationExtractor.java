@@ -12,9 +12,30 @@ import com.github.javaparser.ast.expr.InstanceOfExpr;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
-public class MethodInformationExtractor extends VoidVisitorAdapter<Void> {
-    private Map<String, Set<String>> methodInformation = new HashMap<>();
-    private Map<String, Set<String>> interactions = new HashMap<>();
+/**
+ * Collects the signatures of the methods of each class and what the methods do with other types.
+ * Class names, method names and signatures are interned once in the symbol table; the interactions
+ * are source text that no other collector looks up, so they get a table of their own and do not
+ * grow the shared one.
+ */
+public class MethodInformationExtractor extends VoidVisitorAdapter<Void> implements NodeCollector {
+    private final SymbolTable symbols;
+    private final SymbolRelation methodInformation = new SymbolRelation();
+    // class name to method name; the numbers of these pairs are the keys of the interactions
+    private final SymbolRelation interactingMethods = new SymbolRelation();
+    private final SymbolRelation interactions = new SymbolRelation();
+    private final SymbolTable interactionTexts = new SymbolTable();
+
+    public MethodInformationExtractor() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbols The table the other collectors of the same analysis intern into as well.
+     */
+    public MethodInformationExtractor(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
 
     /**
      * For each method, extracts the class name and method signature
@@ -24,55 +45,61 @@ public class MethodInformationExtractor extends VoidVisitorAdapter<Void> {
     @Override
     public void visit(ClassOrInterfaceDeclaration n, Void arg) {
         super.visit(n, arg);
+        this.collect(n);
+    }
 
-        n.getMethods().forEach(method -> {
-            String className = n.getNameAsString();
-            String methodSignature = this.extractMethodSignature(method);
-            this.methodInformation.computeIfAbsent(className, k -> new HashSet<>()).add(methodSignature);
-        });
+    @Override
+    public void collect(ClassOrInterfaceDeclaration n) {
+        if (n.getMethods().isEmpty()) {
+            return;
+        }
+        int classId = this.symbols.intern(n.getNameAsString());
+        n.getMethods().forEach(method -> this.methodInformation.add(classId, this.symbols.intern(this.extractMethodSignature(method))));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void visit(MethodCallExpr n, Void arg) {
         super.visit(n, arg);
-        n.findAncestor(MethodDeclaration.class).ifPresent(methodDeclaration -> {
-            String methodName = methodDeclaration.getNameAsString();
-            methodDeclaration.findAncestor(ClassOrInterfaceDeclaration.class).ifPresent(classDeclaration -> {
-                String className = classDeclaration.getNameAsString();
-                String key = className + "." + methodName; 
-                this.interactions.computeIfAbsent(key, k -> new HashSet<>()).add(n.toString());
-            });
-        });
+        this.collect(n);
     }
 
     @SuppressWarnings("unchecked")
+    @Override
+    public void collect(MethodCallExpr n) {
+        n.findAncestor(MethodDeclaration.class).ifPresent(methodDeclaration ->
+                methodDeclaration.findAncestor(ClassOrInterfaceDeclaration.class).ifPresent(classDeclaration ->
+                        this.addInteraction(classDeclaration, methodDeclaration, n.toString())));
+    }
+
     @Override
     public void visit(CastExpr n, Void arg) {
         super.visit(n, arg);
+        this.collect(n);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void collect(CastExpr n) {
         n.findAncestor(MethodDeclaration.class).ifPresent(methodDeclaration -> {
-            String methodName = methodDeclaration.getNameAsString();
             methodDeclaration.findAncestor(ClassOrInterfaceDeclaration.class).ifPresent(classDeclaration -> {
-                String className = classDeclaration.getNameAsString();
-                String key = className + "." + methodName;
-                String castDetail = "Cast to " + n.getType() + " in " + key;
-                this.interactions.computeIfAbsent(key, k -> new HashSet<>()).add(castDetail);
+                String key = classDeclaration.getNameAsString() + "." + methodDeclaration.getNameAsString();
+                this.addInteraction(classDeclaration, methodDeclaration, "Cast to " + n.getType() + " in " + key);
             });
         });
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void visit(InstanceOfExpr n, Void arg) {
         super.visit(n, arg);
-        n.findAncestor(MethodDeclaration.class).ifPresent(methodDeclaration -> {
-            String methodName = methodDeclaration.getNameAsString();
-            methodDeclaration.findAncestor(ClassOrInterfaceDeclaration.class).ifPresent(classDeclaration -> {
-                String className = classDeclaration.getNameAsString();
-                String key = className + "." + methodName;
-                this.interactions.computeIfAbsent(key, k -> new HashSet<>()).add(n.toString());
-            });
-        });
+        this.collect(n);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void collect(InstanceOfExpr n) {
+        n.findAncestor(MethodDeclaration.class).ifPresent(methodDeclaration ->
+                methodDeclaration.findAncestor(ClassOrInterfaceDeclaration.class).ifPresent(classDeclaration ->
+                        this.addInteraction(classDeclaration, methodDeclaration, n.toString())));
     }
 
     /**
@@ -84,7 +111,7 @@ public class MethodInformationExtractor extends VoidVisitorAdapter<Void> {
         StringBuilder signatureBuilder = new StringBuilder(method.getNameAsString());
         signatureBuilder.append("(");
         method.getParameters().forEach(param -> {
-            String typeName = this.normalizeTypeName(param.getType().asString());
+            String typeName = SymbolTable.normalizeTypeName(param.getType().asString());
             signatureBuilder.append(typeName).append(" ").append(param.getName()).append(", ");
         });
         if (!method.getParameters().isEmpty()) {
@@ -93,24 +120,105 @@ public class MethodInformationExtractor extends VoidVisitorAdapter<Void> {
         signatureBuilder.append(")");
         return signatureBuilder.toString();
     }
-    
-    private String normalizeTypeName(String typeName) {
-        int genericStartIndex = typeName.indexOf('<');
-        if (genericStartIndex != -1) {
-            typeName = typeName.substring(0, genericStartIndex);
+
+    private void addInteraction(ClassOrInterfaceDeclaration classDeclaration, MethodDeclaration methodDeclaration, String detail) {
+        int method = this.interactingMethods.pairIndex(this.symbols.intern(classDeclaration.getNameAsString()),
+                this.symbols.intern(methodDeclaration.getNameAsString()));
+        this.interactions.add(method, this.interactionTexts.intern(detail));
+    }
+
+    /**
+     * Builds an extractor from maps of names, e.g. ones that were built by hand.
+     * @param interactions Keyed by class and method name, e.g. {@code Circle.accept}; a method may have no interactions.
+     */
+    public static MethodInformationExtractor of(Map<String, Set<String>> methodInformation, Map<String, Set<String>> interactions) {
+        MethodInformationExtractor extractor = new MethodInformationExtractor();
+        methodInformation.forEach((className, signatures) -> {
+            int classId = extractor.symbols.intern(className);
+            signatures.forEach(signature -> extractor.methodInformation.add(classId, extractor.symbols.intern(signature)));
+        });
+        interactions.forEach((key, details) -> {
+            int dot = key.lastIndexOf('.');
+            int method = extractor.interactingMethods.pairIndex(extractor.symbols.intern(key.substring(0, Math.max(dot, 0))),
+                    extractor.symbols.intern(key.substring(dot + 1)));
+            details.forEach(detail -> extractor.interactions.add(method, extractor.interactionTexts.intern(detail)));
+        });
+        return extractor;
+    }
+
+    /**
+     * Adds everything another extractor collected, e.g. the one that only saw a single file.
+     */
+    public void mergeFrom(MethodInformationExtractor other) {
+        int[] ids = this.symbols.internAll(other.symbols);
+        int[] texts = this.interactionTexts.internAll(other.interactionTexts);
+        for (int i = 0; i < other.methodInformation.size(); i++) {
+            this.methodInformation.add(ids[other.methodInformation.from(i)], ids[other.methodInformation.to(i)]);
+        }
+        for (int i = 0; i < other.interactingMethods.size(); i++) {
+            this.interactingMethods.add(ids[other.interactingMethods.from(i)], ids[other.interactingMethods.to(i)]);
+        }
+        for (int i = 0; i < other.interactions.size(); i++) {
+            int otherMethod = other.interactions.from(i);
+            int method = this.interactingMethods.pairIndex(ids[other.interactingMethods.from(otherMethod)], ids[other.interactingMethods.to(otherMethod)]);
+            this.interactions.add(method, texts[other.interactions.to(i)]);
         }
-        int lastDotIndex = typeName.lastIndexOf('.');
-        if (lastDotIndex != -1) {
-            typeName = typeName.substring(lastDotIndex + 1);
+    }
+
+    /**
+     * @return The signatures of the methods of the class, empty if it has none.
+     */
+    public Set<String> getSignatures(String className) {
+        int classId = this.symbols.idOf(className);
+        int count = this.methodInformation.targetCount(classId);
+        Set<String> signatures = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            signatures.add(this.symbols.nameOf(this.methodInformation.target(classId, i)));
         }
-        return typeName;
+        return signatures;
     }
-    
+
+    /**
+     * @return Whether a method of the class calls, casts or checks anything.
+     */
+    public boolean hasInteractions(String className) {
+        return this.interactingMethods.targetCount(this.symbols.idOf(className)) > 0;
+    }
+
+    /**
+     * @return The calls, casts and instanceof checks of all methods of the class.
+     */
+    public Set<String> getInteractionsOf(String className) {
+        int classId = this.symbols.idOf(className);
+        Set<String> details = new HashSet<>();
+        int count = this.interactingMethods.targetCount(classId);
+        for (int i = 0; i < count; i++) {
+            int method = this.interactingMethods.indexOf(classId, this.interactingMethods.target(classId, i));
+            int detailCount = this.interactions.targetCount(method);
+            for (int j = 0; j < detailCount; j++) {
+                details.add(this.interactionTexts.nameOf(this.interactions.target(method, j)));
+            }
+        }
+        return details;
+    }
+
+    /**
+     * @return The signatures of the methods of each class, by class name.
+     */
     public Map<String, Set<String>> getMethodInformation() {
-        return this.methodInformation;
+        return this.methodInformation.toMap(this.symbols, this.symbols);
     }
 
+    /**
+     * @return The calls, casts and instanceof checks of each method, keyed by class and method name, e.g. {@code Circle.accept}.
+     */
     public Map<String, Set<String>> getInteractions() {
-        return this.interactions;
+        Map<String, Set<String>> interactions = new HashMap<>();
+        for (int i = 0; i < this.interactions.size(); i++) {
+            int method = this.interactions.from(i);
+            String key = this.symbols.nameOf(this.interactingMethods.from(method)) + "." + this.symbols.nameOf(this.interactingMethods.to(method));
+            interactions.computeIfAbsent(key, k -> new HashSet<>()).add(this.interactionTexts.nameOf(this.interactions.to(i)));
+        }
+        return interactions;
     }
 }
@@ -0,0 +1,20 @@
+package com.example.design_pattern_verifier.service.VisitorPattern;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.InstanceOfExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+/**
+ * Per-node hooks of a collector that can be driven by {@link FusedTraversal}.
+ * Each hook handles exactly one node and must not descend into its children.
+ */
+public interface NodeCollector {
+    default void collect(ClassOrInterfaceDeclaration n) {}
+
+    default void collect(MethodCallExpr n) {}
+
+    default void collect(CastExpr n) {}
+
+    default void collect(InstanceOfExpr n) {}
+}
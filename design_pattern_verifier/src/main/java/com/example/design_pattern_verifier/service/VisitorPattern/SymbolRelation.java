@@ -0,0 +1,222 @@
+package com.example.design_pattern_verifier.service.VisitorPattern;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * A set of (from, to) pairs of symbol ids, replacing a map of string sets. Pairs are deduplicated
+ * through an open addressing table of longs and numbered in the order they were added, so a pair
+ * can itself be the key of another relation, e.g. a call of a method on a type with its argument
+ * types. The targets of every key are kept in per-key int arrays, like the edges of {@link TypeGraph}.
+ */
+public class SymbolRelation {
+    private static final long EMPTY = -1L;
+
+    private long[] slots = emptySlots(16);
+    private int[] slotPairs = new int[16];
+    private int[] froms = new int[8];
+    private int[] tos = new int[8];
+    private int pairCount;
+
+    private int[][] targets = new int[16][];
+    private int[] targetCounts = new int[16];
+    private int[] keys = new int[8];
+    private int keyCount;
+
+    /**
+     * @return Whether the pair is new.
+     */
+    public boolean add(int from, int to) {
+        int before = this.pairCount;
+        this.pairIndex(from, to);
+        return this.pairCount > before;
+    }
+
+    /**
+     * @return The number of the pair, adding it if it is new.
+     */
+    public int pairIndex(int from, int to) {
+        long pair = pack(from, to);
+        int mask = this.slots.length - 1;
+        int slot = hash(pair) & mask;
+        while (this.slots[slot] != EMPTY) {
+            if (this.slots[slot] == pair) {
+                return this.slotPairs[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        int index = this.pairCount++;
+        this.slots[slot] = pair;
+        this.slotPairs[slot] = index;
+        if (index == this.froms.length) {
+            this.froms = Arrays.copyOf(this.froms, index * 2);
+            this.tos = Arrays.copyOf(this.tos, index * 2);
+        }
+        this.froms[index] = from;
+        this.tos[index] = to;
+        this.addTarget(from, to);
+        if (this.pairCount * 2 > this.slots.length) {
+            this.rehash();
+        }
+        return index;
+    }
+
+    /**
+     * @return The number of the pair, or -1 if it was never added.
+     */
+    public int indexOf(int from, int to) {
+        long pair = pack(from, to);
+        int mask = this.slots.length - 1;
+        for (int slot = hash(pair) & mask; this.slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (this.slots[slot] == pair) {
+                return this.slotPairs[slot];
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(int from, int to) {
+        return this.indexOf(from, to) != -1;
+    }
+
+    /**
+     * @return Whether any target of the key matches, in the order they were added.
+     */
+    public boolean anyTarget(int from, IntPredicate predicate) {
+        int count = this.targetCount(from);
+        for (int i = 0; i < count; i++) {
+            if (predicate.test(this.targets[from][i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int targetCount(int from) {
+        return from >= 0 && from < this.targetCounts.length ? this.targetCounts[from] : 0;
+    }
+
+    public int target(int from, int i) {
+        return this.targets[from][i];
+    }
+
+    /**
+     * @return How many pairs were added; pairs are numbered from 0 up to this.
+     */
+    public int size() {
+        return this.pairCount;
+    }
+
+    public int from(int pairIndex) {
+        return this.froms[pairIndex];
+    }
+
+    public int to(int pairIndex) {
+        return this.tos[pairIndex];
+    }
+
+    /**
+     * @return How many keys have at least one target; keys are numbered from 0 up to this in the order they were added.
+     */
+    public int keyCount() {
+        return this.keyCount;
+    }
+
+    public int key(int i) {
+        return this.keys[i];
+    }
+
+    /**
+     * @return A new relation with the pairs whose key matches, in their order.
+     */
+    public SymbolRelation filterKeys(IntPredicate predicate) {
+        SymbolRelation filtered = new SymbolRelation();
+        for (int i = 0; i < this.pairCount; i++) {
+            if (predicate.test(this.froms[i])) {
+                filtered.add(this.froms[i], this.tos[i]);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * @return The relation as names, e.g. for the analyzers that compare names.
+     */
+    public Map<String, Set<String>> toMap(SymbolTable fromSymbols, SymbolTable toSymbols) {
+        Map<String, Set<String>> map = new HashMap<>();
+        for (int i = 0; i < this.pairCount; i++) {
+            map.computeIfAbsent(fromSymbols.nameOf(this.froms[i]), k -> new HashSet<>()).add(toSymbols.nameOf(this.tos[i]));
+        }
+        return map;
+    }
+
+    /**
+     * Adds the pairs of a map of names, e.g. one that was built by hand.
+     */
+    public static SymbolRelation of(Map<String, Set<String>> map, SymbolTable symbols) {
+        SymbolRelation relation = new SymbolRelation();
+        map.forEach((from, to) -> {
+            int fromId = symbols.intern(from);
+            to.forEach(target -> relation.add(fromId, symbols.intern(target)));
+        });
+        return relation;
+    }
+
+    private void addTarget(int from, int to) {
+        if (from >= this.targets.length) {
+            int length = Math.max(from + 1, this.targets.length * 2);
+            this.targets = Arrays.copyOf(this.targets, length);
+            this.targetCounts = Arrays.copyOf(this.targetCounts, length);
+        }
+        int count = this.targetCounts[from];
+        int[] fromTargets = this.targets[from];
+        if (fromTargets == null) {
+            fromTargets = new int[2];
+            if (this.keyCount == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.keyCount * 2);
+            }
+            this.keys[this.keyCount++] = from;
+        } else if (count == fromTargets.length) {
+            fromTargets = Arrays.copyOf(fromTargets, count * 2);
+        }
+        fromTargets[count] = to;
+        this.targets[from] = fromTargets;
+        this.targetCounts[from] = count + 1;
+    }
+
+    private void rehash() {
+        long[] grown = emptySlots(this.slots.length * 2);
+        int[] grownPairs = new int[grown.length];
+        int mask = grown.length - 1;
+        for (int index = 0; index < this.pairCount; index++) {
+            long pair = pack(this.froms[index], this.tos[index]);
+            int slot = hash(pair) & mask;
+            while (grown[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = pair;
+            grownPairs[slot] = index;
+        }
+        this.slots = grown;
+        this.slotPairs = grownPairs;
+    }
+
+    private static long[] emptySlots(int length) {
+        long[] slots = new long[length];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static long pack(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long pair) {
+        long mixed = pair * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.design_pattern_verifier.service.VisitorPattern;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the type, method and signature names of one analysis to dense integer ids, so the
+ * collectors hash each name once and key their relations by ids instead of strings. The collectors,
+ * the type graph of the hierarchy and the double dispatch detector of an analysis share one table,
+ * so their ids can be compared directly. A table is filled by a single thread; once filled it can be
+ * read from several, e.g. by the detectors of all shards.
+ */
+public class SymbolTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * @return The id of the name, assigning the next free one if the name is new.
+     */
+    public int intern(String name) {
+        Integer id = this.ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = this.names.size();
+        this.ids.put(name, newId);
+        this.names.add(name);
+        return newId;
+    }
+
+    /**
+     * @return The id of the name, or -1 if it was never interned.
+     */
+    public int idOf(String name) {
+        Integer id = this.ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String nameOf(int id) {
+        return this.names.get(id);
+    }
+
+    public int size() {
+        return this.names.size();
+    }
+
+    /**
+     * Interns every name of another table, e.g. of a collector that only saw a single file.
+     * @return For each id of the other table, the id of the same name in this one.
+     */
+    public int[] internAll(SymbolTable other) {
+        int[] translated = new int[other.size()];
+        for (int id = 0; id < translated.length; id++) {
+            // parts collected into this table already use its ids
+            translated[id] = other == this ? id : this.intern(other.nameOf(id));
+        }
+        return translated;
+    }
+
+    /**
+     * The simple name of a type as the collectors compare it, e.g. {@code List} for {@code java.util.List<String>}.
+     * Type arguments are dropped before the package, so dots inside them do not cut the name.
+     */
+    public static String normalizeTypeName(String typeName) {
+        int genericStartIndex = typeName.indexOf('<');
+        if (genericStartIndex != -1) {
+            typeName = typeName.substring(0, genericStartIndex);
+        }
+        int lastDotIndex = typeName.lastIndexOf('.');
+        if (lastDotIndex != -1) {
+            typeName = typeName.substring(lastDotIndex + 1);
+        }
+        return typeName;
+    }
+}
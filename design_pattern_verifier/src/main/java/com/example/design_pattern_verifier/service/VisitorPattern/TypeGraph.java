@@ -0,0 +1,160 @@
+package com.example.design_pattern_verifier.service.VisitorPattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Classes and interfaces with all of their direct supertypes. Type names are interned to integer ids
+ * in a {@link SymbolTable}, usually the one the collectors of the analysis share, so a type has the
+ * same id in the graph as in their relations, and edges are kept in per-type int arrays, so a type can
+ * extend a class and implement any number of interfaces without losing edges. Other names of the
+ * table, e.g. method names, are ids without edges. Types that were only referenced, e.g. JDK
+ * interfaces, are nodes as well but are not marked as declared.
+ */
+public class TypeGraph {
+    private static final int[] NO_EDGES = new int[0];
+
+    private final SymbolTable symbols;
+    private int[][] supertypes = new int[16][];
+    private int[] supertypeCounts = new int[16];
+    private final BitSet declared = new BitSet();
+
+    public TypeGraph() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbols The table the types are interned into; other collectors may intern into it as well.
+     */
+    public TypeGraph(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * @return The id of the type, assigning the next free one if the name is new.
+     */
+    public int intern(String name) {
+        int id = this.symbols.intern(name);
+        if (id >= this.supertypes.length) {
+            int length = Math.max(id + 1, this.supertypes.length * 2);
+            this.supertypes = Arrays.copyOf(this.supertypes, length);
+            this.supertypeCounts = Arrays.copyOf(this.supertypeCounts, length);
+        }
+        return id;
+    }
+
+    /**
+     * @return The id of the type, or -1 if it is not part of the graph.
+     */
+    public int idOf(String name) {
+        return this.symbols.idOf(name);
+    }
+
+    public String nameOf(int id) {
+        return this.symbols.nameOf(id);
+    }
+
+    public int size() {
+        return this.symbols.size();
+    }
+
+    public SymbolTable getSymbols() {
+        return this.symbols;
+    }
+
+    public void markDeclared(String name) {
+        this.declared.set(this.intern(name));
+    }
+
+    /**
+     * @return Whether the type is declared in the analysed sources; false for unknown ids.
+     */
+    public boolean isDeclared(int id) {
+        return id >= 0 && this.declared.get(id);
+    }
+
+    /**
+     * Records a direct extends or implements edge; repeated edges are ignored.
+     */
+    public void addSupertype(String subtype, String supertype) {
+        int sub = this.intern(subtype);
+        int sup = this.intern(supertype);
+        int count = this.supertypeCounts[sub];
+        int[] edges = this.supertypes[sub];
+        for (int i = 0; i < count; i++) {
+            if (edges[i] == sup) {
+                return;
+            }
+        }
+        if (edges == null) {
+            edges = new int[2];
+        } else if (count == edges.length) {
+            edges = Arrays.copyOf(edges, count * 2);
+        }
+        edges[count] = sup;
+        this.supertypes[sub] = edges;
+        this.supertypeCounts[sub] = count + 1;
+    }
+
+    /**
+     * @return The direct supertypes of the type, in the order they were declared.
+     */
+    public int[] supertypesOf(int id) {
+        int count = this.supertypeCount(id);
+        return count == 0 ? NO_EDGES : Arrays.copyOf(this.supertypes[id], count);
+    }
+
+    public List<String> getSupertypes(String name) {
+        int id = this.idOf(name);
+        List<String> result = new ArrayList<>();
+        if (id != -1) {
+            for (int supertype : this.supertypesOf(id)) {
+                result.add(this.nameOf(supertype));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 0 as well for the names another collector interned into the table after the graph last grew.
+     */
+    private int supertypeCount(int id) {
+        return id < this.supertypeCounts.length ? this.supertypeCounts[id] : 0;
+    }
+
+    /**
+     * @return Whether the type has at least one direct supertype.
+     */
+    public boolean hasSupertypes(int id) {
+        return this.supertypeCount(id) > 0;
+    }
+
+    /**
+     * @return The ids of all proper supertypes of the type, following every edge; cycles are cut off.
+     * The set and the stack only grow with the supertypes found, not with the size of the table, which
+     * holds the method names of the analysis as well.
+     */
+    public BitSet ancestorsOf(int id) {
+        BitSet visited = new BitSet();
+        int[] stack = new int[8];
+        int top = 0;
+        stack[top++] = id;
+        while (top > 0) {
+            int current = stack[--top];
+            int count = this.supertypeCount(current);
+            for (int i = 0; i < count; i++) {
+                int supertype = this.supertypes[current][i];
+                if (supertype != id && !visited.get(supertype)) {
+                    visited.set(supertype);
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = supertype;
+                }
+            }
+        }
+        return visited;
+    }
+}
@@ -1,17 +1,29 @@
 package com.example.design_pattern_verifier.service.VisitorPattern;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.example.design_pattern_verifier.service.Findings.Finding;
+
 public class VisitorAnalyzer {
     private Map<String, Set<String>> candidates = new HashMap<String, Set<String>>();
     private Map<String, Set<String>> elementToVisitorMappings = new HashMap<String, Set<String>>();
     private Map<String, String> subclassToSuperclassMap = new HashMap<String, String>();
-    private Map<String, Set<String>> methodInfo = new HashMap<String, Set<String>>();
-    private Map<String, Set<String>> interactions = new HashMap<String, Set<String>>();
+    // the signatures and interactions of each class, looked up by class instead of scanning maps of strings
+    private final MethodInformationExtractor methodInformation;
     private Map<String, Set<String>> logsMap = new HashMap<String, Set<String>>();
+    private List<Finding> findings = new ArrayList<>();
+    // per visitor, every class read while analysing it
+    private Map<String, Set<String>> dependencies = new HashMap<>();
+    private Set<String> analysedVisitors = Set.of();
+    private final ClassHierarchyIndex hierarchyIndex;
+
+    private static final String MISSING_ELEMENTS_SUGGESTION = "Consider adding or refining visit methods to handle these element types explicitly.";
     
     /**
      * Initializes the VisitorAnalyzer with various mappings needed for analysis.
@@ -25,11 +37,27 @@ public class VisitorAnalyzer {
      */
     public VisitorAnalyzer(Map<String, Set<String>> candidates, Map<String, Set<String>> elementToVisitorMappings, Map<String, String> subclassToSuperclassMap,
             Map<String, Set<String>> methodInfo, Map<String, Set<String>> interactions) {
+        this(candidates, elementToVisitorMappings, subclassToSuperclassMap, new ClassHierarchyIndex(subclassToSuperclassMap), methodInfo, interactions);
+    }
+
+    /**
+     * @param hierarchyIndex The index of every supertype of every class; subclassToSuperclassMap only keeps one of them per class.
+     */
+    public VisitorAnalyzer(Map<String, Set<String>> candidates, Map<String, Set<String>> elementToVisitorMappings, Map<String, String> subclassToSuperclassMap,
+            ClassHierarchyIndex hierarchyIndex, Map<String, Set<String>> methodInfo, Map<String, Set<String>> interactions) {
+        this(elementToVisitorMappings, hierarchyIndex, MethodInformationExtractor.of(methodInfo, interactions));
         this.candidates = candidates;
-        this.elementToVisitorMappings = elementToVisitorMappings;
         this.subclassToSuperclassMap = subclassToSuperclassMap;
-        this.methodInfo = methodInfo;
-        this.interactions = interactions;
+    }
+
+    /**
+     * Reads the signatures and interactions straight from the extractor's relations.
+     * @param hierarchyIndex The index of every supertype of every class.
+     */
+    public VisitorAnalyzer(Map<String, Set<String>> elementToVisitorMappings, ClassHierarchyIndex hierarchyIndex, MethodInformationExtractor methodInformation) {
+        this.elementToVisitorMappings = elementToVisitorMappings;
+        this.hierarchyIndex = hierarchyIndex;
+        this.methodInformation = methodInformation;
     }
 
     /**
@@ -37,8 +65,17 @@ public class VisitorAnalyzer {
      * This method calls other methods in sequence to perform the analysis and print results.
      */
     public void analyze() {
+        this.analyze(this.elementToVisitorMappings.keySet());
+    }
+
+    /**
+     * Analyses only the given visitors, e.g. the ones an incremental analysis found to be affected by a change.
+     * The results of the other visitors can be taken over from an earlier analysis with {@link #adopt}.
+     */
+    public void analyze(Set<String> visitors) {
         // for dev only:
         // this.log();
+        this.analysedVisitors = visitors;
 
         this.collectPrelog();
 
@@ -49,6 +86,23 @@ public class VisitorAnalyzer {
         this.printLogs();
 
         this.suggestions();
+
+        this.findings.forEach(finding -> finding.setDependencies(this.dependencies.getOrDefault(finding.getSubject(), Set.of())));
+    }
+
+    /**
+     * Takes over the logs and findings of a visitor from an earlier analysis whose inputs for that visitor did not change.
+     */
+    public void adopt(VisitorAnalyzer previous, String visitor) {
+        Set<String> logs = previous.logsMap.get(visitor);
+        if (logs != null) {
+            this.logsMap.put(visitor, logs);
+        }
+        Set<String> visitorDependencies = previous.dependencies.get(visitor);
+        if (visitorDependencies != null) {
+            this.dependencies.put(visitor, visitorDependencies);
+        }
+        previous.findings.stream().filter(finding -> visitor.equals(finding.getSubject())).forEach(this.findings::add);
     }
 
     /**
@@ -57,14 +111,20 @@ public class VisitorAnalyzer {
      */
     public void findType() {
         this.elementToVisitorMappings.keySet().forEach(visitor -> {
+            if (!this.analysedVisitors.contains(visitor)) {
+                return;
+            }
             Set<String> visitMethods = this.collectVisitMethods(visitor);
 
             if (visitMethods.size() == 1) {
                 // System.out.println(visitor + " uses a Single Method Visitor strategy.");
-                this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("uses Single Method Visitor.");
+                this.record(visitor, "uses Single Method Visitor.", Finding.Kind.VISITOR_STRATEGY, Finding.Severity.INFO,
+                        this.elementToVisitorMappings.get(visitor), visitMethods,
+                        "Consider refactoring to include a specialized visit method for each element type to improve clarity and maintainability.");
             } else {
                 // System.out.println(visitor + " uses an Overloaded Methods Visitor strategy.");
-                this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("uses Overloaded Methods.");
+                this.record(visitor, "uses Overloaded Methods.", Finding.Kind.VISITOR_STRATEGY, Finding.Severity.INFO,
+                        this.elementToVisitorMappings.get(visitor), visitMethods, null);
             }
         });
     }
@@ -75,13 +135,17 @@ public class VisitorAnalyzer {
      */
     private void verifyElementsToVisitors() {
         this.elementToVisitorMappings.forEach((visitor, elements) -> {
+            if (!this.analysedVisitors.contains(visitor)) {
+                return;
+            }
             Set<String> allElementTypes = new HashSet<>();
             elements.forEach(element -> {
-                allElementTypes.addAll(this.collectElementTypesInInheritance(element, this.constructSuperclassToSubclassesMap()));
+                allElementTypes.addAll(this.collectElementTypesInInheritance(visitor, element));
             });
     
             // System.out.println(visitor + " should handle all of " + allElementTypes);
-            this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("should handle all of " + allElementTypes);
+            this.record(visitor, "should handle all of " + allElementTypes, Finding.Kind.EXPECTED_ELEMENTS, Finding.Severity.INFO,
+                    allElementTypes, Set.of(), null);
 
             if (this.logsMap.get(visitor).contains("uses Single Method Visitor.")) {
                 this.verifyForSingle(allElementTypes, visitor);
@@ -147,28 +211,39 @@ public class VisitorAnalyzer {
     
         this.logsMap.forEach((visitor, logs) -> {
             formattedResults.append("For ").append(visitor).append(":\n");
-            
-            logs.stream().filter(log -> log.startsWith("<->")).forEach(log -> {
-                String doubleDispatchElements = log.substring(3);
-                formattedResults.append("\t- detects double dispatch with: ").append(doubleDispatchElements).append("\n");
-            });
-    
-            logs.stream().filter(log -> log.startsWith("uses")).forEach(log -> formattedResults.append("\t- ").append(log).append("\n"));
-    
-            logs.stream().filter(log -> log.startsWith("should handle all of")).forEach(log -> formattedResults.append("\t- ").append(log).append("\n"));
-    
-            logs.stream().filter(log -> !log.startsWith("<->") && !log.startsWith("uses") && !log.startsWith("should handle all of"))
-                .forEach(log -> formattedResults.append("\t- ").append(log).append("\n"));
+
+            // one pass over the logs, keeping their order within each section
+            List<String> doubleDispatch = new ArrayList<>();
+            List<String> strategy = new ArrayList<>();
+            List<String> expected = new ArrayList<>();
+            List<String> others = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (String log : logs) {
+                if (log.startsWith("<->")) {
+                    doubleDispatch.add(log.substring(3));
+                } else if (log.startsWith("uses")) {
+                    strategy.add(log);
+                } else if (log.startsWith("should handle all of")) {
+                    expected.add(log);
+                } else {
+                    others.add(log);
+                    if (log.startsWith("does not adequately handle all element types. It doesn't interact with: ")) {
+                        missing.add(log.substring(log.indexOf(":") + 2));
+                    }
+                }
+            }
+
+            doubleDispatch.forEach(elements -> formattedResults.append("\t- detects double dispatch with: ").append(elements).append("\n"));
+            strategy.forEach(log -> formattedResults.append("\t- ").append(log).append("\n"));
+            expected.forEach(log -> formattedResults.append("\t- ").append(log).append("\n"));
+            others.forEach(log -> formattedResults.append("\t- ").append(log).append("\n"));
             
             formattedResults.append("\n");
-            if (logs.contains("uses Single Method Visitor.") || logs.contains("uses Overloaded Methods.")) {
+            if (!strategy.isEmpty()) {
                 formattedResults.append("\nSuggestions for ").append(visitor).append(":\n");
-                logs.forEach(log -> {
-                    if (log.startsWith("does not adequately handle all element types. It doesn't interact with: ")) {
-                        String missingTypes = log.substring(log.indexOf(":") + 2);
-                        formattedResults.append("- It does not interact with or handle the following class(es): ").append(missingTypes).append("\n");
-                        formattedResults.append("Consider adding or refining visit methods to handle these element types explicitly.\n");
-                    }
+                missing.forEach(missingTypes -> {
+                    formattedResults.append("- It does not interact with or handle the following class(es): ").append(missingTypes).append("\n");
+                    formattedResults.append(MISSING_ELEMENTS_SUGGESTION).append("\n");
                 });
                 
                 if (logs.contains("uses Single Method Visitor.")) {
@@ -192,56 +267,56 @@ public class VisitorAnalyzer {
     private void verifyForOverloaded(Set<String> visitMethodParamTypes, Set<String> allElementTypes, String visitor) {
         if (visitMethodParamTypes.containsAll(allElementTypes)) {
             // System.out.println(visitor + " adequately handles all element types.");
-            this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("adequately handles all element types.");
+            this.record(visitor, "adequately handles all element types.", Finding.Kind.HANDLES_ALL_ELEMENTS, Finding.Severity.INFO,
+                    allElementTypes, Set.of(), null);
         } else {
             if (!this.hasInteraction(visitor)) {
                 // System.out.println(visitor + " does not have a body");
-                this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("does not have a body.");
+                this.record(visitor, "does not have a body.", Finding.Kind.MISSING_VISITOR_BODY, Finding.Severity.WARNING,
+                        allElementTypes, Set.of(), null);
             } else {
                 // System.out.println(visitor + " does not adequately handle all element types. It doesn't interact with: " + this.findMissingElementTypes(visitMethodParamTypes, allElementTypes));
-                this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("does not adequately handle all element types. It doesn't interact with: " + this.findMissingElementTypes(visitMethodParamTypes, allElementTypes));
+                Set<String> missingTypes = this.findMissingElementTypes(visitMethodParamTypes, allElementTypes);
+                this.record(visitor, "does not adequately handle all element types. It doesn't interact with: " + missingTypes,
+                        Finding.Kind.MISSING_ELEMENTS, Finding.Severity.WARNING, missingTypes, Set.of(), MISSING_ELEMENTS_SUGGESTION);
             }
         }
     }
 
     private void verifyForSingle(Set<String> allElementTypes, String visitor) {
         Set<String> handledTypes = new HashSet<>();
-        boolean bodyFound = false;
+        boolean bodyFound = this.hasInteraction(visitor);
     
-        for (String interactionKey : this.interactions.keySet()) {
-            if (interactionKey.startsWith(visitor + ".")) {
-                bodyFound = true;
-                Set<String> interactionDetails = this.interactions.get(interactionKey);
-    
-                for (String detail : interactionDetails) {
-                    if (detail.contains("instanceof") || detail.contains("Cast to")) {
-                        String typeName = this.extractTypeNameFromDetail(detail);
-                        handledTypes.add(typeName);
-                    } else if (detail.contains(".")) {
-                        String variableName = this.extractVariableNameBeforeDot(detail);
-                        String typeName = this.mapVariableToType(visitor, variableName);
-                        if (typeName != null && allElementTypes.contains(typeName)) {
-                            handledTypes.add(typeName);
-                        }
-                    }
+        for (String detail : this.methodInformation.getInteractionsOf(visitor)) {
+            if (detail.contains("instanceof") || detail.contains("Cast to")) {
+                String typeName = this.extractTypeNameFromDetail(detail);
+                handledTypes.add(typeName);
+            } else if (detail.contains(".")) {
+                String variableName = this.extractVariableNameBeforeDot(detail);
+                String typeName = this.mapVariableToType(visitor, variableName);
+                if (typeName != null && allElementTypes.contains(typeName)) {
+                    handledTypes.add(typeName);
                 }
             }
         }
     
         if (!bodyFound) {
             // System.out.println(visitor + " does not have a body");
-            this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("does not have a body.");
+            this.record(visitor, "does not have a body.", Finding.Kind.MISSING_VISITOR_BODY, Finding.Severity.WARNING,
+                    allElementTypes, Set.of(), null);
             return;
         }
     
         if (allElementTypes.equals(handledTypes)) {
             // System.out.println(visitor + " adequately handles all expected element types with a single method.");
-            this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("adequately handles all expected element types with a single method.");
+            this.record(visitor, "adequately handles all expected element types with a single method.", Finding.Kind.HANDLES_ALL_ELEMENTS,
+                    Finding.Severity.INFO, allElementTypes, Set.of(), null);
         } else {
             Set<String> missingTypes = new HashSet<>(allElementTypes);
             missingTypes.removeAll(handledTypes);
             // System.out.println(visitor + " does not adequately handle all element types. It doesn't interact with: " + missingTypes);
-            this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add("does not adequately handle all element types. It doesn't interact with: " + missingTypes);
+            this.record(visitor, "does not adequately handle all element types. It doesn't interact with: " + missingTypes,
+                    Finding.Kind.MISSING_ELEMENTS, Finding.Severity.WARNING, missingTypes, Set.of(), MISSING_ELEMENTS_SUGGESTION);
         }
     }
 
@@ -271,8 +346,8 @@ public class VisitorAnalyzer {
     }
 
     private String mapVariableToType(String visitor, String variableName) {
-        Set<String> methods = this.methodInfo.get(visitor);
-        if (methods != null) {
+        Set<String> methods = this.methodInformation.getSignatures(visitor);
+        if (!methods.isEmpty()) {
             for (String method : methods) {
                 int start = method.indexOf("(") + 1;
                 int end = method.indexOf(")", start);
@@ -316,56 +391,36 @@ public class VisitorAnalyzer {
     
     private Set<String> collectVisitMethods(String visitor) {
         Set<String> collectedMethods = new HashSet<>();
-        String currentVisitor = visitor;
+        Set<String> visitorTypes = new LinkedHashSet<>();
+        visitorTypes.add(visitor);
+        visitorTypes.addAll(this.hierarchyIndex.getDeclaredAncestors(visitor));
+
+        this.dependsOn(visitor, visitorTypes);
 
-        while (currentVisitor != null && this.methodInfo.containsKey(currentVisitor)) {
-            if (this.hasInteraction(currentVisitor)) {
-                collectedMethods.addAll(this.methodInfo.get(currentVisitor));
+        for (String visitorType : visitorTypes) {
+            if (this.hasInteraction(visitorType)) {
+                collectedMethods.addAll(this.methodInformation.getSignatures(visitorType));
             }
-            currentVisitor = this.subclassToSuperclassMap.get(currentVisitor);
         }
 
         return collectedMethods;
     }
 
-    private Map<String, Set<String>> constructSuperclassToSubclassesMap() {
-        Map<String, Set<String>> superclassToSubclassesMap = new HashMap<>();
-        for (Map.Entry<String, String> entry : this.subclassToSuperclassMap.entrySet()) {
-            String subclass = entry.getKey();
-            String superclass = entry.getValue();
-            
-            superclassToSubclassesMap.computeIfAbsent(superclass, k -> new HashSet<>()).add(subclass);
-        }
-        return superclassToSubclassesMap;
-    }
-
-    private Set<String> collectElementTypesInInheritance(String element, Map<String, Set<String>> superclassToSubclassesMap) {
+    /**
+     * Collects the element, its supertypes and every subtype of its topmost declared supertypes.
+     */
+    private Set<String> collectElementTypesInInheritance(String visitor, String element) {
         Set<String> elementTypes = new HashSet<>();
-        this.collectSubclasses(this.collectSuperclasses(element, elementTypes), elementTypes, superclassToSubclassesMap);
+        elementTypes.add(element);
+        elementTypes.addAll(this.hierarchyIndex.getAncestors(element));
+        this.hierarchyIndex.getRoots(element).forEach(root -> {
+            elementTypes.add(root);
+            elementTypes.addAll(this.hierarchyIndex.getDescendants(root));
+        });
+        this.dependsOn(visitor, elementTypes);
         return this.refineElementTypes(elementTypes);
     }
 
-    private String collectSuperclasses(String element, Set<String> elementTypes) {
-        String currentElement = element;
-        String superClass = element;
-        while (currentElement != null) {
-            superClass = currentElement;
-            elementTypes.add(currentElement);
-            currentElement = this.subclassToSuperclassMap.get(currentElement);
-        }
-        return superClass;
-    }
-
-    private void collectSubclasses(String element, Set<String> elementTypes, Map<String, Set<String>> superclassToSubclassesMap) {
-        if (superclassToSubclassesMap.containsKey(element)) {
-            for (String subclass : superclassToSubclassesMap.get(element)) {
-                if (elementTypes.add(subclass)) {
-                    this.collectSubclasses(subclass, elementTypes, superclassToSubclassesMap);
-                }
-            }
-        }
-    }
-
     private Set<String> refineElementTypes(Set<String> elementTypes) {
         Set<String> refinedElementTypes = new HashSet<>();
         for (String element : elementTypes) {
@@ -378,12 +433,7 @@ public class VisitorAnalyzer {
     }
 
     private boolean hasInteraction(String className) {
-        for (String interactionKey : this.interactions.keySet()) {
-            if (interactionKey.startsWith(className + ".")) {
-                return true;
-            }
-        }
-        return false;
+        return this.methodInformation.hasInteractions(className);
     }
 
     private void log() {
@@ -394,19 +444,43 @@ public class VisitorAnalyzer {
         System.out.println("Subclass to Superclass Map: ");
         this.subclassToSuperclassMap.forEach((k, v) -> System.out.println("  " + k + " -> " + v));
         System.out.println("Method Information: ");
-        this.methodInfo.forEach((k, v) -> System.out.println("  " + k + " -> " + v));
+        this.methodInformation.getMethodInformation().forEach((k, v) -> System.out.println("  " + k + " -> " + v));
         System.out.println("Method interactions: ");
-        this.interactions.forEach((k, v) -> System.out.println("  " + k + " -> " + v));
+        this.methodInformation.getInteractions().forEach((k, v) -> System.out.println("  " + k + " -> " + v));
     }
 
     private void collectPrelog() {
         this.elementToVisitorMappings.forEach((k, v) -> {
+            if (!this.analysedVisitors.contains(k)) {
+                return;
+            }
+            this.dependsOn(k, v);
             // System.out.println("there was double dispatch detected between " + k + "<->" + v);
-            this.logsMap.computeIfAbsent(k, key -> new HashSet<>()).add("<->"+v);
+            this.record(k, "<->" + v, Finding.Kind.DOUBLE_DISPATCH, Finding.Severity.INFO, v, Set.of(), null);
         });
     }
 
+    /**
+     * Adds the log line for the visitor and the matching finding. A log line that was already
+     * recorded for the visitor does not produce a second finding.
+     */
+    private void record(String visitor, String log, Finding.Kind kind, Finding.Severity severity, Set<String> classes, Set<String> methods, String suggestion) {
+        if (this.logsMap.computeIfAbsent(visitor, k -> new HashSet<>()).add(log)) {
+            String message = log.startsWith("<->") ? "detects double dispatch with: " + log.substring(3) : log;
+            this.findings.add(new Finding("visitor", kind, severity, visitor,
+                    classes == null ? List.of() : new ArrayList<>(classes), new ArrayList<>(methods), message, suggestion));
+        }
+    }
+
+    private void dependsOn(String visitor, Set<String> classes) {
+        this.dependencies.computeIfAbsent(visitor, k -> new HashSet<>()).addAll(classes);
+    }
+
     public Map<String, Set<String>> getLogsMap() {
         return this.logsMap;
     }
+
+    public List<Finding> getFindings() {
+        return this.findings;
+    }
 }
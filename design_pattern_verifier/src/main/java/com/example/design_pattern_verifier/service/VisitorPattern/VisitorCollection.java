@@ -0,0 +1,132 @@
+package com.example.design_pattern_verifier.service.VisitorPattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+
+/**
+ * What one fused traversal collected for the visitor analysis. Collections of single files can be
+ * merged into the collection of all of them, so a project only re-collects the files that changed.
+ * The collectors of a collection intern their names into one symbol table, which the hierarchy index
+ * and the double dispatch detector built from it use as well.
+ */
+public class VisitorCollection {
+    private final ClassHierarchyExtractor classHierarchyExtractor;
+    private final MethodCallCollector methodCallCollector;
+    private final MethodInformationExtractor methodInformationExtractor;
+    private final List<MethodDeclaration> methodsWithCalls;
+    private final Map<String, Long> collectorNanos;
+
+    private VisitorCollection(ClassHierarchyExtractor classHierarchyExtractor, MethodCallCollector methodCallCollector,
+            MethodInformationExtractor methodInformationExtractor, List<MethodDeclaration> methodsWithCalls, Map<String, Long> collectorNanos) {
+        this.classHierarchyExtractor = classHierarchyExtractor;
+        this.methodCallCollector = methodCallCollector;
+        this.methodInformationExtractor = methodInformationExtractor;
+        this.methodsWithCalls = methodsWithCalls;
+        this.collectorNanos = collectorNanos;
+    }
+
+    /**
+     * Runs all visitor collectors over the units in a single traversal. The method call maps are not finalized yet.
+     */
+    public static VisitorCollection collect(List<CompilationUnit> compilationUnits, ResolutionCache resolutionCache) {
+        return collect(compilationUnits, resolutionCache, new SymbolTable());
+    }
+
+    /**
+     * @param symbols The table to intern into, e.g. the one of a project whose file collections are merged later;
+     * it must not be filled by another thread at the same time.
+     */
+    public static VisitorCollection collect(List<CompilationUnit> compilationUnits, ResolutionCache resolutionCache, SymbolTable symbols) {
+        ClassHierarchyExtractor classHierarchyExtractor = new ClassHierarchyExtractor(symbols);
+        MethodCallCollector methodCallCollector = new MethodCallCollector(resolutionCache, symbols);
+        MethodInformationExtractor methodInformationExtractor = new MethodInformationExtractor(symbols);
+
+        FusedTraversal traversal = new FusedTraversal()
+                .register(classHierarchyExtractor)
+                .register(methodCallCollector)
+                .register(methodInformationExtractor);
+        compilationUnits.forEach(cu -> cu.accept(traversal, null));
+        return new VisitorCollection(classHierarchyExtractor, methodCallCollector, methodInformationExtractor,
+                traversal.getMethodsWithCalls(), traversal.getCollectorNanos());
+    }
+
+    /**
+     * @return A new collection holding everything the given ones collected, in their order; the parts are left untouched.
+     * Parts that were all collected into one table are merged into it as well, so their ids need no translation.
+     */
+    public static VisitorCollection merge(List<VisitorCollection> collections) {
+        SymbolTable symbols = sharedSymbols(collections);
+        ClassHierarchyExtractor classHierarchyExtractor = new ClassHierarchyExtractor(symbols);
+        MethodCallCollector methodCallCollector = new MethodCallCollector(new ResolutionCache(), symbols);
+        MethodInformationExtractor methodInformationExtractor = new MethodInformationExtractor(symbols);
+        List<MethodDeclaration> methodsWithCalls = new ArrayList<>();
+        for (VisitorCollection collection : collections) {
+            classHierarchyExtractor.mergeFrom(collection.classHierarchyExtractor);
+            methodCallCollector.mergeFrom(collection.methodCallCollector);
+            methodInformationExtractor.mergeFrom(collection.methodInformationExtractor);
+            methodsWithCalls.addAll(collection.methodsWithCalls);
+        }
+        return new VisitorCollection(classHierarchyExtractor, methodCallCollector, methodInformationExtractor, methodsWithCalls, Map.of());
+    }
+
+    private static SymbolTable sharedSymbols(List<VisitorCollection> collections) {
+        if (collections.isEmpty()) {
+            return new SymbolTable();
+        }
+        SymbolTable symbols = collections.get(0).getSymbols();
+        for (VisitorCollection collection : collections) {
+            if (collection.getSymbols() != symbols) {
+                return new SymbolTable();
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * @return A copy of what was collected that no longer refers to the syntax trees or to the resolutions
+     * they came from, e.g. to keep a shard's results while its trees are dropped.
+     */
+    public VisitorCollection summary() {
+        VisitorCollection copy = merge(List.of(this));
+        return new VisitorCollection(copy.classHierarchyExtractor, copy.methodCallCollector, copy.methodInformationExtractor,
+                List.of(), this.collectorNanos);
+    }
+
+    /**
+     * @return The table all collectors of this collection intern into.
+     */
+    public SymbolTable getSymbols() {
+        return this.methodCallCollector.getSymbols();
+    }
+
+    public ClassHierarchyExtractor getClassHierarchyExtractor() {
+        return this.classHierarchyExtractor;
+    }
+
+    public MethodCallCollector getMethodCallCollector() {
+        return this.methodCallCollector;
+    }
+
+    public MethodInformationExtractor getMethodInformationExtractor() {
+        return this.methodInformationExtractor;
+    }
+
+    /**
+     * @see FusedTraversal#getMethodsWithCalls()
+     */
+    public List<MethodDeclaration> getMethodsWithCalls() {
+        return this.methodsWithCalls;
+    }
+
+    /**
+     * @return The time each collector spent, empty for merged collections since they did not traverse anything.
+     */
+    public Map<String, Long> getCollectorNanos() {
+        return this.collectorNanos;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.design_pattern_verifier.ChainOfResponsibility;
+
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.Responsibility;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.ResponsibilityIndex;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.StructuralHasher;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.github.javaparser.StaticJavaParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponsibilityIndexTest {
+
+    private Responsibility responsibility(String name, String body) {
+        Responsibility responsibility = new Responsibility(name, null, StaticJavaParser.parseBlock(body));
+        responsibility.summarize(new StructuralHasher(false), new ResolutionCache());
+        return responsibility;
+    }
+
+    @Test
+    void testOnlyResponsibilitiesSharingStatementsAreCandidates() {
+        List<Responsibility> responsibilities = List.of(
+                responsibility("write", "{ System.out.println(\"a\"); }"),
+                responsibility("write", "{ System.out.println(\"b\"); }"),
+                responsibility("write", "{ System.out.println(\"a\"); System.out.println(\"c\"); }"));
+        ResponsibilityIndex index = new ResponsibilityIndex(responsibilities, name -> null, responsibility -> false);
+
+        BitSet expected = new BitSet();
+        expected.set(2);
+        assertEquals(expected, index.candidatesAfter(0));
+        assertTrue(index.candidatesAfter(1).isEmpty());
+        assertTrue(index.statementsIncludedIn(0, 2));
+        assertFalse(index.statementsIncludedIn(2, 0));
+    }
+
+    @Test
+    void testEmptyBodiesAreComparedWithEverything() {
+        List<Responsibility> responsibilities = List.of(
+                responsibility("write", "{ System.out.println(\"a\"); }"),
+                responsibility("write", "{ }"),
+                responsibility("write", "{ System.out.println(\"b\"); }"));
+        ResponsibilityIndex index = new ResponsibilityIndex(responsibilities, name -> null, responsibility -> false);
+
+        assertTrue(index.candidatesAfter(0).get(1));
+        assertTrue(index.candidatesAfter(1).get(2));
+        assertTrue(index.statementsIncludedIn(1, 0));
+    }
+
+    @Test
+    void testCallsToHelperWithSameBodyAreCandidates() {
+        Responsibility helper = responsibility("help", "{ System.out.println(\"shared\"); }");
+        List<Responsibility> responsibilities = List.of(
+                responsibility("write", "{ System.out.println(\"shared\"); }"),
+                responsibility("log", "{ help(); }"));
+        ResponsibilityIndex index = new ResponsibilityIndex(responsibilities, name -> name.equals("help") ? helper : null, responsibility -> false);
+
+        assertTrue(index.candidatesAfter(0).get(1));
+        assertTrue(index.callsHelperWithBodyOf(1, 0));
+        assertFalse(index.callsHelperWithBodyOf(0, 1));
+    }
+
+    @Test
+    void testHelperBodiesAreComparedExactly() {
+        // "Aa" and "BB" have the same String.hashCode()
+        Responsibility helper = responsibility("help", "{ Aa(); }");
+        List<Responsibility> responsibilities = List.of(
+                responsibility("write", "{ BB(); }"),
+                responsibility("log", "{ help(); }"));
+        ResponsibilityIndex index = new ResponsibilityIndex(responsibilities, name -> name.equals("help") ? helper : null, responsibility -> false);
+
+        assertFalse(index.callsHelperWithBodyOf(1, 0));
+    }
+
+    @Test
+    void testSummarizedResponsibilitiesDropTheirBodies() {
+        Responsibility responsibility = responsibility("write", "{ int count = 1; next.write(count); help(); }");
+
+        assertTrue(responsibility.isSummarized());
+        assertNull(responsibility.getMethodBody());
+        assertEquals(List.of("write", "help"), responsibility.getCalledMethods());
+        assertEquals(new StructuralHasher(false).bodyFingerprint(StaticJavaParser.parseBlock("{ int count = 1; next.write(count); help(); }")),
+                responsibility.getBodyFingerprint());
+        assertNotEquals(new StructuralHasher(false).bodyFingerprint(StaticJavaParser.parseBlock("{ int total = 1; next.write(total); help(); }")),
+                responsibility.getBodyFingerprint());
+        assertEquals(new StructuralHasher(false).statementFingerprints(StaticJavaParser.parseBlock("{ int count = 1; next.write(count); help(); }")),
+                responsibility.getStatementFingerprints());
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.design_pattern_verifier.ChainOfResponsibility;
 
 import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.Responsibility;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.StructuralHasher;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,4 +27,21 @@ class ResponsibilityTest {
         Responsibility responsibility = new Responsibility("write", null, blockStmt);
         assertEquals(blockStmt, responsibility.getMethodBody());
     }
+
+    @Test
+    void testNestedAssignmentsAreSummarized() {
+        CompilationUnit cu = new JavaParser(new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(new ReflectionTypeSolver())))
+                .parse("class Handler { Handler next;"
+                        + " void setAll(java.util.List<Handler> handlers) { handlers.forEach(h -> this.next = h); }"
+                        + " void setNext(Handler n) { register(this.next = n); }"
+                        + " void register(Handler h) { } }")
+                .getResult().get();
+        for (String name : new String[] { "setAll", "setNext" }) {
+            MethodDeclaration method = cu.findFirst(MethodDeclaration.class, m -> m.getNameAsString().equals(name)).get();
+            Responsibility responsibility = new Responsibility(name, null, method.getBody().get());
+            responsibility.summarize(new StructuralHasher(false), new ResolutionCache());
+
+            assertTrue(responsibility.assignsBetween(type -> type.equals("Handler")), name);
+        }
+    }
 }
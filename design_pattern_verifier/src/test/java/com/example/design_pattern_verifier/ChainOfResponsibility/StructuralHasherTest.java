@@ -0,0 +1,94 @@
+package com.example.design_pattern_verifier.ChainOfResponsibility;
+
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.StructuralHasher;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructuralHasherTest {
+
+    private Set<StructuralHasher.Fingerprint> hashes(StructuralHasher hasher, String method) {
+        MethodDeclaration declaration = StaticJavaParser.parseMethodDeclaration(method);
+        BlockStmt body = declaration.getBody().get();
+        return hasher.statementFingerprints(body);
+    }
+
+    @Test
+    void testFormattingAndCommentsAreIgnored() {
+        StructuralHasher hasher = new StructuralHasher(false);
+        assertEquals(
+                hashes(hasher, "void write(String message) { System.out.println(\"a\" + message); }"),
+                hashes(hasher, "void write(String message) {\n  // print it\n  System.out.println( \"a\"+message ) ;\n}"));
+    }
+
+    @Test
+    void testVariableNamesAreIgnored() {
+        StructuralHasher hasher = new StructuralHasher(false);
+        assertEquals(
+                hashes(hasher, "void write(String message) { int count = message.length(); System.out.println(count); }"),
+                hashes(hasher, "void write(String text) { int n = text.length(); System.out.println(n); }"));
+    }
+
+    @Test
+    void testMethodNamesAndTypesAreKept() {
+        StructuralHasher hasher = new StructuralHasher(false);
+        assertNotEquals(
+                hashes(hasher, "void write(String message) { System.out.println(message); }"),
+                hashes(hasher, "void write(String message) { System.out.print(message); }"));
+        assertNotEquals(
+                hashes(hasher, "void write(String message) { System.out.println(message); }"),
+                hashes(hasher, "void write(Object message) { System.out.println(message); }"));
+    }
+
+    @Test
+    void testLiteralsAreOnlyAbstractedWhenEnabled() {
+        String console = "void write(String message) { System.out.println(\"Console Logger: \" + message); }";
+        String file = "void write(String message) { System.out.println(\"File Logger: \" + message); }";
+
+        assertNotEquals(hashes(new StructuralHasher(false), console), hashes(new StructuralHasher(false), file));
+        assertEquals(hashes(new StructuralHasher(true), console), hashes(new StructuralHasher(true), file));
+    }
+
+    @Test
+    void testSwappedVariablesOfTheSameTypeDiffer() {
+        StructuralHasher hasher = new StructuralHasher(false);
+        assertNotEquals(
+                hashes(hasher, "int subtract(int a, int b) { return a - b; }"),
+                hashes(hasher, "int subtract(int a, int b) { return b - a; }"));
+        assertEquals(
+                hashes(hasher, "int subtract(int a, int b) { return a - b; }"),
+                hashes(hasher, "int subtract(int x, int y) { return x - y; }"));
+    }
+
+    @Test
+    void testVariablesAreScopedPerBlock() {
+        StructuralHasher hasher = new StructuralHasher(false);
+        // a is out of scope once its block ends, so b is the first variable of the body in both methods
+        assertTrue(hashes(hasher, "void write(String message) { { int a = 1; print(a); } int b = 1; print(b); }")
+                .containsAll(hashes(hasher, "void write(String message) { int b = 1; print(b); }")));
+    }
+
+    @Test
+    void testStringHashCodeCollisionsDiffer() {
+        // "Aa" and "BB" have the same String.hashCode()
+        StructuralHasher hasher = new StructuralHasher(false);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(hashes(hasher, "void write() { Aa(); }"), hashes(hasher, "void write() { BB(); }"));
+        assertNotEquals(hasher.bodyFingerprint(StaticJavaParser.parseBlock("{ Aa(); }")), hasher.bodyFingerprint(StaticJavaParser.parseBlock("{ BB(); }")));
+    }
+
+    @Test
+    void testNestedStatementsAreHashed() {
+        StructuralHasher hasher = new StructuralHasher(false);
+        Set<StructuralHasher.Fingerprint> nested = hashes(hasher, "void write(String message) { if (message != null) { System.out.println(message); } }");
+        Set<StructuralHasher.Fingerprint> flat = hashes(hasher, "void write(String message) { System.out.println(message); }");
+
+        assertEquals(2, nested.size());
+        assertTrue(nested.containsAll(flat));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.design_pattern_verifier.Findings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+import com.example.design_pattern_verifier.service.Findings.FindingIndex;
+import com.example.design_pattern_verifier.service.Findings.FindingLocator;
+import com.example.design_pattern_verifier.service.Findings.FindingsJsonWriter;
+import com.example.design_pattern_verifier.service.Findings.FindingsStreamWriter;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorAnalyzer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+public class FindingsTest {
+
+    private VisitorAnalyzer analyzeVisitorMissingAnElement() {
+        VisitorAnalyzer analyzer = new VisitorAnalyzer(
+                Map.of(),
+                Map.of("ShapeVisitor", Set.of("Circle")),
+                Map.of("Circle", "Shape", "Square", "Shape"),
+                Map.of("ShapeVisitor", Set.of("visit(Circle c)", "visit(Line l)")),
+                Map.of("ShapeVisitor.visit", Set.of("c.radius()"), "Circle.accept", Set.of(), "Square.accept", Set.of()));
+        analyzer.analyze();
+        return analyzer;
+    }
+
+    @Test
+    public void testVisitorFindingsFollowLogs() throws Exception {
+        VisitorAnalyzer analyzer = this.analyzeVisitorMissingAnElement();
+
+        List<Finding> findings = analyzer.getFindings();
+        assertEquals(analyzer.getLogsMap().get("ShapeVisitor").size(), findings.size());
+
+        Finding missing = findings.stream().filter(f -> f.getKind() == Finding.Kind.MISSING_ELEMENTS).findFirst().orElseThrow();
+        assertEquals("ShapeVisitor", missing.getSubject());
+        assertEquals(Finding.Severity.WARNING, missing.getSeverity());
+        assertEquals(List.of("Square"), missing.getClasses());
+        assertNotNull(missing.getSuggestion());
+
+        Finding dispatch = findings.stream().filter(f -> f.getKind() == Finding.Kind.DOUBLE_DISPATCH).findFirst().orElseThrow();
+        assertEquals(List.of("Circle"), dispatch.getClasses());
+        assertEquals("detects double dispatch with: [Circle]", dispatch.getMessage());
+    }
+
+    @Test
+    public void testFindingsAreIndexedByDependencies() throws Exception {
+        VisitorAnalyzer analyzer = this.analyzeVisitorMissingAnElement();
+        FindingIndex index = new FindingIndex(analyzer.getFindings());
+
+        Finding missing = analyzer.getFindings().stream().filter(f -> f.getKind() == Finding.Kind.MISSING_ELEMENTS).findFirst().orElseThrow();
+        assertEquals(Set.of("ShapeVisitor", "Circle", "Square", "Shape"), missing.getDependencies());
+        assertEquals(analyzer.getFindings().size(), index.touchedBy(List.of("Square")).size());
+        assertTrue(index.touchedBy(List.of("Triangle", "Main")).isEmpty());
+    }
+
+    @Test
+    public void testUnaffectedVisitorsAreAdopted() throws Exception {
+        VisitorAnalyzer previous = this.analyzeVisitorMissingAnElement();
+        VisitorAnalyzer analyzer = new VisitorAnalyzer(
+                Map.of(),
+                Map.of("ShapeVisitor", Set.of("Circle")),
+                Map.of("Circle", "Shape", "Square", "Shape"),
+                Map.of("ShapeVisitor", Set.of("visit(Circle c)", "visit(Line l)")),
+                Map.of("ShapeVisitor.visit", Set.of("c.radius()"), "Circle.accept", Set.of(), "Square.accept", Set.of()));
+
+        analyzer.analyze(Set.of());
+        assertTrue(analyzer.getFindings().isEmpty());
+        analyzer.adopt(previous, "ShapeVisitor");
+
+        assertEquals(previous.getFindings(), analyzer.getFindings());
+        assertEquals(previous.getFormattedAnalysisResults(), analyzer.getFormattedAnalysisResults());
+    }
+
+    @Test
+    public void testLocatorPointsAtDeclaration() throws Exception {
+        CompilationUnit cu = StaticJavaParser.parse("package shapes;\n\nclass Circle {}\n\nclass ShapeVisitor {\n}\n");
+        Finding finding = new Finding("visitor", Finding.Kind.MISSING_ELEMENTS, Finding.Severity.WARNING, "ShapeVisitor",
+                List.of(), List.of(), "message", null);
+        Finding undeclared = new Finding("visitor", Finding.Kind.MISSING_ELEMENTS, Finding.Severity.WARNING, "Unknown",
+                List.of(), List.of(), "message", null);
+
+        new FindingLocator(List.of(cu)).locate(List.of(finding, undeclared));
+
+        assertEquals(5, finding.getLocation().getLine());
+        assertEquals(1, finding.getLocation().getColumn());
+        assertEquals(null, undeclared.getLocation());
+    }
+
+    @Test
+    public void testJsonReport() throws Exception {
+        VisitorAnalyzer analyzer = this.analyzeVisitorMissingAnElement();
+        AnalysisReport report = new AnalysisReport("visitor", analyzer.getFormattedAnalysisResults(), analyzer.getFindings());
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        FindingsJsonWriter.write(report, outputStream, objectMapper);
+        JsonNode json = objectMapper.readTree(outputStream.toString(StandardCharsets.UTF_8));
+
+        assertEquals("visitor", json.get("pattern").asText());
+        assertEquals(report.getText(), json.get("text").asText());
+        assertEquals(analyzer.getFindings().size(), json.get("findings").size());
+        boolean hasMissing = false;
+        for (JsonNode finding : json.get("findings")) {
+            hasMissing |= finding.get("kind").asText().equals("MISSING_ELEMENTS") && finding.get("classes").get(0).asText().equals("Square");
+        }
+        assertTrue(hasMissing);
+    }
+
+    @Test
+    public void testNdjsonStream() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        FindingsStreamWriter writer = new FindingsStreamWriter(outputStream, objectMapper, false);
+        VisitorAnalyzer analyzer = this.analyzeVisitorMissingAnElement();
+
+        writer.accepted("visitor", 2);
+        writer.onStage("parsed", 40);
+        analyzer.getFindings().forEach(writer::onFinding);
+        writer.done(new AnalysisReport("visitor", analyzer.getFormattedAnalysisResults(), analyzer.getFindings()));
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3 + analyzer.getFindings().size(), lines.length);
+        assertEquals("accepted", objectMapper.readTree(lines[0]).get("event").asText());
+        assertEquals(40, objectMapper.readTree(lines[1]).get("progress").asInt());
+        JsonNode finding = objectMapper.readTree(lines[2]);
+        assertEquals("finding", finding.get("event").asText());
+        assertEquals("ShapeVisitor", finding.get("finding").get("subject").asText());
+        JsonNode done = objectMapper.readTree(lines[lines.length - 1]);
+        assertEquals("done", done.get("event").asText());
+        assertEquals(analyzer.getFindings().size(), done.get("findings").asInt());
+    }
+
+    @Test
+    public void testServerSentEventFraming() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        FindingsStreamWriter writer = new FindingsStreamWriter(outputStream, new ObjectMapper(), true);
+
+        writer.onStage("hierarchy built", 55);
+
+        assertEquals("event: stage\ndata: {\"event\":\"stage\",\"stage\":\"hierarchy built\",\"progress\":55}\n\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
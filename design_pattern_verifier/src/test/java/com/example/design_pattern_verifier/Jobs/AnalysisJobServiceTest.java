@@ -0,0 +1,137 @@
+package com.example.design_pattern_verifier.Jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Jobs.AnalysisJob;
+import com.example.design_pattern_verifier.service.Jobs.AnalysisJobService;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AnalysisJobServiceTest {
+
+    private final List<SourceFile> sources = List.of(new SourceFile("A.java", "class A {}".getBytes(StandardCharsets.UTF_8)));
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AnalysisJobService analysisJobService;
+
+    /**
+     * Reports one stage and then blocks until the test releases it, so jobs can be observed while running.
+     */
+    private class BlockingAnalyzeService extends AnalyzeService {
+        @Override
+        public AnalysisReport analyseSourcesForReport(List<SourceFile> sources, String pattern, AnalysisListener listener) {
+            listener.onStage("analysing", 50);
+            try {
+                AnalysisJobServiceTest.this.release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (pattern.equals("broken")) {
+                throw new IllegalStateException("boom");
+            }
+            return new AnalysisReport(pattern, "Analysed " + sources.size() + " file(s) for " + pattern, List.of());
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        this.analysisJobService = new AnalysisJobService(new BlockingAnalyzeService(), new AnalysisMetrics(this.registry), 1, 1, 30);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.release.countDown();
+        this.analysisJobService.destroy();
+    }
+
+    private void awaitFinished(AnalysisJob job) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testJobReportsProgressAndResult() throws Exception {
+        AnalysisJob job = this.analysisJobService.submit(this.sources, "visitor");
+        assertEquals(job, this.analysisJobService.get(job.getId()));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getProgress() != 50 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(AnalysisJob.Status.RUNNING, job.getStatus());
+        assertEquals("analysing", job.getStage());
+
+        this.release.countDown();
+        this.awaitFinished(job);
+        assertEquals(AnalysisJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(100, job.getProgress());
+        assertEquals("Analysed 1 file(s) for visitor", job.getResult());
+        assertTrue(job.getFindings().isEmpty());
+        assertTrue(job.getFinishedAt() >= job.getSubmittedAt());
+    }
+
+    @Test
+    public void testFailedAnalysisMarksJobFailed() throws Exception {
+        this.release.countDown();
+        AnalysisJob job = this.analysisJobService.submit(this.sources, "broken");
+
+        this.awaitFinished(job);
+        assertEquals(AnalysisJob.Status.FAILED, job.getStatus());
+        assertNull(job.getResult());
+        assertEquals(1.0, this.registry.get("analysis.failures").tag("stage", "job").counter().count());
+    }
+
+    @Test
+    public void testRejectsJobsWhenQueueIsFull() throws Exception {
+        AnalysisJob running = this.analysisJobService.submit(this.sources, "visitor");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (running.getStatus() != AnalysisJob.Status.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        AnalysisJob queued = this.analysisJobService.submit(this.sources, "chain");
+        assertEquals(AnalysisJob.Status.QUEUED, queued.getStatus());
+        assertEquals(1, this.analysisJobService.getQueueDepth());
+
+        assertThrows(RejectedExecutionException.class, () -> this.analysisJobService.submit(this.sources, "observer"));
+    }
+
+    @Test
+    public void testPollingEvictsExpiredJobs() throws Exception {
+        AnalysisJobService expiring = new AnalysisJobService(new BlockingAnalyzeService(), new AnalysisMetrics(this.registry), 1, 1, 0);
+        try {
+            this.release.countDown();
+            AnalysisJob job = expiring.submit(this.sources, "visitor");
+            this.awaitFinished(job);
+            Thread.sleep(10);
+
+            assertNull(expiring.get(job.getId()));
+        } finally {
+            expiring.destroy();
+        }
+    }
+
+    @Test
+    public void testUnknownJobIsNull() {
+        assertNull(this.analysisJobService.get("missing"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.design_pattern_verifier.Parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.Parsing.ArchiveLimitException;
+import com.example.design_pattern_verifier.service.Parsing.ArchiveReader;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+
+public class ArchiveReaderTest {
+
+    private static final Map<String, String> ENTRIES = Map.of(
+            "src/Element.java", "public class Element {}",
+            "src/Visitor.java", "public class Visitor {}",
+            "README.md", "not a source file");
+
+    private byte[] zip(Map<String, String> entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] tarGz(Map<String, String> entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GZIPOutputStream(bytes))) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                byte[] content = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry tarEntry = new TarArchiveEntry(entry.getKey());
+                tarEntry.setSize(content.length);
+                tar.putArchiveEntry(tarEntry);
+                tar.write(content);
+                tar.closeArchiveEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<String> names(List<SourceFile> sources) {
+        return sources.stream().map(SourceFile::getName).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSupportedArchiveTypes() {
+        assertTrue(ArchiveReader.isSupported("project.zip"));
+        assertTrue(ArchiveReader.isSupported("project.tar.gz"));
+        assertTrue(ArchiveReader.isSupported("project.TGZ"));
+        assertFalse(ArchiveReader.isSupported("project.rar"));
+        assertFalse(ArchiveReader.isSupported(null));
+    }
+
+    @Test
+    public void testReadsJavaEntriesFromZip() throws Exception {
+        ArchiveReader archiveReader = new ArchiveReader(100, 1024);
+        List<SourceFile> sources = archiveReader.readJavaSources("project.zip", new ByteArrayInputStream(this.zip(ENTRIES)));
+
+        assertEquals(List.of("src/Element.java", "src/Visitor.java"), this.names(sources));
+    }
+
+    @Test
+    public void testReadsJavaEntriesFromTarGz() throws Exception {
+        ArchiveReader archiveReader = new ArchiveReader(100, 1024);
+        List<SourceFile> sources = archiveReader.readJavaSources("project.tar.gz", new ByteArrayInputStream(this.tarGz(ENTRIES)));
+
+        assertEquals(List.of("src/Element.java", "src/Visitor.java"), this.names(sources));
+        SourceFile element = sources.stream().filter(source -> source.getName().equals("src/Element.java")).findFirst().get();
+        assertEquals("public class Element {}", new String(element.getContent(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRejectsTooManyEntries() throws Exception {
+        ArchiveReader archiveReader = new ArchiveReader(2, 1024);
+
+        assertThrows(ArchiveLimitException.class,
+                () -> archiveReader.readJavaSources("project.zip", new ByteArrayInputStream(this.zip(ENTRIES))));
+    }
+
+    @Test
+    public void testRejectsTooManyUncompressedBytes() throws Exception {
+        ArchiveReader archiveReader = new ArchiveReader(100, 30);
+
+        assertThrows(ArchiveLimitException.class,
+                () -> archiveReader.readJavaSources("project.zip", new ByteArrayInputStream(this.zip(ENTRIES))));
+        assertThrows(ArchiveLimitException.class,
+                () -> archiveReader.readJavaSources("project.tar.gz", new ByteArrayInputStream(this.tarGz(ENTRIES))));
+    }
+
+    @Test
+    public void testSkippedEntriesCountTowardsTheUncompressedBytes() throws Exception {
+        Map<String, String> entries = Map.of("src/Element.java", "public class Element {}", "assets/blob.bin", "x".repeat(2048));
+        ArchiveReader archiveReader = new ArchiveReader(100, 1024);
+
+        assertThrows(ArchiveLimitException.class,
+                () -> archiveReader.readJavaSources("project.zip", new ByteArrayInputStream(this.zip(entries))));
+        assertThrows(ArchiveLimitException.class,
+                () -> archiveReader.readJavaSources("project.tar.gz", new ByteArrayInputStream(this.tarGz(entries))));
+    }
+}
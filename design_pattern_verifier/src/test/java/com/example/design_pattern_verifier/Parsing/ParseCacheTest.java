@@ -0,0 +1,86 @@
+package com.example.design_pattern_verifier.Parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+public class ParseCacheTest {
+
+    @Test
+    public void testContentHashDependsOnlyOnBytes() {
+        String first = ParseCache.contentHash("class A {}".getBytes(StandardCharsets.UTF_8));
+        String second = ParseCache.contentHash("class A {}".getBytes(StandardCharsets.UTF_8));
+        String third = ParseCache.contentHash("class B {}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(first, second);
+        assertNotEquals(first, third);
+        assertEquals(64, first.length());
+    }
+
+    @Test
+    public void testReturnsPrivateCopies() {
+        ParseCache parseCache = new ParseCache(10);
+        CompilationUnit cu = StaticJavaParser.parse("class A {}");
+        parseCache.put("a", cu);
+
+        CompilationUnit first = parseCache.get("a");
+        CompilationUnit second = parseCache.get("a");
+        assertNotNull(first);
+        assertNotSame(cu, first);
+        assertNotSame(first, second);
+        assertEquals("A", first.getType(0).getNameAsString());
+    }
+
+    @Test
+    public void testCopiesDropTheSymbolResolver() {
+        ParseCache parseCache = new ParseCache(10);
+        JavaParser javaParser = new JavaParser(new ParserConfiguration()
+                .setSymbolResolver(new JavaSymbolSolver(new CombinedTypeSolver(new ReflectionTypeSolver()))));
+        CompilationUnit cu = javaParser.parse("class A {}").getResult().get();
+        parseCache.put("a", cu);
+
+        assertTrue(cu.containsData(Node.SYMBOL_RESOLVER_KEY));
+        assertFalse(parseCache.get("a").containsData(Node.SYMBOL_RESOLVER_KEY));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ParseCache parseCache = new ParseCache(2);
+        parseCache.put("a", StaticJavaParser.parse("class A {}"));
+        parseCache.put("b", StaticJavaParser.parse("class B {}"));
+        parseCache.get("a");
+        parseCache.put("c", StaticJavaParser.parse("class C {}"));
+
+        assertEquals(2, parseCache.size());
+        assertNotNull(parseCache.get("a"));
+        assertNull(parseCache.get("b"));
+        assertNotNull(parseCache.get("c"));
+    }
+
+    @Test
+    public void testDisabledCacheKeepsNothing() {
+        ParseCache parseCache = new ParseCache(0);
+        parseCache.put("a", StaticJavaParser.parse("class A {}"));
+
+        assertEquals(0, parseCache.size());
+        assertNull(parseCache.get("a"));
+    }
+}
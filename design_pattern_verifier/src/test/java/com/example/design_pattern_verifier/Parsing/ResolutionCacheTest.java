@@ -0,0 +1,126 @@
+package com.example.design_pattern_verifier.Parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+public class ResolutionCacheTest {
+
+    private JavaParser javaParser;
+    private ResolutionCache resolutionCache;
+
+    @BeforeEach
+    public void setup() {
+        CombinedTypeSolver combinedSolver = new CombinedTypeSolver(new ReflectionTypeSolver());
+        ParserConfiguration parserConfiguration = new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedSolver));
+        this.javaParser = new JavaParser(parserConfiguration);
+        this.resolutionCache = new ResolutionCache();
+    }
+
+    private CompilationUnit parse(String source) {
+        return this.javaParser.parse(source).getResult().get();
+    }
+
+    @Test
+    public void testResolvesEachNodeOnce() {
+        CompilationUnit cu = this.parse("class A { int m(String s) { return s.length(); } }");
+        MethodCallExpr call = cu.findFirst(MethodCallExpr.class).get();
+        Parameter parameter = cu.findFirst(Parameter.class).get();
+
+        assertSame(this.resolutionCache.typeOf(call), this.resolutionCache.typeOf(call));
+        assertSame(this.resolutionCache.methodOf(call), this.resolutionCache.methodOf(call));
+        assertEquals("java.lang.String", this.resolutionCache.typeOf(parameter.getType()).describe());
+        assertEquals("java.lang.String", this.resolutionCache.typeOf(call.getScope().get()).describe());
+
+        assertEquals(4, this.resolutionCache.getMisses());
+        assertEquals(2, this.resolutionCache.getHits());
+    }
+
+    @Test
+    public void testRemembersFailedResolutions() {
+        CompilationUnit cu = this.parse("class A { void m(Missing missing) { missing.run(); } }");
+        MethodCallExpr call = cu.findFirst(MethodCallExpr.class).get();
+
+        assertThrows(RuntimeException.class, () -> this.resolutionCache.methodOf(call));
+        assertThrows(RuntimeException.class, () -> this.resolutionCache.methodOf(call));
+
+        assertEquals(1, this.resolutionCache.getMisses());
+        assertEquals(1, this.resolutionCache.getHits());
+    }
+
+    @Test
+    public void testParameterTypesAreCachedWithTheirMethod() {
+        CompilationUnit cu = this.parse("class A { void m(StringBuilder b) { b.append(\"x\"); } }");
+        MethodCallExpr call = cu.findFirst(MethodCallExpr.class).get();
+
+        assertEquals("java.lang.String", this.resolutionCache.parameterTypeOf(call, 0).describe());
+        assertSame(this.resolutionCache.parameterTypeOf(call, 0), this.resolutionCache.parameterTypeOf(call, 0));
+
+        // the parameter type and the method it belongs to
+        assertEquals(2, this.resolutionCache.getMisses());
+        assertEquals(2, this.resolutionCache.getHits());
+    }
+
+    @Test
+    public void testEqualNodesAreCachedSeparately() {
+        CompilationUnit cu = this.parse("class A { void m(String a) { a.toString(); } void n(Integer a) { a.toString(); } }");
+        MethodCallExpr first = cu.findAll(MethodCallExpr.class).get(0);
+        MethodCallExpr second = cu.findAll(MethodCallExpr.class).get(1);
+
+        assertEquals(first, second);
+        assertEquals("java.lang.String", this.resolutionCache.methodOf(first).declaringType().getQualifiedName());
+        assertEquals("java.lang.Integer", this.resolutionCache.methodOf(second).declaringType().getQualifiedName());
+        assertEquals(2, this.resolutionCache.getMisses());
+    }
+
+    @Test
+    public void testSerializedCacheSharedAcrossThreads() throws Exception {
+        ResolutionCache sharedCache = new ResolutionCache(true);
+        CompilationUnit cu = this.parse("class A { void m(String s, Integer i) { s.length(); i.intValue(); s.trim(); } }");
+        List<MethodCallExpr> calls = cu.findAll(MethodCallExpr.class);
+
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<ResolvedMethodDeclaration>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(threads.submit(() -> {
+                    List<ResolvedMethodDeclaration> resolved = new ArrayList<>();
+                    calls.forEach(call -> resolved.add(sharedCache.methodOf(call)));
+                    return resolved;
+                }));
+            }
+            List<ResolvedMethodDeclaration> first = results.get(0).get();
+            for (Future<List<ResolvedMethodDeclaration>> result : results) {
+                List<ResolvedMethodDeclaration> resolved = result.get();
+                for (int i = 0; i < calls.size(); i++) {
+                    assertSame(first.get(i), resolved.get(i));
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(4 * calls.size(), sharedCache.getHits() + sharedCache.getMisses());
+        assertEquals("length", sharedCache.methodOf(calls.get(0)).getName());
+    }
+}
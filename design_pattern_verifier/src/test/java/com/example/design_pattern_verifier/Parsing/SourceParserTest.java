@@ -0,0 +1,138 @@
+package com.example.design_pattern_verifier.Parsing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.ChainExtractor;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+public class SourceParserTest {
+
+    private SourceParser sourceParser;
+    private ParseCache parseCache;
+    private MemoryTypeSolver memoryTypeSolver;
+    private ParserConfiguration parserConfiguration;
+
+    @BeforeEach
+    public void setup() {
+        this.parseCache = new ParseCache(100);
+        this.sourceParser = new SourceParser(2, this.parseCache);
+        this.memoryTypeSolver = new MemoryTypeSolver();
+        CombinedTypeSolver combinedSolver = new CombinedTypeSolver(new ReflectionTypeSolver(), this.memoryTypeSolver);
+        this.parserConfiguration = new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedSolver));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.sourceParser.destroy();
+    }
+
+    private List<CompilationUnit> parse(String resourcePath) throws Exception {
+        Resource resource = new ClassPathResource(resourcePath);
+        Path directoryPath = Paths.get(resource.getURI());
+        List<CompilationUnit> compilationUnits = this.sourceParser.parseAll(this.sourceParser.findJavaFiles(directoryPath), this.parserConfiguration);
+        this.sourceParser.registerTypes(compilationUnits, this.memoryTypeSolver);
+        return compilationUnits;
+    }
+
+    @Test
+    public void testParallelDiscoveryFindsTheSameFiles() throws Exception {
+        Path directoryPath = Paths.get(new ClassPathResource("static").getURI());
+        assertEquals(this.sourceParser.findJavaFiles(directoryPath), this.sourceParser.findJavaFilesInParallel(directoryPath));
+    }
+
+    @Test
+    public void testParsesEachFileIntoItsOwnUnit() throws Exception {
+        List<CompilationUnit> compilationUnits = this.parse("static/VisitorTestDirs/vsrc2");
+
+        List<String> typeNames = compilationUnits.stream()
+                .map(cu -> cu.getType(0).getNameAsString())
+                .collect(Collectors.toList());
+        assertEquals(List.of("ConcreteVisitor", "ElementA", "ElementB", "IElement", "IVisitor", "Main"), typeNames);
+    }
+
+    @Test
+    public void testKeepsPackageDeclarations() throws Exception {
+        List<CompilationUnit> compilationUnits = this.parse("static/ChainOfResponsibilityTestDirs/CorrectCor");
+
+        assertEquals(1, compilationUnits.size());
+        assertTrue(compilationUnits.get(0).getPackageDeclaration().isPresent());
+        assertEquals("ChainOfResponsibilityTestDirs.CorrectCor", compilationUnits.get(0).getPackageDeclaration().get().getNameAsString());
+    }
+
+    @Test
+    public void testResolvesTypesAcrossFiles() throws Exception {
+        List<CompilationUnit> compilationUnits = this.parse("static/VisitorTestDirs/vsrc2");
+
+        CompilationUnit concreteVisitor = compilationUnits.get(0);
+        List<String> parameterTypes = concreteVisitor.findAll(MethodDeclaration.class).stream()
+                .map(method -> method.getParameter(0).getType().resolve().describe())
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of("ElementA", "ElementB"), parameterTypes);
+    }
+
+    @Test
+    public void testChainExtractionWithPackages() throws Exception {
+        List<CompilationUnit> compilationUnits = this.parse("static/ChainOfResponsibilityTestDirs/CorrectCor");
+
+        ChainExtractor chainExtractor = new ChainExtractor();
+        chainExtractor.extract(compilationUnits);
+
+        String[] chain = {"errorLogger", "fileLogger", "consoleLogger"};
+        assertArrayEquals(chain, chainExtractor.getChain().getHandlerNames().toArray());
+        assertTrue(chainExtractor.getRequestMethods().contains("logMessage"));
+    }
+
+    @Test
+    public void testUnchangedFilesAreServedFromTheCache() throws Exception {
+        List<CompilationUnit> first = this.parse("static/VisitorTestDirs/vsrc2");
+        assertEquals(0, this.parseCache.getHits());
+        assertEquals(6, this.parseCache.size());
+
+        List<CompilationUnit> second = this.parse("static/VisitorTestDirs/vsrc2");
+        assertEquals(6, this.parseCache.getHits());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(first.get(0).toString(), second.get(0).toString());
+
+        String parameterType = second.get(0).findAll(MethodDeclaration.class).get(0).getParameter(0).getType().resolve().describe();
+        assertEquals("ElementA", parameterType);
+    }
+
+    @Test
+    public void testParsesInMemorySources() throws Exception {
+        List<SourceFile> sources = List.of(
+                new SourceFile("Element.java", "public class Element { void accept(Visitor v) { v.visit(this); } }".getBytes(StandardCharsets.UTF_8)),
+                new SourceFile("Visitor.java", "public class Visitor { void visit(Element e) {} }".getBytes(StandardCharsets.UTF_8)));
+
+        List<CompilationUnit> compilationUnits = this.sourceParser.parseSources(sources, this.parserConfiguration);
+        this.sourceParser.registerTypes(compilationUnits, this.memoryTypeSolver);
+
+        assertEquals(2, compilationUnits.size());
+        String parameterType = compilationUnits.get(0).findAll(MethodDeclaration.class).get(0).getParameter(0).getType().resolve().describe();
+        assertEquals("Visitor", parameterType);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.design_pattern_verifier.Parsing;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+
+public class TypeSolverPoolTest {
+
+    private TypeSolverPool typeSolverPool;
+
+    @BeforeEach
+    public void setup() {
+        this.typeSolverPool = new TypeSolverPool();
+    }
+
+    @Test
+    public void testJdkTypesAreWarmedUp() {
+        assertTrue(this.typeSolverPool.getCachedJdkTypeCount() > 0);
+    }
+
+    @Test
+    public void testSessionsShareJdkDeclarations() {
+        CombinedTypeSolver first = this.typeSolverPool.sessionSolver(null);
+        CombinedTypeSolver second = this.typeSolverPool.sessionSolver(null);
+
+        assertSame(first.solveType("java.util.List"), second.solveType("java.util.List"));
+    }
+
+    @Test
+    public void testSessionOnlySeesItsOwnDirectory() throws Exception {
+        Path sessionA = Files.createTempDirectory("session_a");
+        Path sessionB = Files.createTempDirectory("session_b");
+        Files.writeString(sessionA.resolve("OnlyInA.java"), "public class OnlyInA {}");
+
+        CombinedTypeSolver solverA = this.typeSolverPool.sessionSolver(sessionA);
+        CombinedTypeSolver solverB = this.typeSolverPool.sessionSolver(sessionB);
+
+        assertTrue(solverA.tryToSolveType("OnlyInA").isSolved());
+        assertFalse(solverB.tryToSolveType("OnlyInA").isSolved());
+        assertTrue(solverB.tryToSolveType("java.lang.String").isSolved());
+    }
+}
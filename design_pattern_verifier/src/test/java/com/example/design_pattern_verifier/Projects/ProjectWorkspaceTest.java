@@ -0,0 +1,184 @@
+package com.example.design_pattern_verifier.Projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.example.design_pattern_verifier.service.Projects.Project;
+import com.example.design_pattern_verifier.service.Projects.ProjectLimitException;
+import com.example.design_pattern_verifier.service.Projects.ProjectWorkspace;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ProjectWorkspaceTest {
+
+    private SourceParser sourceParser;
+    private TypeSolverPool typeSolverPool;
+    private AnalyzeService analyzeService;
+    private ProjectWorkspace projectWorkspace;
+
+    @BeforeEach
+    public void setup() {
+        this.sourceParser = new SourceParser(2, new ParseCache(0));
+        this.typeSolverPool = new TypeSolverPool();
+        this.analyzeService = new AnalyzeService();
+        ReflectionTestUtils.setField(this.analyzeService, "sourceParser", this.sourceParser);
+        ReflectionTestUtils.setField(this.analyzeService, "typeSolverPool", this.typeSolverPool);
+        ReflectionTestUtils.setField(this.analyzeService, "analysisMetrics", new AnalysisMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(this.analyzeService, "parseMode", "per-file");
+        this.projectWorkspace = new ProjectWorkspace(this.analyzeService, this.sourceParser, this.typeSolverPool, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.sourceParser.destroy();
+        this.analyzeService.destroy();
+    }
+
+    private List<SourceFile> load(String resourcePath) throws Exception {
+        List<SourceFile> sources = new ArrayList<>();
+        for (Path path : this.sourceParser.findJavaFiles(Paths.get(new ClassPathResource(resourcePath).getURI()))) {
+            sources.add(new SourceFile(path.getFileName().toString(), Files.readAllBytes(path)));
+        }
+        return sources;
+    }
+
+    private SourceFile edit(List<SourceFile> sources, String name, String from, String to) {
+        for (SourceFile source : sources) {
+            if (source.getName().equals(name)) {
+                String content = new String(source.getContent(), StandardCharsets.UTF_8).replace(from, to);
+                return new SourceFile(name, content.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private List<String> messages(AnalysisReport report) {
+        List<String> messages = new ArrayList<>();
+        report.getFindings().forEach(finding -> messages.add(finding.getKind() + " " + finding.getSubject() + " " + finding.getMessage()));
+        messages.sort(null);
+        return messages;
+    }
+
+    @Test
+    public void testOnlyAffectedFilesAreRecollected() throws Exception {
+        List<SourceFile> sources = this.load("static/VisitorTestDirs/vsrc2");
+        Project project = new Project("shop");
+
+        assertEquals(sources.size(), project.update(sources, List.of(), this.sourceParser, this.typeSolverPool));
+        assertEquals(0, project.update(List.of(this.edit(sources, "Main.java", "", "")), List.of(), this.sourceParser, this.typeSolverPool));
+        // nothing refers to Main
+        assertEquals(1, project.update(List.of(this.edit(sources, "Main.java", "println", "print")), List.of(), this.sourceParser, this.typeSolverPool));
+        // ConcreteVisitor, IVisitor and Main name ElementA
+        assertEquals(4, project.update(List.of(this.edit(sources, "ElementA.java", "1000", "1001")), List.of(), this.sourceParser, this.typeSolverPool));
+        assertEquals(4, project.getRevision());
+    }
+
+    @Test
+    public void testIncrementalUpdateMatchesFullAnalysis() throws Exception {
+        List<SourceFile> sources = this.load("static/VisitorTestDirs/vsrc2");
+        this.projectWorkspace.update("shop", sources, List.of(), "visitor");
+
+        // ConcreteVisitor stops handling ElementB
+        SourceFile changed = this.edit(sources, "ConcreteVisitor.java", "public Number visit(ElementB element)", "public Number handle(ElementB element)");
+        AnalysisReport incremental = this.projectWorkspace.update("shop", List.of(changed), List.of(), "visitor");
+
+        List<SourceFile> current = new ArrayList<>(sources);
+        current.replaceAll(source -> source.getName().equals(changed.getName()) ? changed : source);
+        AnalysisReport full = this.analyzeService.analyseSourcesForReport(current, "visitor", AnalysisListener.NONE);
+        assertEquals(this.messages(full), this.messages(incremental));
+    }
+
+    private SourceFile source(String name, String content) {
+        return new SourceFile(name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testInheritedMethodChangeMatchesFullAnalysis() throws Exception {
+        List<SourceFile> sources = List.of(
+                this.source("Visitor.java", "public interface Visitor { void visit(Circle c); void visit(Square s); }"),
+                this.source("Shape.java", "public abstract class Shape { public void accept(Visitor v) { } }"),
+                this.source("Circle.java", "public class Circle extends Shape { }"),
+                this.source("Square.java", "public class Square extends Shape { public void accept(Visitor v) { v.visit(this); } }"),
+                this.source("Painter.java", "public class Painter implements Visitor { public void visit(Circle c) { } public void visit(Square s) { } }"),
+                this.source("Gallery.java", "public class Gallery { void show(Circle c, Painter p) { c.accept(p); } }"));
+        this.projectWorkspace.update("shapes", sources, List.of(), "visitor");
+
+        // Circle inherits the changed accept, so Gallery depends on Shape without naming it
+        SourceFile changed = this.edit(sources, "Shape.java", "public void accept(Visitor v) { }", "public void accept(Visitor v) { v.visit((Circle) this); }");
+        Project project = this.projectWorkspace.get("shapes");
+        assertEquals(sources.size(), project.update(List.of(changed), List.of(), this.sourceParser, this.typeSolverPool));
+        AnalysisReport incremental = this.analyzeService.analyseProject(project, "visitor", AnalysisListener.NONE);
+
+        List<SourceFile> current = new ArrayList<>(sources);
+        current.replaceAll(source -> source.getName().equals(changed.getName()) ? changed : source);
+        AnalysisReport full = this.analyzeService.analyseSourcesForReport(current, "visitor", AnalysisListener.NONE);
+        assertEquals(this.messages(full), this.messages(incremental));
+    }
+
+    @Test
+    public void testChainIsReusedUntilItsClassesChange() throws Exception {
+        List<SourceFile> sources = this.load("static/ChainOfResponsibilityTestDirs/IncorrectCor_RedundantHandler");
+        AnalysisReport first = this.projectWorkspace.update("atm", sources, List.of(), "chain");
+        Project project = this.projectWorkspace.get("atm");
+
+        // a class outside the chain leaves the chain results as they were
+        SourceFile unrelated = new SourceFile("Receipt.java", "class Receipt { String text; }".getBytes(StandardCharsets.UTF_8));
+        project.update(List.of(unrelated), List.of(), this.sourceParser, this.typeSolverPool);
+        assertNotNull(project.reusableChainReport());
+        assertEquals(this.messages(first), this.messages(this.analyzeService.analyseProject(project, "chain", AnalysisListener.NONE)));
+
+        // a client as the chain extraction sees it, i.e. a signature mentioning main, may start a chain
+        project.update(List.of(this.source("Teller.java", "class Teller { void serve(String[] mainArgs) { } }")), List.of(), this.sourceParser, this.typeSolverPool);
+        assertNull(project.reusableChainReport());
+        this.analyzeService.analyseProject(project, "chain", AnalysisListener.NONE);
+
+        SourceFile changed = this.edit(sources, "Currency.java", "return this.amount;", "return this.amount + 0;");
+        project.update(List.of(changed), List.of(), this.sourceParser, this.typeSolverPool);
+        assertNull(project.reusableChainReport());
+    }
+
+    @Test
+    public void testDeletedFilesAreDropped() throws Exception {
+        this.projectWorkspace.update("shop", this.load("static/VisitorTestDirs/vsrc2"), List.of(), "visitor");
+        this.projectWorkspace.update("shop", List.of(), List.of("Main.java", "Unknown.java"), "visitor");
+
+        assertFalse(this.projectWorkspace.get("shop").getFileNames().contains("Main.java"));
+        assertEquals(5, this.projectWorkspace.get("shop").getFileNames().size());
+    }
+
+    @Test
+    public void testWorkspaceIsBounded() throws Exception {
+        List<SourceFile> sources = List.of(new SourceFile("A.java", "class A {}".getBytes(StandardCharsets.UTF_8)));
+        this.projectWorkspace.update("first", sources, List.of(), "visitor");
+        this.projectWorkspace.update("second", sources, List.of(), "visitor");
+
+        assertThrows(ProjectLimitException.class, () -> this.projectWorkspace.update("third", sources, List.of(), "visitor"));
+        this.projectWorkspace.update("first", sources, List.of(), "visitor");
+        this.projectWorkspace.delete("second");
+        this.projectWorkspace.update("third", sources, List.of(), "visitor");
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.design_pattern_verifier.Sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import com.example.design_pattern_verifier.service.AnalysisListener;
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Findings.AnalysisReport;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.example.design_pattern_verifier.service.Sharding.ShardPlan;
+import com.example.design_pattern_verifier.service.Sharding.ShardSummary;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorCollection;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ShardingTest {
+
+    private Path tree;
+    private SourceParser sourceParser;
+    private AnalyzeService analyzeService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        this.tree = Files.createTempDirectory("sharded_tree");
+        this.sourceParser = new SourceParser(2, new ParseCache(0));
+        this.analyzeService = new AnalyzeService(this.sourceParser, new TypeSolverPool(),
+                new AnalysisMetrics(new SimpleMeterRegistry()), "per-file", false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.analyzeService.destroy();
+        this.sourceParser.destroy();
+    }
+
+    private void write(String path, String content) throws Exception {
+        Path file = this.tree.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    /**
+     * Copies every file of a test directory into a directory of its own, so each becomes a package shard.
+     */
+    private List<Path> spread(String resourcePath) throws Exception {
+        for (Path source : this.sourceParser.findJavaFiles(Paths.get(new ClassPathResource(resourcePath).getURI()))) {
+            String name = source.getFileName().toString();
+            Path target = this.tree.resolve(name.replace(".java", "")).resolve(name);
+            Files.createDirectories(target.getParent());
+            Files.copy(source, target);
+        }
+        return this.sourceParser.findJavaFiles(this.tree);
+    }
+
+    private List<String> messages(AnalysisReport report) {
+        List<String> messages = new ArrayList<>();
+        report.getFindings().forEach(finding -> messages.add(finding.getKind() + " " + finding.getSubject() + " " + finding.getMessage()));
+        messages.sort(null);
+        return messages;
+    }
+
+    @Test
+    public void testShardsFollowModulesAndPackages() throws Exception {
+        this.write("build.gradle.kts", "");
+        this.write("core/build.gradle.kts", "");
+        this.write("core/src/main/java/shop/core/Cart.java", "package shop.core;\nclass Cart {}\n");
+        this.write("core/src/main/java/shop/core/model/Item.java", "package shop.core.model;\nclass Item {}\n");
+        this.write("web/src/main/java/shop/web/Page.java", "package shop.web;\nclass Page {}\n");
+        List<Path> sourceFiles = this.sourceParser.findJavaFiles(this.tree);
+
+        ShardPlan modules = ShardPlan.plan(this.tree, sourceFiles, ShardPlan.Mode.MODULE);
+        ShardPlan packages = ShardPlan.plan(this.tree, sourceFiles, ShardPlan.Mode.PACKAGE);
+
+        // web has no build file of its own, so it belongs to the root module
+        assertEquals(2, modules.getShards().size());
+        assertEquals(3, packages.getShards().size());
+        assertEquals(2, modules.getSourceRoots().size());
+        assertTrue(modules.getSourceRoots().contains(this.tree.resolve("core/src/main/java").toAbsolutePath()));
+        assertTrue(modules.getSourceRoots().contains(this.tree.resolve("web/src/main/java").toAbsolutePath()));
+    }
+
+    @Test
+    public void testChainFilesFollowTheHandlersDownFromTheirBases() throws Exception {
+        this.write("Handler.java", "abstract class Handler { Handler next; }");
+        this.write("Cash.java", "class Cash extends Handler implements Audited { }");
+        this.write("Card.java", "class Card extends Handler implements Printable { }");
+        this.write("Printable.java", "interface Printable { }");
+        this.write("Receipt.java", "class Receipt implements Printable { }");
+        this.write("Audited.java", "interface Audited { }");
+        this.write("Ledger.java", "class Ledger implements Audited { }");
+        this.write("Request.java", "class Request { }");
+        this.write("Atm.java", "class Atm { public static void main(String[] args) { Handler h = new Cash(); h.next = null; new Request(); } }");
+        List<CompilationUnit> compilationUnits = new ArrayList<>();
+        for (Path file : this.sourceParser.findJavaFiles(this.tree)) {
+            compilationUnits.add(StaticJavaParser.parse(file));
+        }
+        ShardPlan plan = ShardPlan.plan(this.tree, this.sourceParser.findJavaFiles(this.tree), ShardPlan.Mode.PACKAGE);
+        ShardSummary summary = new ShardSummary(plan.getShards().get(0), compilationUnits,
+                VisitorCollection.collect(compilationUnits, new ResolutionCache()));
+
+        Set<String> chainFiles = ShardSummary.chainFiles(List.of(summary)).stream()
+                .map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+
+        // Card is left out of the chain but shares the base of Cash, and Ledger shares its interface; the walk
+        // does not go up again from Card, so Receipt stays out, as does a request that only the client names
+        assertEquals(Set.of("Atm.java", "Handler.java", "Cash.java", "Card.java", "Audited.java", "Ledger.java"), chainFiles);
+    }
+
+    @Test
+    public void testShardedVisitorFindingsMatchTheFullAnalysis() throws Exception {
+        List<Path> sourceFiles = this.spread("static/VisitorTestDirs/vsrc2");
+        ShardPlan plan = ShardPlan.plan(this.tree, sourceFiles, ShardPlan.Mode.PACKAGE);
+
+        AnalysisReport sharded = this.analyzeService.analyseSharded(plan, "visitor", 2, AnalysisListener.NONE);
+        AnalysisReport full = this.analyzeService.analyseFilesForReport(sourceFiles, "visitor", AnalysisListener.NONE);
+
+        assertEquals(sourceFiles.size(), plan.getShards().size());
+        assertEquals(this.messages(full), this.messages(sharded));
+    }
+
+    @Test
+    public void testShardedChainFindingsMatchTheFullAnalysis() throws Exception {
+        List<Path> sourceFiles = this.spread("static/ChainOfResponsibilityTestDirs/IncorrectCor_RedundantHandler");
+        ShardPlan plan = ShardPlan.plan(this.tree, sourceFiles, ShardPlan.Mode.PACKAGE);
+
+        AnalysisReport sharded = this.analyzeService.analyseSharded(plan, "chain", 2, AnalysisListener.NONE);
+        AnalysisReport full = this.analyzeService.analyseFilesForReport(sourceFiles, "chain", AnalysisListener.NONE);
+
+        assertTrue(sharded.getFindings().size() > 0);
+        assertEquals(this.messages(full), this.messages(sharded));
+    }
+}
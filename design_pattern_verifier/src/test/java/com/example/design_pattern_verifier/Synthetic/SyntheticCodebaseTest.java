@@ -0,0 +1,130 @@
+package com.example.design_pattern_verifier.Synthetic;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.ChainExtractor;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.HandlerChainAnalyzer;
+import com.example.design_pattern_verifier.service.ChainOfResponsibilityPattern.RequestPropagationAnalyzer;
+import com.example.design_pattern_verifier.service.Findings.Finding;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+public class SyntheticCodebaseTest {
+
+    private SourceParser sourceParser;
+
+    @BeforeEach
+    public void setup() {
+        this.sourceParser = new SourceParser(2, new ParseCache(0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.sourceParser.destroy();
+    }
+
+    private List<CompilationUnit> parse(List<SourceFile> sources) throws Exception {
+        MemoryTypeSolver memoryTypeSolver = new MemoryTypeSolver();
+        CombinedTypeSolver combinedSolver = new CombinedTypeSolver(new ReflectionTypeSolver(), memoryTypeSolver);
+        ParserConfiguration parserConfiguration = new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedSolver));
+        List<CompilationUnit> compilationUnits = this.sourceParser.parseSources(sources, parserConfiguration);
+        this.sourceParser.registerTypes(compilationUnits, memoryTypeSolver);
+        return compilationUnits;
+    }
+
+    @Test
+    public void testSameSeedSameSources() {
+        List<SourceFile> first = new SyntheticCodebase().seed(7).redundantHandlers(1).generate();
+        List<SourceFile> second = new SyntheticCodebase().seed(7).redundantHandlers(1).generate();
+        List<SourceFile> other = new SyntheticCodebase().seed(8).redundantHandlers(1).generate();
+
+        assertEquals(first.size(), second.size());
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getName(), second.get(i).getName());
+            assertArrayEquals(first.get(i).getContent(), second.get(i).getContent());
+            differs |= !new String(first.get(i).getContent()).equals(new String(other.get(i).getContent()));
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    public void testVisitorTreeShape() {
+        List<SourceFile> sources = new SyntheticCodebase().elements(20).visitors(3).hierarchyDepth(2).hierarchyWidth(3).visitorSources();
+
+        // Element, 3 + 9 groups, 20 elements, Visitor, 3 visitors
+        assertEquals(1 + 12 + 20 + 1 + 3, sources.size());
+        JavaParser javaParser = new JavaParser();
+        for (SourceFile source : sources) {
+            assertTrue(javaParser.parse(new String(source.getContent())).isSuccessful(), source.getName());
+        }
+    }
+
+    @Test
+    public void testRejectsImpossibleChains() {
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticCodebase().handlers(1).chainSources());
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticCodebase().handlers(4).redundantHandlers(3).chainSources());
+    }
+
+    @Test
+    public void testChainFlawsAreFound() throws Exception {
+        List<CompilationUnit> compilationUnits = this.parse(new SyntheticCodebase()
+                .handlers(12)
+                .redundantHandlers(2)
+                .brokenHandlers(3)
+                .unusedHandlers(1)
+                .chainSources());
+
+        ChainExtractor chainExtractor = new ChainExtractor();
+        chainExtractor.extract(compilationUnits);
+        assertEquals(12, chainExtractor.getChain().getHandlerNames().size());
+        assertFalse(chainExtractor.isCircularChain());
+
+        HandlerChainAnalyzer handlerChainAnalyzer = new HandlerChainAnalyzer(
+                chainExtractor.getHandlerHierarchy(),
+                chainExtractor.getBaseHandlers(),
+                chainExtractor.getChain(),
+                chainExtractor.getClients(),
+                chainExtractor.getBaseHandlerResponsibilities(),
+                chainExtractor.getChain().getConcreteHandlerResponsibilityMap(),
+                chainExtractor.getChainObjects());
+        handlerChainAnalyzer.analyze();
+        assertEquals(2, this.count(handlerChainAnalyzer.getFindings(), Finding.Kind.REDUNDANT_RESPONSIBILITY));
+        assertEquals(1, this.count(handlerChainAnalyzer.getFindings(), Finding.Kind.UNUSED_HANDLER));
+
+        RequestPropagationAnalyzer requestPropagationAnalyzer = new RequestPropagationAnalyzer(
+                chainExtractor.getHandlerHierarchy(),
+                chainExtractor.getBaseHandlers(),
+                chainExtractor.getBaseHandlerResponsibilities(),
+                chainExtractor.getChain(),
+                chainExtractor.getChainVariables(),
+                chainExtractor.getChainObjects(),
+                chainExtractor.getClients(),
+                chainExtractor.getRequestMethods(),
+                chainExtractor.isCircularChain());
+        requestPropagationAnalyzer.analyze();
+        assertEquals(3, this.count(requestPropagationAnalyzer.getFindings(), Finding.Kind.BROKEN_PROPAGATION));
+    }
+
+    private long count(List<Finding> findings, Finding.Kind kind) {
+        return findings.stream().filter(finding -> finding.getKind() == kind).count();
+    }
+}
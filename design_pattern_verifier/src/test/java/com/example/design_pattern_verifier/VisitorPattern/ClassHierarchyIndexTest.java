@@ -0,0 +1,107 @@
+package com.example.design_pattern_verifier.VisitorPattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.VisitorPattern.ClassHierarchyIndex;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolTable;
+import com.example.design_pattern_verifier.service.VisitorPattern.TypeGraph;
+
+public class ClassHierarchyIndexTest {
+
+    private ClassHierarchyIndex hierarchyIndex;
+
+    @BeforeEach
+    public void setup() {
+        Map<String, String> subclassToSuperclassMap = new HashMap<>();
+        subclassToSuperclassMap.put("ElementA", "AbstractElement");
+        subclassToSuperclassMap.put("ElementB", "AbstractElement");
+        subclassToSuperclassMap.put("SpecialElementA", "ElementA");
+        subclassToSuperclassMap.put("AbstractElement", "IElement");
+        subclassToSuperclassMap.put("ConcreteVisitor", "IVisitor");
+        subclassToSuperclassMap.put("LoopA", "LoopB");
+        subclassToSuperclassMap.put("LoopB", "LoopA");
+        this.hierarchyIndex = new ClassHierarchyIndex(subclassToSuperclassMap);
+    }
+
+    @Test
+    public void testAncestors() {
+        assertEquals(Set.of("ElementA", "AbstractElement", "IElement"), this.hierarchyIndex.getAncestors("SpecialElementA"));
+        assertTrue(this.hierarchyIndex.isAncestor("IElement", "SpecialElementA"));
+        assertFalse(this.hierarchyIndex.isAncestor("SpecialElementA", "IElement"));
+        assertTrue(this.hierarchyIndex.getAncestors("IElement").isEmpty());
+    }
+
+    @Test
+    public void testDescendants() {
+        assertEquals(Set.of("AbstractElement", "ElementA", "ElementB", "SpecialElementA"), this.hierarchyIndex.getDescendants("IElement"));
+        assertEquals(Set.of("SpecialElementA"), this.hierarchyIndex.getDescendants("ElementA"));
+        assertTrue(this.hierarchyIndex.getDescendants("ElementB").isEmpty());
+    }
+
+    @Test
+    public void testRelatedIsSymmetric() {
+        assertTrue(this.hierarchyIndex.isRelated("ElementB", "IElement"));
+        assertTrue(this.hierarchyIndex.isRelated("IElement", "ElementB"));
+        assertTrue(this.hierarchyIndex.isRelated("Unknown", "Unknown"));
+        assertFalse(this.hierarchyIndex.isRelated("ElementA", "ElementB"));
+        assertFalse(this.hierarchyIndex.isRelated("ConcreteVisitor", "IElement"));
+    }
+
+    @Test
+    public void testRoots() {
+        assertEquals(Set.of("IElement"), this.hierarchyIndex.getRoots("SpecialElementA"));
+        assertEquals(Set.of("IVisitor"), this.hierarchyIndex.getRoots("IVisitor"));
+    }
+
+    @Test
+    public void testKeepsEveryInterface() {
+        TypeGraph typeGraph = new TypeGraph();
+        typeGraph.markDeclared("Shape");
+        typeGraph.markDeclared("Visitable");
+        typeGraph.markDeclared("Circle");
+        typeGraph.addSupertype("Circle", "Shape");
+        typeGraph.addSupertype("Circle", "Visitable");
+        typeGraph.addSupertype("Circle", "Serializable");
+        ClassHierarchyIndex index = new ClassHierarchyIndex(typeGraph);
+
+        assertEquals(List.of("Shape", "Visitable", "Serializable"), typeGraph.getSupertypes("Circle"));
+        assertTrue(index.isRelated("Circle", "Shape"));
+        assertTrue(index.isRelated("Visitable", "Circle"));
+        assertEquals(Set.of("Shape", "Visitable"), index.getDeclaredAncestors("Circle"));
+        assertEquals(Set.of("Shape", "Visitable"), index.getRoots("Circle"));
+        assertEquals(Set.of("Circle"), index.getDescendants("Serializable"));
+    }
+
+    @Test
+    public void testNamesOutsideTheHierarchyHaveEmptySets() {
+        SymbolTable symbols = new SymbolTable();
+        int accept = symbols.intern("accept");
+        TypeGraph typeGraph = new TypeGraph(symbols);
+        typeGraph.addSupertype("Circle", "Shape");
+        ClassHierarchyIndex index = new ClassHierarchyIndex(typeGraph);
+        int late = symbols.intern("visit");
+
+        assertTrue(index.ancestorIds(accept).isEmpty());
+        assertTrue(index.descendantIds(accept).isEmpty());
+        assertTrue(index.ancestorIds(late).isEmpty());
+        assertTrue(index.descendantIds(symbols.idOf("Circle")).isEmpty());
+        assertTrue(index.descendantIds(symbols.idOf("Shape")).get(symbols.idOf("Circle")));
+        assertFalse(index.isRelated(accept, symbols.idOf("Shape")));
+    }
+
+    @Test
+    public void testCyclicHierarchyTerminates() {
+        assertEquals(Set.of("LoopB"), this.hierarchyIndex.getAncestors("LoopA"));
+        assertTrue(this.hierarchyIndex.isRelated("LoopA", "LoopB"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.design_pattern_verifier.VisitorPattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.VisitorPattern.ClassHierarchyExtractor;
+import com.example.design_pattern_verifier.service.VisitorPattern.DoubleDispatchDetector;
+import com.example.design_pattern_verifier.service.VisitorPattern.FusedTraversal;
+import com.example.design_pattern_verifier.service.VisitorPattern.MethodCallCollector;
+import com.example.design_pattern_verifier.service.VisitorPattern.MethodInformationExtractor;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorAnalyzer;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+public class FusedTraversalTest {
+
+    private static final List<String> TEST_DIRS = List.of("vsrc1", "vsrc2", "vsrc3", "vsrc4", "vsrc5", "vsrc6", "vsrc7", "src3");
+
+    private SourceParser sourceParser;
+
+    @BeforeEach
+    public void setup() {
+        this.sourceParser = new SourceParser(2, new ParseCache(0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.sourceParser.destroy();
+    }
+
+    private List<CompilationUnit> parse(String resourcePath) throws Exception {
+        MemoryTypeSolver memoryTypeSolver = new MemoryTypeSolver();
+        CombinedTypeSolver combinedSolver = new CombinedTypeSolver(new ReflectionTypeSolver(), memoryTypeSolver);
+        ParserConfiguration parserConfiguration = new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(combinedSolver));
+
+        Resource resource = new ClassPathResource(resourcePath);
+        Path directoryPath = Paths.get(resource.getURI());
+        List<CompilationUnit> compilationUnits = this.sourceParser.parseAll(this.sourceParser.findJavaFiles(directoryPath), parserConfiguration);
+        this.sourceParser.registerTypes(compilationUnits, memoryTypeSolver);
+        return compilationUnits;
+    }
+
+    private String analyzeSeparately(List<CompilationUnit> compilationUnits) {
+        MethodCallCollector methodCallCollector = new MethodCallCollector();
+        ClassHierarchyExtractor classHierarchyExtractor = new ClassHierarchyExtractor();
+        MethodInformationExtractor methodInformationExtractor = new MethodInformationExtractor();
+        compilationUnits.forEach(cu -> {
+            cu.accept(classHierarchyExtractor, null);
+            cu.accept(methodCallCollector, null);
+            cu.accept(methodInformationExtractor, null);
+        });
+        methodCallCollector.finalizeMaps();
+
+        DoubleDispatchDetector doubleDispatchDetector = new DoubleDispatchDetector(methodCallCollector.getCandidates(), classHierarchyExtractor.getSubclassToSuperclassMap());
+        compilationUnits.forEach(cu -> cu.accept(doubleDispatchDetector, null));
+
+        return this.format(methodCallCollector, classHierarchyExtractor, methodInformationExtractor, doubleDispatchDetector);
+    }
+
+    private String analyzeFused(List<CompilationUnit> compilationUnits) {
+        MethodCallCollector methodCallCollector = new MethodCallCollector();
+        ClassHierarchyExtractor classHierarchyExtractor = new ClassHierarchyExtractor();
+        MethodInformationExtractor methodInformationExtractor = new MethodInformationExtractor();
+        FusedTraversal traversal = new FusedTraversal()
+                .register(classHierarchyExtractor)
+                .register(methodCallCollector)
+                .register(methodInformationExtractor);
+        compilationUnits.forEach(cu -> cu.accept(traversal, null));
+        methodCallCollector.finalizeMaps();
+
+        DoubleDispatchDetector doubleDispatchDetector = new DoubleDispatchDetector(methodCallCollector.getCandidates(), classHierarchyExtractor.getSubclassToSuperclassMap());
+        traversal.getMethodsWithCalls().forEach(doubleDispatchDetector::detect);
+
+        return this.format(methodCallCollector, classHierarchyExtractor, methodInformationExtractor, doubleDispatchDetector);
+    }
+
+    private String format(MethodCallCollector methodCallCollector, ClassHierarchyExtractor classHierarchyExtractor,
+            MethodInformationExtractor methodInformationExtractor, DoubleDispatchDetector doubleDispatchDetector) {
+        VisitorAnalyzer visitorAnalyzer = new VisitorAnalyzer(methodCallCollector.getCandidates(), doubleDispatchDetector.getElementToVisitorMappings(), classHierarchyExtractor.getSubclassToSuperclassMap(), methodInformationExtractor.getMethodInformation(), methodInformationExtractor.getInteractions());
+        visitorAnalyzer.analyze();
+        return methodCallCollector.getCandidates() + "\n"
+                + methodCallCollector.getMethodCalls() + "\n"
+                + classHierarchyExtractor.getSubclassToSuperclassMap() + "\n"
+                + methodInformationExtractor.getMethodInformation() + "\n"
+                + methodInformationExtractor.getInteractions() + "\n"
+                + doubleDispatchDetector.getElementToVisitorMappings() + "\n"
+                + visitorAnalyzer.getFormattedAnalysisResults();
+    }
+
+    @Test
+    public void testFusedTraversalMatchesSeparatePasses() throws Exception {
+        for (String dir : TEST_DIRS) {
+            List<CompilationUnit> compilationUnits = this.parse("static/VisitorTestDirs/" + dir);
+            assertEquals(this.analyzeSeparately(compilationUnits), this.analyzeFused(compilationUnits), dir);
+        }
+    }
+
+    @Test
+    public void testOnlyMethodsWithCallsAreRecorded() throws Exception {
+        List<CompilationUnit> compilationUnits = this.parse("static/VisitorTestDirs/vsrc2");
+        FusedTraversal traversal = new FusedTraversal();
+        compilationUnits.forEach(cu -> cu.accept(traversal, null));
+
+        assertFalse(traversal.getMethodsWithCalls().isEmpty());
+        traversal.getMethodsWithCalls().forEach(method -> assertFalse(method.findAll(MethodCallExpr.class).isEmpty()));
+    }
+
+    @Test
+    public void testCollectorTimesAreKeptPerCollector() throws Exception {
+        List<CompilationUnit> compilationUnits = this.parse("static/VisitorTestDirs/vsrc2");
+        FusedTraversal traversal = new FusedTraversal()
+                .register(new ClassHierarchyExtractor())
+                .register(new MethodCallCollector())
+                .register(new MethodInformationExtractor());
+        compilationUnits.forEach(cu -> cu.accept(traversal, null));
+
+        Map<String, Long> collectorNanos = traversal.getCollectorNanos();
+        assertEquals(List.of("ClassHierarchyExtractor", "MethodCallCollector", "MethodInformationExtractor"), List.copyOf(collectorNanos.keySet()));
+        collectorNanos.values().forEach(nanos -> assertTrue(nanos > 0));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.design_pattern_verifier.VisitorPattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.design_pattern_verifier.service.Parsing.ResolutionCache;
+import com.example.design_pattern_verifier.service.VisitorPattern.MethodInformationExtractor;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolRelation;
+import com.example.design_pattern_verifier.service.VisitorPattern.SymbolTable;
+import com.example.design_pattern_verifier.service.VisitorPattern.VisitorCollection;
+import com.github.javaparser.StaticJavaParser;
+
+public class SymbolRelationTest {
+
+    @Test
+    public void testNamesAreInternedOnce() {
+        SymbolTable symbols = new SymbolTable();
+        int circle = symbols.intern("Circle");
+
+        assertEquals(circle, symbols.intern("Circle"));
+        assertEquals(circle + 1, symbols.intern("Square"));
+        assertEquals("Square", symbols.nameOf(circle + 1));
+        assertEquals(-1, symbols.idOf("Triangle"));
+        assertEquals(2, symbols.size());
+    }
+
+    @Test
+    public void testNormalizeTypeName() {
+        assertEquals("Shape", SymbolTable.normalizeTypeName("com.example.Shape"));
+        assertEquals("List", SymbolTable.normalizeTypeName("java.util.List<com.example.Shape>"));
+        assertEquals("int", SymbolTable.normalizeTypeName("int"));
+    }
+
+    @Test
+    public void testPairsAreDeduplicatedAndNumbered() {
+        SymbolRelation relation = new SymbolRelation();
+
+        assertTrue(relation.add(3, 1));
+        assertTrue(relation.add(3, 2));
+        assertFalse(relation.add(3, 1));
+        assertEquals(2, relation.pairIndex(0, 3));
+        assertEquals(0, relation.indexOf(3, 1));
+        assertEquals(-1, relation.indexOf(1, 3));
+        assertEquals(3, relation.size());
+        assertEquals(2, relation.targetCount(3));
+        assertEquals(0, relation.targetCount(42));
+        assertEquals(2, relation.keyCount());
+        assertEquals(3, relation.key(0));
+        assertEquals(0, relation.key(1));
+        assertTrue(relation.anyTarget(3, target -> target == 2));
+        assertFalse(relation.anyTarget(0, target -> target == 2));
+    }
+
+    @Test
+    public void testGrowsPastItsInitialCapacity() {
+        SymbolRelation relation = new SymbolRelation();
+        for (int from = 0; from < 100; from++) {
+            for (int to = 0; to < 10; to++) {
+                relation.add(from, to);
+            }
+        }
+
+        assertEquals(1000, relation.size());
+        assertEquals(100, relation.keyCount());
+        for (int i = 0; i < relation.size(); i++) {
+            assertEquals(i, relation.indexOf(relation.from(i), relation.to(i)));
+        }
+        assertEquals(500, relation.filterKeys(from -> from % 2 == 0).size());
+    }
+
+    @Test
+    public void testConvertsFromAndToNames() {
+        SymbolTable symbols = new SymbolTable();
+        Map<String, Set<String>> map = Map.of("Circle", Set.of("ShapeVisitor"), "ShapeVisitor", Set.of("Circle", "Square"));
+
+        assertEquals(map, SymbolRelation.of(map, symbols).toMap(symbols, symbols));
+    }
+
+    @Test
+    public void testMergeTranslatesBetweenTables() {
+        MethodInformationExtractor circle = new MethodInformationExtractor();
+        StaticJavaParser.parse("class Circle { void accept(Visitor v) { v.visit(this); } }").accept(circle, null);
+        MethodInformationExtractor square = new MethodInformationExtractor();
+        StaticJavaParser.parse("class Square { void accept(Visitor v) { v.visit((Shape) this); } }").accept(square, null);
+
+        MethodInformationExtractor merged = new MethodInformationExtractor();
+        merged.mergeFrom(circle);
+        merged.mergeFrom(square);
+
+        assertEquals(Map.of("Circle", Set.of("accept(Visitor v)"), "Square", Set.of("accept(Visitor v)")), merged.getMethodInformation());
+        assertEquals(Set.of("v.visit(this)"), merged.getInteractions().get("Circle.accept"));
+        assertEquals(Set.of("v.visit((Shape) this)", "Cast to Shape in Square.accept"), merged.getInteractions().get("Square.accept"));
+    }
+
+    @Test
+    public void testInteractionTextsStayOutOfTheSharedTable() {
+        SymbolTable symbols = new SymbolTable();
+        MethodInformationExtractor extractor = new MethodInformationExtractor(symbols);
+        StaticJavaParser.parse("class Circle { void accept(Visitor v) { v.visit(this); } }").accept(extractor, null);
+
+        assertEquals(-1, symbols.idOf("v.visit(this)"));
+        assertTrue(extractor.hasInteractions("Circle"));
+        assertFalse(extractor.hasInteractions("Square"));
+        assertEquals(Set.of("v.visit(this)"), extractor.getInteractionsOf("Circle"));
+        assertEquals(Set.of("accept(Visitor v)"), extractor.getSignatures("Circle"));
+    }
+
+    @Test
+    public void testMergeKeepsASharedTable() {
+        SymbolTable symbols = new SymbolTable();
+        VisitorCollection circle = VisitorCollection.collect(
+                List.of(StaticJavaParser.parse("class Circle extends Shape { void accept(Visitor v) { v.visit(this); } }")), new ResolutionCache(), symbols);
+        VisitorCollection square = VisitorCollection.collect(
+                List.of(StaticJavaParser.parse("class Square extends Shape { }")), new ResolutionCache(), symbols);
+
+        VisitorCollection merged = VisitorCollection.merge(List.of(circle, square));
+
+        assertSame(symbols, merged.getSymbols());
+        assertSame(symbols, merged.getClassHierarchyExtractor().getTypeGraph().getSymbols());
+        assertTrue(merged.getClassHierarchyExtractor().buildHierarchyIndex().isRelated(symbols.idOf("Circle"), symbols.idOf("Shape")));
+        assertNotSame(symbols, VisitorCollection.merge(List.of(circle, VisitorCollection.collect(List.of(), new ResolutionCache()))).getSymbols());
+    }
+}
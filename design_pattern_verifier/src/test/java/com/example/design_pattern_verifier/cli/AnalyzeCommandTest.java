@@ -0,0 +1,125 @@
+package com.example.design_pattern_verifier.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import com.example.design_pattern_verifier.service.AnalysisMetrics;
+import com.example.design_pattern_verifier.service.AnalyzeService;
+import com.example.design_pattern_verifier.service.Parsing.ParseCache;
+import com.example.design_pattern_verifier.service.Parsing.SourceParser;
+import com.example.design_pattern_verifier.service.Parsing.TypeSolverPool;
+import com.example.design_pattern_verifier.service.Sharding.ShardPlan;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AnalyzeCommandTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(String... args) {
+        return AnalyzeCommand.run(args, new PrintStream(this.out, true, StandardCharsets.UTF_8), new PrintStream(this.err, true, StandardCharsets.UTF_8));
+    }
+
+    private String directory(String resourcePath) throws Exception {
+        return Paths.get(new ClassPathResource(resourcePath).getURI()).toString();
+    }
+
+    @Test
+    public void testBadArgumentsPrintUsage() throws Exception {
+        assertEquals(AnalyzeCommand.ERROR, this.run());
+        assertEquals(AnalyzeCommand.ERROR, this.run("--format=xml", this.directory("static/VisitorTestDirs/vsrc2")));
+        assertEquals(AnalyzeCommand.ERROR, this.run("--pattern=singleton", this.directory("static/VisitorTestDirs/vsrc2")));
+        assertEquals(AnalyzeCommand.ERROR, this.run("--pattern=visitor,", this.directory("static/VisitorTestDirs/vsrc2")));
+        assertEquals(AnalyzeCommand.ERROR, this.run("does/not/exist"));
+        assertTrue(this.err.toString(StandardCharsets.UTF_8).contains("usage: analyze"));
+        assertEquals(0, this.out.size());
+    }
+
+    @Test
+    public void testJsonReportAndExitCode() throws Exception {
+        String directory = this.directory("static/ChainOfResponsibilityTestDirs/IncorrectCor_RedundantHandler");
+
+        assertEquals(AnalyzeCommand.FINDINGS, this.run("--pattern=chain", "--format=json", directory));
+        JsonNode report = new ObjectMapper().readTree(this.out.toByteArray());
+        assertEquals("chain", report.get("pattern").asText());
+        assertTrue(report.get("findings").size() > 0);
+
+        this.out.reset();
+        assertEquals(AnalyzeCommand.OK, this.run("--pattern=chain", "--fail-on=never", directory));
+    }
+
+    @Test
+    public void testBatchWritesOneConsolidatedReport() throws Exception {
+        String visitor = this.directory("static/VisitorTestDirs/vsrc2");
+        String chain = this.directory("static/ChainOfResponsibilityTestDirs/IncorrectCor_RedundantHandler");
+
+        assertEquals(AnalyzeCommand.FINDINGS, this.run("--format=json", "--threads=2", visitor, chain));
+        JsonNode report = new ObjectMapper().readTree(this.out.toByteArray());
+        assertEquals(2, report.get("roots").size());
+        assertEquals(visitor, report.get("roots").get(0).get("root").asText());
+        assertEquals("analysed", report.get("roots").get(0).get("status").asText());
+        assertEquals(chain, report.get("roots").get(1).get("root").asText());
+        assertTrue(report.get("roots").get(1).get("findings").size() > 0);
+    }
+
+    @Test
+    public void testRootsOverTheBudgetAreSkipped() throws Exception {
+        SourceParser sourceParser = new SourceParser(2, new ParseCache(0));
+        AnalyzeService analyzeService = new AnalyzeService(sourceParser, new TypeSolverPool(),
+                new AnalysisMetrics(new SimpleMeterRegistry()), "per-file", false);
+        List<BatchScan.RootResult> results = new ArrayList<>();
+        try {
+            new BatchScan(analyzeService, sourceParser, 2, 1, null).scan(List.of(Paths.get(this.directory("static/VisitorTestDirs/vsrc2"))), "visitor", results::add);
+        } finally {
+            analyzeService.destroy();
+            sourceParser.destroy();
+        }
+
+        assertEquals(1, results.size());
+        assertEquals(BatchScan.RootResult.Status.SKIPPED, results.get(0).getStatus());
+        assertNull(results.get(0).getReport());
+    }
+
+    @Test
+    public void testShardedRootsAreBudgetedByTheirLargestShard() throws Exception {
+        Path root = Files.createTempDirectory("budget");
+        for (String name : List.of("a", "b")) {
+            Files.createDirectories(root.resolve(name));
+            Files.writeString(root.resolve(name).resolve("Handler.java"), "package " + name + "; public class Handler { }");
+        }
+        long shardBytes = Files.size(root.resolve("a").resolve("Handler.java"));
+
+        SourceParser sourceParser = new SourceParser(2, new ParseCache(0));
+        AnalyzeService analyzeService = new AnalyzeService(sourceParser, new TypeSolverPool(),
+                new AnalysisMetrics(new SimpleMeterRegistry()), "per-file", false);
+        List<BatchScan.RootResult> results = new ArrayList<>();
+        try {
+            // the whole root is over the budget, but each package alone fits
+            new BatchScan(analyzeService, sourceParser, 2, shardBytes, ShardPlan.Mode.PACKAGE).scan(List.of(root), "visitor", results::add);
+            new BatchScan(analyzeService, sourceParser, 2, shardBytes - 1, ShardPlan.Mode.PACKAGE).scan(List.of(root), "visitor", results::add);
+        } finally {
+            analyzeService.destroy();
+            sourceParser.destroy();
+        }
+
+        assertEquals(BatchScan.RootResult.Status.ANALYSED, results.get(0).getStatus());
+        assertEquals(2 * shardBytes, results.get(0).getBytes());
+        assertEquals(BatchScan.RootResult.Status.SKIPPED, results.get(1).getStatus());
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.design_pattern_verifier.Synthetic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.example.design_pattern_verifier.service.Parsing.SourceFile;
+
+/**
+ * Generates Java source trees of any size in the shape of the bundled fixtures, for scale tests and benchmarks.
+ * The same settings and seed always produce the same files.
+ *
+ * The visitor tree has one Element interface, hierarchyDepth levels of abstract groups with hierarchyWidth
+ * children each, the concrete elements spread over the deepest groups, a Visitor interface and the visitors.
+ *
+ * The chain tree has one abstract Handler, the handlers linked in order by a client, and optionally
+ * redundant handlers (an exact copy of another handler's responsibility), broken handlers (handle the
+ * request but never pass it on) and unused handlers (declared but not linked into the chain).
+ */
+public class SyntheticCodebase {
+    public static final String VISITOR_PACKAGE = "gen.visitor";
+    public static final String CHAIN_PACKAGE = "gen.chain";
+
+    private long seed = 42;
+    private int elements = 10;
+    private int visitors = 2;
+    private int hierarchyDepth = 1;
+    private int hierarchyWidth = 2;
+    private int handlers = 5;
+    private int redundantHandlers = 0;
+    private int brokenHandlers = 0;
+    private int unusedHandlers = 0;
+
+    public SyntheticCodebase seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SyntheticCodebase elements(int elements) {
+        this.elements = elements;
+        return this;
+    }
+
+    public SyntheticCodebase visitors(int visitors) {
+        this.visitors = visitors;
+        return this;
+    }
+
+    public SyntheticCodebase hierarchyDepth(int hierarchyDepth) {
+        this.hierarchyDepth = hierarchyDepth;
+        return this;
+    }
+
+    public SyntheticCodebase hierarchyWidth(int hierarchyWidth) {
+        this.hierarchyWidth = hierarchyWidth;
+        return this;
+    }
+
+    public SyntheticCodebase handlers(int handlers) {
+        this.handlers = handlers;
+        return this;
+    }
+
+    public SyntheticCodebase redundantHandlers(int redundantHandlers) {
+        this.redundantHandlers = redundantHandlers;
+        return this;
+    }
+
+    public SyntheticCodebase brokenHandlers(int brokenHandlers) {
+        this.brokenHandlers = brokenHandlers;
+        return this;
+    }
+
+    public SyntheticCodebase unusedHandlers(int unusedHandlers) {
+        this.unusedHandlers = unusedHandlers;
+        return this;
+    }
+
+    /**
+     * @return The visitor tree followed by the chain tree.
+     */
+    public List<SourceFile> generate() {
+        List<SourceFile> sources = new ArrayList<>(this.visitorSources());
+        sources.addAll(this.chainSources());
+        return sources;
+    }
+
+    public void writeTo(Path directory) throws IOException {
+        for (SourceFile source : this.generate()) {
+            Path file = directory.resolve(source.getName());
+            Files.createDirectories(file.getParent());
+            Files.write(file, source.getContent());
+        }
+    }
+
+    public List<SourceFile> visitorSources() {
+        if (this.elements < 1 || this.visitors < 0 || this.hierarchyDepth < 0 || this.hierarchyWidth < 1) {
+            throw new IllegalArgumentException("Needs at least one element, a non-negative depth and a positive width.");
+        }
+        Random random = new Random(this.seed);
+        List<SourceFile> sources = new ArrayList<>();
+
+        sources.add(this.source(VISITOR_PACKAGE, "Element",
+                "public interface Element {\n"
+                + "    void accept(Visitor visitor);\n"
+                + "}\n"));
+
+        List<String> parents = List.of("Element");
+        for (int level = 1; level <= this.hierarchyDepth; level++) {
+            List<String> groups = new ArrayList<>();
+            for (int p = 0; p < parents.size(); p++) {
+                for (int w = 0; w < this.hierarchyWidth; w++) {
+                    String group = "Group" + level + "_" + groups.size();
+                    String supertype = level == 1 ? "implements Element" : "extends " + parents.get(p);
+                    sources.add(this.source(VISITOR_PACKAGE, group, "public abstract class " + group + " " + supertype + " {\n}\n"));
+                    groups.add(group);
+                }
+            }
+            parents = groups;
+        }
+
+        StringBuilder visitorInterface = new StringBuilder("public interface Visitor {\n");
+        for (int i = 0; i < this.elements; i++) {
+            String element = "Element" + i;
+            String leaf = parents.get(i % parents.size());
+            String supertype = leaf.equals("Element") ? "implements Element" : "extends " + leaf;
+            sources.add(this.source(VISITOR_PACKAGE, element,
+                    "public class " + element + " " + supertype + " {\n"
+                    + "    private int value = " + random.nextInt(1000) + ";\n"
+                    + "\n"
+                    + "    public int getValue() {\n"
+                    + "        return this.value;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void accept(Visitor visitor) {\n"
+                    + "        visitor.visit(this);\n"
+                    + "    }\n"
+                    + "}\n"));
+            visitorInterface.append("    void visit(").append(element).append(" element);\n");
+        }
+        visitorInterface.append("}\n");
+        sources.add(this.source(VISITOR_PACKAGE, "Visitor", visitorInterface.toString()));
+
+        for (int v = 0; v < this.visitors; v++) {
+            StringBuilder visitor = new StringBuilder("public class SumVisitor" + v + " implements Visitor {\n"
+                    + "    private int total = 0;\n");
+            for (int i = 0; i < this.elements; i++) {
+                visitor.append("\n")
+                        .append("    @Override\n")
+                        .append("    public void visit(Element").append(i).append(" element) {\n")
+                        .append("        this.total += element.getValue();\n")
+                        .append("    }\n");
+            }
+            visitor.append("}\n");
+            sources.add(this.source(VISITOR_PACKAGE, "SumVisitor" + v, visitor.toString()));
+        }
+        return sources;
+    }
+
+    public List<SourceFile> chainSources() {
+        if (this.handlers < 2) {
+            throw new IllegalArgumentException("A chain needs at least two handlers.");
+        }
+        // the tail never passes requests on anyway, so it is neither broken nor a copy
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < this.handlers - 1; i++) {
+            candidates.add(i);
+        }
+        if (this.brokenHandlers < 0 || this.redundantHandlers < 0 || this.unusedHandlers < 0
+                || this.brokenHandlers + this.redundantHandlers > candidates.size()
+                || this.brokenHandlers + 2 * this.redundantHandlers > candidates.size() + 1) {
+            throw new IllegalArgumentException("Too many broken or redundant handlers for a chain of " + this.handlers + ".");
+        }
+        Random random = new Random(this.seed);
+        Collections.shuffle(candidates, random);
+
+        // responsibility i checks request % modulus == remainder[i]; remainders are distinct, so bodies only match when copied
+        int total = this.handlers + this.unusedHandlers;
+        List<Integer> remainders = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            remainders.add(i);
+        }
+        Collections.shuffle(remainders, random);
+
+        boolean[] broken = new boolean[this.handlers];
+        int[] copyOf = new int[this.handlers];
+        Arrays.fill(copyOf, -1);
+        for (int b = 0; b < this.brokenHandlers; b++) {
+            broken[candidates.get(b)] = true;
+        }
+        List<Integer> originals = new ArrayList<>(candidates.subList(this.brokenHandlers + this.redundantHandlers, candidates.size()));
+        originals.add(this.handlers - 1);
+        for (int r = 0; r < this.redundantHandlers; r++) {
+            copyOf[candidates.get(this.brokenHandlers + r)] = originals.get(r);
+        }
+
+        List<SourceFile> sources = new ArrayList<>();
+        sources.add(this.source(CHAIN_PACKAGE, "Handler",
+                "public abstract class Handler {\n"
+                + "    protected Handler next;\n"
+                + "\n"
+                + "    public void setNext(Handler next) {\n"
+                + "        this.next = next;\n"
+                + "    }\n"
+                + "\n"
+                + "    public abstract void handle(int request);\n"
+                + "}\n"));
+
+        for (int i = 0; i < total; i++) {
+            boolean inChain = i < this.handlers;
+            int remainder = remainders.get(inChain && copyOf[i] >= 0 ? copyOf[i] : i);
+            String propagation = inChain && broken[i]
+                    ? ""
+                    : " else if (next != null) {\n"
+                    + "            next.handle(request);\n"
+                    + "        }";
+            String handler = "Handler" + i;
+            sources.add(this.source(CHAIN_PACKAGE, handler,
+                    "public class " + handler + " extends Handler {\n"
+                    + "    @Override\n"
+                    + "    public void handle(int request) {\n"
+                    + "        if (request % " + total + " == " + remainder + ") {\n"
+                    + "            System.out.println(\"handled \" + request);\n"
+                    + "        }" + propagation + "\n"
+                    + "    }\n"
+                    + "}\n"));
+        }
+
+        StringBuilder client = new StringBuilder("public class ChainClient {\n"
+                + "    public static void main(String[] args) {\n");
+        for (int i = 0; i < this.handlers; i++) {
+            client.append("        Handler h").append(i).append(" = new Handler").append(i).append("();\n");
+        }
+        client.append("\n");
+        for (int i = 0; i + 1 < this.handlers; i++) {
+            client.append("        h").append(i).append(".setNext(h").append(i + 1).append(");\n");
+        }
+        client.append("\n")
+                .append("        h0.handle(").append(random.nextInt(1000)).append(");\n")
+                .append("    }\n")
+                .append("}\n");
+        sources.add(this.source(CHAIN_PACKAGE, "ChainClient", client.toString()));
+        return sources;
+    }
+
+    private SourceFile source(String packageName, String className, String body) {
+        String content = "package " + packageName + ";\n\n" + body;
+        return new SourceFile(packageName.replace('.', '/') + "/" + className + ".java", content.getBytes(StandardCharsets.UTF_8));
+    }
+}